@@ -1,45 +1,167 @@
 # anomaly_detection.py
 import argparse
 import json
+import struct
+import sys
 import cv2
 import numpy as np
 from ultralytics import YOLO
 
-def detect_anomalies(image_path):
-    model = YOLO("model/best.pt")
+DEFAULT_MODEL = "model/best.pt"
 
-    results = model.predict(source=image_path, conf=0.25, save=False, verbose=False)
-    img = cv2.imread(image_path)
-    image_height, image_width = img.shape[:2]
+
+def load_model(model_path=DEFAULT_MODEL):
+    return YOLO(model_path)
+
+
+def decode_image(data):
+    img = cv2.imdecode(np.frombuffer(data, dtype=np.uint8), cv2.IMREAD_COLOR)
+    if img is None:
+        raise ValueError("Could not decode image bytes")
+    return img
+
+
+def to_anomalies(result, image_width, image_height):
+    boxes = result.boxes.xyxy.cpu().numpy()
+    labels = result.boxes.cls.cpu().numpy()
+    scores = result.boxes.conf.cpu().numpy()
+    boxes = boxes / np.array([image_width, image_height, image_width, image_height])
 
     anomalies = []
+    for box, label, score in zip(boxes, labels, scores):
+        anomalies.append({
+            "class": result.names[int(label)],
+            "confidence": float(f"{score:.2f}"),
+            "box": box.tolist()
+        })
+    return anomalies
 
-    for r in results:
-        boxes = r.boxes.xyxy.cpu().numpy()
-        labels = r.boxes.cls.cpu().numpy()
-        scores = r.boxes.conf.cpu().numpy()
-        boxes = boxes / np.array([image_width, image_height, image_width, image_height])
-
-        for box, label, score in zip(boxes, labels, scores):
-            anomalies.append({
-                "class": r.names[int(label)],
-                "confidence": float(f"{score:.2f}"),
-                "box": box.tolist()
-            })
 
+def detect_anomalies(image, model=None):
+    """image is either a file path or an already decoded BGR array."""
+    if model is None:
+        model = load_model()
+
+    img = cv2.imread(image) if isinstance(image, str) else image
+    if img is None:
+        raise ValueError(f"Could not read image: {image}")
+    results = model.predict(source=img, conf=0.25, save=False, verbose=False)
+    image_height, image_width = img.shape[:2]
+
+    anomalies = []
+    for r in results:
+        anomalies.extend(to_anomalies(r, image_width, image_height))
     return anomalies
 
 
+def detect_anomalies_batch(images, model):
+    """Runs one batched predict over decoded images; returns one result dict per input."""
+    results = model.predict(source=images, conf=0.25, save=False, verbose=False)
+    return [{"ok": True, "anomalies": to_anomalies(r, img.shape[1], img.shape[0])}
+            for img, r in zip(images, results)]
+
+
+# ===== Worker mode =====
+# Frames are a 4-byte big-endian length followed by a UTF-8 JSON payload.
+# Requests:  {"op": "ping"}
+#            {"op": "detect", "image": "<path>"}
+#            {"op": "detect", "bytes": <n>} followed by one raw frame holding the encoded image
+#            {"op": "detect_batch", "count": <n>} followed by n raw image frames
+# Responses: {"ok": true, ...} | {"ok": false, "error": "<message>"}
+
+def read_frame(stream):
+    header = stream.read(4)
+    if not header or len(header) < 4:
+        return None
+    (length,) = struct.unpack(">I", header)
+    payload = stream.read(length)
+    if len(payload) < length:
+        return None
+    return payload
+
+
+def write_frame(stream, obj):
+    payload = json.dumps(obj).encode("utf-8")
+    stream.write(struct.pack(">I", len(payload)))
+    stream.write(payload)
+    stream.flush()
+
+
+def serve_batch(frames, model):
+    # Undecodable images get their own error entry instead of failing the whole batch
+    results = [None] * len(frames)
+    decoded, positions = [], []
+    for i, data in enumerate(frames):
+        try:
+            decoded.append(decode_image(data))
+            positions.append(i)
+        except Exception as e:
+            results[i] = {"ok": False, "error": str(e)}
+    if decoded:
+        for i, res in zip(positions, detect_anomalies_batch(decoded, model)):
+            results[i] = res
+    return results
+
+
+def serve(model_path):
+    frames_in = sys.stdin.buffer
+    frames_out = sys.stdout.buffer
+    # Anything the model libraries print must not corrupt the frame channel
+    sys.stdout = sys.stderr
+
+    model = load_model(model_path)
+    write_frame(frames_out, {"ok": True, "op": "ready", "model": model_path})
+
+    while True:
+        payload = read_frame(frames_in)
+        if payload is None:
+            break
+        try:
+            req = json.loads(payload.decode("utf-8"))
+            op = req.get("op")
+            if op == "ping":
+                write_frame(frames_out, {"ok": True, "op": "pong"})
+            elif op == "detect":
+                if "bytes" in req:
+                    # Image bytes arrive over the pipe and are decoded in memory
+                    data = read_frame(frames_in)
+                    if data is None:
+                        break
+                    source = decode_image(data)
+                else:
+                    source = req["image"]
+                detections = detect_anomalies(source, model)
+                write_frame(frames_out, {"ok": True, "anomalies": detections})
+            elif op == "detect_batch":
+                frames = [read_frame(frames_in) for _ in range(int(req["count"]))]
+                if any(f is None for f in frames):
+                    break
+                write_frame(frames_out, {"ok": True, "results": serve_batch(frames, model)})
+            else:
+                write_frame(frames_out, {"ok": False, "error": f"Unknown op: {op}"})
+        except Exception as e:
+            print(f"Error: {e}", file=sys.stderr)
+            write_frame(frames_out, {"ok": False, "error": str(e)})
+
+
 if __name__ == "__main__":
     parser = argparse.ArgumentParser()
-    parser.add_argument("--image", required=True, help="Path to image file")
+    parser.add_argument("--image", help="Path to image file")
+    parser.add_argument("--serve", action="store_true", help="Run as a long-lived worker speaking framed JSON on stdin/stdout")
+    parser.add_argument("--model", default=DEFAULT_MODEL, help="Path to the YOLO weights")
     args = parser.parse_args()
 
+    if args.serve:
+        serve(args.model)
+        sys.exit(0)
+
+    if not args.image:
+        parser.error("--image is required unless --serve is given")
+
     try:
-        detections = detect_anomalies(args.image)
+        detections = detect_anomalies(args.image, load_model(args.model))
         print(json.dumps({"anomalies": detections}))
     except Exception as e:
         # Print errors to stderr so Java can capture them
-        import sys
         print(f"Error: {e}", file=sys.stderr)
         sys.exit(1)
@@ -0,0 +1,17 @@
+# export_onnx.py
+# Exports the YOLO weights for the in-JVM engine (detection.engine: onnx).
+import argparse
+
+from ultralytics import YOLO
+
+DEFAULT_MODEL = "model/best.pt"
+
+if __name__ == "__main__":
+    parser = argparse.ArgumentParser()
+    parser.add_argument("--model", default=DEFAULT_MODEL, help="Path to the YOLO weights")
+    parser.add_argument("--imgsz", type=int, default=640, help="Square input size; must match detection.onnx.image-size")
+    args = parser.parse_args()
+
+    # Fixed 1x3xNxN input; the class names are kept in the model metadata
+    path = YOLO(args.model).export(format="onnx", imgsz=args.imgsz, dynamic=False, simplify=True)
+    print(path)
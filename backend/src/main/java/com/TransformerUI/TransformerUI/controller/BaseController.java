@@ -1,11 +1,17 @@
 package com.TransformerUI.TransformerUI.controller;
 
 import com.TransformerUI.TransformerUI.transport.response.ApiResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 public class BaseController {
 
+    // Sent with busy (5003) responses so clients back off before retrying
+    @Value("${detection.admission.retry-after-seconds:5}")
+    private long retryAfterSeconds;
+
     public <T> ResponseEntity<ApiResponse<T>> setResponseEntity(ApiResponse<T> commonAdaptorResp){
         String responseCode = commonAdaptorResp.getResponseCode();
         return switch (responseCode) {
@@ -13,6 +19,9 @@ public class BaseController {
             case "2007" -> ResponseEntity.status(HttpStatus.MULTI_STATUS).body(commonAdaptorResp);
             case "4000", "4001" -> ResponseEntity.status(HttpStatus.BAD_REQUEST).body(commonAdaptorResp);
             case "4003" -> ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(commonAdaptorResp);
+            case "5003" -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                    .body(commonAdaptorResp);
             default -> ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(commonAdaptorResp);
         };
     }
@@ -33,6 +33,9 @@ public class DevFailedDetectionsController {
         if (Files.exists(p1)) return p1;
         Path p2 = Paths.get(cwd, "backend", "python", "..", "failed-detections").normalize();
         if (Files.exists(p2)) return p2;
+        // where FailedDetectionImages preserves failed inputs (next to the system temp dir)
+        Path tmp = Paths.get(System.getProperty("java.io.tmpdir"), "..", "failed-detections").normalize();
+        if (Files.exists(tmp)) return tmp;
         // fallback to user home local AppData used in earlier errors
         Path p3 = Paths.get(System.getProperty("user.home"), "AppData", "Local", "failed-detections");
         return p3;
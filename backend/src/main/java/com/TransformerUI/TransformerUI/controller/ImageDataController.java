@@ -1,15 +1,35 @@
 package com.TransformerUI.TransformerUI.controller;
 
 import com.TransformerUI.TransformerUI.constant.LoggingAdviceConstants;
+import com.TransformerUI.TransformerUI.service.DetectionJobService;
 import com.TransformerUI.TransformerUI.service.ImageDataService;
+import com.TransformerUI.TransformerUI.service.ImageIngestService;
+import com.TransformerUI.TransformerUI.service.detection.DetectionEventPublisher;
+import com.TransformerUI.TransformerUI.service.storage.ImageContentWriter;
+import com.TransformerUI.TransformerUI.service.storage.ImageSize;
 import com.TransformerUI.TransformerUI.service.util.exception.type.BaseException;
+import com.TransformerUI.TransformerUI.transport.request.BatchDetectionRequest;
 import com.TransformerUI.TransformerUI.transport.request.ImageRequest;
 import com.TransformerUI.TransformerUI.transport.response.ApiResponse;
+import com.TransformerUI.TransformerUI.transport.response.BatchDetectionResponse;
+import com.TransformerUI.TransformerUI.transport.response.BulkIngestResponse;
+import com.TransformerUI.TransformerUI.transport.response.ChangeMapResponse;
+import com.TransformerUI.TransformerUI.transport.response.DetectionCacheStatsResponse;
+import com.TransformerUI.TransformerUI.transport.response.DetectionJobResponse;
+import com.TransformerUI.TransformerUI.transport.response.ImageMetadataResponse;
+import com.TransformerUI.TransformerUI.transport.response.ImageMigrationResponse;
 import com.TransformerUI.TransformerUI.transport.response.ImageResponse;
+import com.TransformerUI.TransformerUI.transport.response.ResponseCodeEnum;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
 
 @RestController
 @RequestMapping("${base-url.context}" + "/image-data")
@@ -17,13 +37,25 @@ import org.springframework.web.bind.annotation.*;
 public class ImageDataController extends BaseController {
 
     private final ImageDataService imageDataService;
+    private final DetectionJobService detectionJobService;
+    private final DetectionEventPublisher detectionEventPublisher;
+    private final ImageContentWriter imageContentWriter;
+    private final ImageIngestService imageIngestService;
 
-    public ImageDataController(ImageDataService imageDataService) {
+    public ImageDataController(ImageDataService imageDataService, DetectionJobService detectionJobService,
+                               DetectionEventPublisher detectionEventPublisher, ImageContentWriter imageContentWriter,
+                               ImageIngestService imageIngestService) {
         this.imageDataService = imageDataService;
+        this.detectionJobService = detectionJobService;
+        this.detectionEventPublisher = detectionEventPublisher;
+        this.imageContentWriter = imageContentWriter;
+        this.imageIngestService = imageIngestService;
     }
 
     @PostMapping("/create")
-    public ResponseEntity<ApiResponse<ImageResponse>> uploadImage(@ModelAttribute ImageRequest imageRequest, HttpServletRequest request) throws BaseException {
+    public ResponseEntity<ApiResponse<ImageResponse>> uploadImage(@ModelAttribute ImageRequest imageRequest,
+                                                                  @RequestParam(defaultValue = "false") boolean detectAsync,
+                                                                  HttpServletRequest request) throws BaseException {
         long startTime = System.currentTimeMillis();
         log.info(LoggingAdviceConstants.REQUEST_INITIATED, request.getMethod(), request.getRequestURI());
         // Save the image (do not run detector in mapper)
@@ -31,17 +63,24 @@ public class ImageDataController extends BaseController {
         // After saving, attempt detection (best-effort). If detection fails partially, we'll return the saved image but include the detection message.
         String detectionMsg = null;
         String detectionCode = null;
-        try {
-            ApiResponse<com.TransformerUI.TransformerUI.transport.response.AnomaliesResponse> det = imageDataService.detectAnomalies(imageRequest.getTransformerNo(), imageRequest.getInspectionNo());
-            detectionCode = det.getResponseCode();
-            detectionMsg = det.getResponseDescription();
-            if (!"2000".equals(det.getResponseCode()) && det.getResponseDescription() != null) {
-                log.warn("Detection returned non-success for {}/{}: {}", imageRequest.getTransformerNo(), imageRequest.getInspectionNo(), det.getResponseDescription());
+        if (detectAsync) {
+            // Queue detection as a job; the client polls /detect/jobs/{jobId}
+            ApiResponse<DetectionJobResponse> job = detectionJobService.submitDetection(imageRequest.getTransformerNo(), imageRequest.getInspectionNo());
+            detectionCode = job.getResponseCode();
+            detectionMsg = job.getResponseData() == null ? job.getResponseDescription() : "queued as job " + job.getResponseData().getJobId();
+        } else {
+            try {
+                ApiResponse<com.TransformerUI.TransformerUI.transport.response.AnomaliesResponse> det = imageDataService.detectAnomalies(imageRequest.getTransformerNo(), imageRequest.getInspectionNo());
+                detectionCode = det.getResponseCode();
+                detectionMsg = det.getResponseDescription();
+                if (!"2000".equals(det.getResponseCode()) && det.getResponseDescription() != null) {
+                    log.warn("Detection returned non-success for {}/{}: {}", imageRequest.getTransformerNo(), imageRequest.getInspectionNo(), det.getResponseDescription());
+                }
+            } catch (Exception ex) {
+                log.warn("Detection attempt failed after upload: {}", ex.getMessage());
+                detectionMsg = "Detection attempt failed: " + ex.getMessage();
+                detectionCode = "2007";
             }
-        } catch (Exception ex) {
-            log.warn("Detection attempt failed after upload: {}", ex.getMessage());
-            detectionMsg = "Detection attempt failed: " + ex.getMessage();
-            detectionCode = "2007";
         }
 
         // After saving (and attempting detection), fetch the stored image response (includes anomalies/photo)
@@ -56,20 +95,172 @@ public class ImageDataController extends BaseController {
         return setResponseEntity(resp);
     }
 
+    /**
+     * Saves the image and returns without waiting for detection or reading the image back.
+     * Thermal images are queued for detection; follow it on {@code /detect/events}.
+     */
+    @PostMapping("/upload")
+    public ResponseEntity<ApiResponse<DetectionJobResponse>> uploadImageAsync(@ModelAttribute ImageRequest imageRequest, HttpServletRequest request) throws BaseException {
+        long startTime = System.currentTimeMillis();
+        log.info(LoggingAdviceConstants.REQUEST_INITIATED, request.getMethod(), request.getRequestURI());
+        ApiResponse<Void> saveResp = imageDataService.saveImage(imageRequest);
+        ApiResponse<DetectionJobResponse> resp = "Thermal".equals(imageRequest.getType())
+                ? detectionJobService.submitDetection(imageRequest.getTransformerNo(), imageRequest.getInspectionNo())
+                : new ApiResponse<>(saveResp.getResponseCode(), saveResp.getResponseDescription());
+        log.info(LoggingAdviceConstants.REQUEST_TERMINATED, System.currentTimeMillis() - startTime, resp.getResponseDescription());
+        return setResponseEntity(resp);
+    }
+
+    /**
+     * Bulk upload: the request body is a ZIP or tar (optionally gzipped) archive with a
+     * {@code manifest.json} or {@code manifest.csv} mapping each file to transformerNo,
+     * inspectionNo and type. The body is read as a stream, never as a whole.
+     */
+    @PostMapping(value = "/bulk", consumes = {"application/zip", "application/x-tar", "application/gzip", "application/octet-stream"})
+    public ResponseEntity<ApiResponse<BulkIngestResponse>> ingestArchive(HttpServletRequest request) throws BaseException, IOException {
+        long startTime = System.currentTimeMillis();
+        log.info(LoggingAdviceConstants.REQUEST_INITIATED, request.getMethod(), request.getRequestURI());
+        ApiResponse<BulkIngestResponse> resp = imageIngestService.ingestArchive(request.getInputStream());
+        log.info(LoggingAdviceConstants.REQUEST_TERMINATED, System.currentTimeMillis() - startTime, resp.getResponseDescription());
+        return setResponseEntity(resp);
+    }
+
+    /**
+     * Server-Sent Events for the detection of one thermal image: {@code status} events carry a
+     * DetectionJobResponse, the final {@code result} event the same payload as {@code /detect}.
+     */
+    @GetMapping(value = "/detect/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter detectionEvents(@RequestParam String transformerNo, @RequestParam String inspectionNo, HttpServletRequest request) {
+        log.info(LoggingAdviceConstants.REQUEST_INITIATED, request.getMethod(), request.getRequestURI());
+        return detectionEventPublisher.subscribe(transformerNo, inspectionNo);
+    }
+
+    /**
+     * With {@code includePhoto=false} the response carries only {@code photoUrl}; fetch the image
+     * from {@code /content}. {@code size} is {@code thumbnail}, {@code preview} or {@code full}.
+     */
     @GetMapping("/view")
-    public ResponseEntity<ApiResponse<ImageResponse>> getImage(@RequestParam String transformerNo, @RequestParam String inspectionNo, @RequestParam String type, HttpServletRequest request) throws BaseException {
+    public ResponseEntity<ApiResponse<ImageResponse>> getImage(@RequestParam String transformerNo, @RequestParam String inspectionNo, @RequestParam String type,
+                                                               @RequestParam(defaultValue = "true") boolean includePhoto, @RequestParam(required = false) String size,
+                                                               HttpServletRequest request) throws BaseException {
         long startTime = System.currentTimeMillis();
         log.info(LoggingAdviceConstants.REQUEST_INITIATED, request.getMethod(), request.getRequestURI());
-        ApiResponse<ImageResponse> resp = imageDataService.getImage(transformerNo, inspectionNo, type);
+        ApiResponse<ImageResponse> resp = imageDataService.getImage(transformerNo, inspectionNo, type, includePhoto, parseSize(size));
         log.info(LoggingAdviceConstants.REQUEST_TERMINATED, System.currentTimeMillis() - startTime, resp.getResponseDescription());
         return setResponseEntity(resp);
     }
 
+    /**
+     * Image metadata and detection summaries without any image bytes; omit {@code inspectionNo}
+     * for all of the transformer's images.
+     */
+    @GetMapping("/metadata")
+    public ResponseEntity<ApiResponse<List<ImageMetadataResponse>>> getImageMetadata(@RequestParam String transformerNo, @RequestParam(required = false) String inspectionNo, HttpServletRequest request) throws BaseException {
+        long startTime = System.currentTimeMillis();
+        log.info(LoggingAdviceConstants.REQUEST_INITIATED, request.getMethod(), request.getRequestURI());
+        ApiResponse<List<ImageMetadataResponse>> resp = imageDataService.getImageMetadata(transformerNo, inspectionNo);
+        log.info(LoggingAdviceConstants.REQUEST_TERMINATED, System.currentTimeMillis() - startTime, resp.getResponseDescription());
+        return setResponseEntity(resp);
+    }
+
+    /**
+     * The image as binary with its own content type. Supports {@code If-None-Match} (304) and
+     * single {@code Range} requests (206).
+     */
+    @RequestMapping(value = "/content", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void getImageContent(@RequestParam String transformerNo, @RequestParam String inspectionNo, @RequestParam String type,
+                                @RequestParam(required = false) String size, HttpServletRequest request, HttpServletResponse response) throws BaseException, IOException {
+        long startTime = System.currentTimeMillis();
+        log.info(LoggingAdviceConstants.REQUEST_INITIATED, request.getMethod(), request.getRequestURI());
+        try {
+            imageContentWriter.write(imageDataService.getImageContent(transformerNo, inspectionNo, type, parseSize(size)), request, response);
+        } catch (BaseException ex) {
+            if (!ResponseCodeEnum.NOT_FOUND.code().equals(ex.getResponseCode())) {
+                throw ex;
+            }
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, ex.getMessage());
+        }
+        log.info(LoggingAdviceConstants.REQUEST_TERMINATED, System.currentTimeMillis() - startTime, response.getStatus());
+    }
+
+    private static ImageSize parseSize(String size) throws BaseException {
+        try {
+            return ImageSize.parse(size);
+        } catch (IllegalArgumentException ex) {
+            throw new BaseException(ResponseCodeEnum.BAD_REQUEST.code(), "Unknown image size: " + size);
+        }
+    }
+
     @PostMapping("/detect")
-    public ResponseEntity<ApiResponse<com.TransformerUI.TransformerUI.transport.response.AnomaliesResponse>> detectImage(@RequestParam String transformerNo, @RequestParam String inspectionNo, HttpServletRequest request) throws BaseException {
+    public ResponseEntity<ApiResponse<com.TransformerUI.TransformerUI.transport.response.AnomaliesResponse>> detectImage(@RequestParam String transformerNo, @RequestParam String inspectionNo, @RequestParam(required = false) Boolean tiled, HttpServletRequest request) throws BaseException {
+        long startTime = System.currentTimeMillis();
+        log.info(LoggingAdviceConstants.REQUEST_INITIATED, request.getMethod(), request.getRequestURI());
+        ApiResponse<com.TransformerUI.TransformerUI.transport.response.AnomaliesResponse> resp = tiled == null
+                ? imageDataService.detectAnomalies(transformerNo, inspectionNo)
+                : imageDataService.detectAnomalies(transformerNo, inspectionNo, tiled);
+        log.info(LoggingAdviceConstants.REQUEST_TERMINATED, System.currentTimeMillis() - startTime, resp.getResponseDescription());
+        return setResponseEntity(resp);
+    }
+
+    @PostMapping("/detect/batch")
+    public ResponseEntity<ApiResponse<BatchDetectionResponse>> detectBatch(@RequestBody BatchDetectionRequest batchDetectionRequest, HttpServletRequest request) throws BaseException {
+        long startTime = System.currentTimeMillis();
+        log.info(LoggingAdviceConstants.REQUEST_INITIATED, request.getMethod(), request.getRequestURI());
+        ApiResponse<BatchDetectionResponse> resp = imageDataService.detectAnomaliesBatch(batchDetectionRequest);
+        log.info(LoggingAdviceConstants.REQUEST_TERMINATED, System.currentTimeMillis() - startTime, resp.getResponseDescription());
+        return setResponseEntity(resp);
+    }
+
+    @GetMapping("/detect/cache/stats")
+    public ResponseEntity<ApiResponse<DetectionCacheStatsResponse>> getDetectionCacheStats(HttpServletRequest request) {
+        long startTime = System.currentTimeMillis();
+        log.info(LoggingAdviceConstants.REQUEST_INITIATED, request.getMethod(), request.getRequestURI());
+        ApiResponse<DetectionCacheStatsResponse> resp = imageDataService.getDetectionCacheStats();
+        log.info(LoggingAdviceConstants.REQUEST_TERMINATED, System.currentTimeMillis() - startTime, resp.getResponseDescription());
+        return setResponseEntity(resp);
+    }
+
+    @GetMapping("/change-map")
+    public ResponseEntity<ApiResponse<ChangeMapResponse>> getChangeMap(@RequestParam String transformerNo, @RequestParam String inspectionNo, HttpServletRequest request) throws BaseException {
+        long startTime = System.currentTimeMillis();
+        log.info(LoggingAdviceConstants.REQUEST_INITIATED, request.getMethod(), request.getRequestURI());
+        ApiResponse<ChangeMapResponse> resp = imageDataService.getChangeMap(transformerNo, inspectionNo);
+        log.info(LoggingAdviceConstants.REQUEST_TERMINATED, System.currentTimeMillis() - startTime, resp.getResponseDescription());
+        return setResponseEntity(resp);
+    }
+
+    @PostMapping("/storage/migrate")
+    public ResponseEntity<ApiResponse<ImageMigrationResponse>> migrateImagesToStore(HttpServletRequest request) throws BaseException {
+        long startTime = System.currentTimeMillis();
+        log.info(LoggingAdviceConstants.REQUEST_INITIATED, request.getMethod(), request.getRequestURI());
+        ApiResponse<ImageMigrationResponse> resp = imageDataService.migrateImagesToStore();
+        log.info(LoggingAdviceConstants.REQUEST_TERMINATED, System.currentTimeMillis() - startTime, resp.getResponseDescription());
+        return setResponseEntity(resp);
+    }
+
+    @PostMapping("/detect/jobs")
+    public ResponseEntity<ApiResponse<DetectionJobResponse>> submitDetectionJob(@RequestParam String transformerNo, @RequestParam String inspectionNo, HttpServletRequest request) {
+        long startTime = System.currentTimeMillis();
+        log.info(LoggingAdviceConstants.REQUEST_INITIATED, request.getMethod(), request.getRequestURI());
+        ApiResponse<DetectionJobResponse> resp = detectionJobService.submitDetection(transformerNo, inspectionNo);
+        log.info(LoggingAdviceConstants.REQUEST_TERMINATED, System.currentTimeMillis() - startTime, resp.getResponseDescription());
+        return setResponseEntity(resp);
+    }
+
+    @GetMapping("/detect/jobs/{jobId}")
+    public ResponseEntity<ApiResponse<DetectionJobResponse>> getDetectionJob(@PathVariable String jobId, HttpServletRequest request) throws BaseException {
+        long startTime = System.currentTimeMillis();
+        log.info(LoggingAdviceConstants.REQUEST_INITIATED, request.getMethod(), request.getRequestURI());
+        ApiResponse<DetectionJobResponse> resp = detectionJobService.getJobStatus(jobId);
+        log.info(LoggingAdviceConstants.REQUEST_TERMINATED, System.currentTimeMillis() - startTime, resp.getResponseDescription());
+        return setResponseEntity(resp);
+    }
+
+    @GetMapping("/detect/jobs/{jobId}/result")
+    public ResponseEntity<ApiResponse<com.TransformerUI.TransformerUI.transport.response.AnomaliesResponse>> getDetectionJobResult(@PathVariable String jobId, HttpServletRequest request) throws BaseException {
         long startTime = System.currentTimeMillis();
         log.info(LoggingAdviceConstants.REQUEST_INITIATED, request.getMethod(), request.getRequestURI());
-        ApiResponse<com.TransformerUI.TransformerUI.transport.response.AnomaliesResponse> resp = imageDataService.detectAnomalies(transformerNo, inspectionNo);
+        ApiResponse<com.TransformerUI.TransformerUI.transport.response.AnomaliesResponse> resp = detectionJobService.getJobResult(jobId);
         log.info(LoggingAdviceConstants.REQUEST_TERMINATED, System.currentTimeMillis() - startTime, resp.getResponseDescription());
         return setResponseEntity(resp);
     }
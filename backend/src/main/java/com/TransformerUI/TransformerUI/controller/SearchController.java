@@ -0,0 +1,35 @@
+package com.TransformerUI.TransformerUI.controller;
+
+import com.TransformerUI.TransformerUI.constant.LoggingAdviceConstants;
+import com.TransformerUI.TransformerUI.service.SearchService;
+import com.TransformerUI.TransformerUI.transport.response.ApiResponse;
+import com.TransformerUI.TransformerUI.transport.response.SearchResultResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("${base-url.context}"+"/search")
+@Slf4j
+public class SearchController extends BaseController {
+    private final SearchService searchService;
+
+    public SearchController(SearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<SearchResultResponse>>> search(@RequestParam String q,
+                                                                          @RequestParam(required = false) String type,
+                                                                          @RequestParam(required = false) Integer limit,
+                                                                          HttpServletRequest request) {
+        long startTime = System.currentTimeMillis();
+        log.info(LoggingAdviceConstants.REQUEST_INITIATED, request.getMethod(), request.getRequestURI());
+        ApiResponse<List<SearchResultResponse>> resp = searchService.search(q, type, limit);
+        log.info(LoggingAdviceConstants.REQUEST_TERMINATED, System.currentTimeMillis() - startTime, resp.getResponseDescription());
+        return setResponseEntity(resp);
+    }
+}
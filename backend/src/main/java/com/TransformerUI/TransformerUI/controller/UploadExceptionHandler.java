@@ -0,0 +1,27 @@
+package com.TransformerUI.TransformerUI.controller;
+
+import com.TransformerUI.TransformerUI.transport.response.ApiResponse;
+import com.TransformerUI.TransformerUI.transport.response.ResponseCodeEnum;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+/**
+ * Multipart uploads over {@code spring.servlet.multipart.max-file-size} or
+ * {@code max-request-size} fail while the request is parsed, before any controller runs, so they
+ * are answered here as a bad request instead of a 500.
+ */
+@RestControllerAdvice
+@Slf4j
+public class UploadExceptionHandler extends BaseController {
+
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ResponseEntity<ApiResponse<Void>> uploadTooLarge(MaxUploadSizeExceededException ex) {
+        log.warn("Upload rejected: {}", ex.getMessage());
+        String limit = ex.getMaxUploadSize() > 0 ? " of " + ex.getMaxUploadSize() + " bytes" : "";
+        return setResponseEntity(new ApiResponse<>(ResponseCodeEnum.BAD_REQUEST.code(),
+                "Upload exceeds the maximum size" + limit));
+    }
+}
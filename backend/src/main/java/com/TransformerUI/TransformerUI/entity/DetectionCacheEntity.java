@@ -0,0 +1,33 @@
+package com.TransformerUI.TransformerUI.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "detection_cache",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"image_hash", "model_version"}))
+public class DetectionCacheEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "detection_cache_seq")
+    @SequenceGenerator(name = "detection_cache_seq", sequenceName = "detection_cache_seq", allocationSize = 1)
+    private Long id;
+
+    // SHA-256 of the image bytes that were detected
+    @Column(name = "image_hash", length = 64, nullable = false)
+    private String imageHash;
+
+    // Identifies the weights that produced the result (see DetectionModelVersion)
+    @Column(name = "model_version", length = 64, nullable = false)
+    private String modelVersion;
+
+    @Column(columnDefinition = "TEXT")
+    private String detectionJson;
+
+    @Column(name = "created_at")
+    private Long createdAt;
+}
@@ -36,8 +36,19 @@ public class ImageDataEntity {
     @Builder.Default
     private String dateTime = new SimpleDateFormat("EEE(dd), MMM, yyyy hh:mm a").format(new Date());
 
+    // Only set on rows written before the image store; new images live in the store
     private byte[] image;
 
+    // SHA-256 of the image; the key of its blob in the image store
+    @Column(name = "image_ref", length = 64)
+    private String imageRef;
+
+    @Column(name = "image_hash", length = 64)
+    private String imageHash;
+
+    @Column(name = "image_size")
+    private Long imageSize;
+
     @Column(columnDefinition = "TEXT")
     private String detectionJson;
 
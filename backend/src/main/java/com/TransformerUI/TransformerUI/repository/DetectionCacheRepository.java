@@ -0,0 +1,23 @@
+package com.TransformerUI.TransformerUI.repository;
+
+import com.TransformerUI.TransformerUI.entity.DetectionCacheEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface DetectionCacheRepository extends JpaRepository<DetectionCacheEntity, Long> {
+
+    Optional<DetectionCacheEntity> findByImageHashAndModelVersion(String imageHash, String modelVersion);
+
+    // Drop results produced by weights that are no longer deployed
+    @Modifying
+    @Transactional
+    @Query("delete from DetectionCacheEntity d where d.modelVersion <> :modelVersion")
+    int deleteByModelVersionNot(@Param("modelVersion") String modelVersion);
+}
@@ -1,9 +1,16 @@
 package com.TransformerUI.TransformerUI.repository;
 
 import com.TransformerUI.TransformerUI.entity.ImageDataEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,9 +19,47 @@ public interface ImageDataRepository extends JpaRepository<ImageDataEntity, Long
     // Find by composite key (transformerNo + inspectionNo)
     Optional<ImageDataEntity> findByTransformerNoAndInspectionNoAndType(String transformerNo, String inspectionNo, String type);
     Optional<ImageDataEntity> findByTransformerNoAndType(String transformerNo, String type);
+    List<ImageDataEntity> findAllByTransformerNoAndType(String transformerNo, String type);
     // Check existence by composite key
     boolean existsByTransformerNoAndInspectionNo(String transformerNo, String inspectionNo);
 
+    // Metadata only; these never read the image bytes
+    Optional<ImageMetadataView> findMetadataByTransformerNoAndInspectionNoAndType(String transformerNo, String inspectionNo, String type);
+    List<ImageMetadataView> findMetadataByTransformerNoOrderByIdAsc(String transformerNo);
+    List<ImageMetadataView> findMetadataByTransformerNoAndInspectionNoOrderByIdAsc(String transformerNo, String inspectionNo);
+
+    @Query("select distinct i.imageRef from ImageDataEntity i "
+            + "where i.transformerNo = :transformerNo and i.inspectionNo = :inspectionNo and i.imageRef is not null")
+    List<String> findImageRefsByTransformerNoAndInspectionNo(@Param("transformerNo") String transformerNo,
+                                                             @Param("inspectionNo") String inspectionNo);
+
+    // Rows sharing an image store blob
+    long countByImageRef(String imageRef);
+
+    // Which of refs some row still refers to
+    @Query("select distinct i.imageRef from ImageDataEntity i where i.imageRef in :refs")
+    List<String> findImageRefsIn(@Param("refs") Collection<String> refs);
+
+    // Rows after lastId whose bytes still sit in the images table
+    @Query("select i.id from ImageDataEntity i where i.imageRef is null and i.image is not null and i.id > :lastId order by i.id")
+    List<Long> findIdsWithLegacyImageAfter(@Param("lastId") Long lastId, Pageable pageable);
+
+    // Writes the detection result without rewriting the rest of the row
+    @Modifying
+    @Transactional
+    @Query("update ImageDataEntity i set i.detectionJson = :detectionJson where i.id = :id")
+    int updateDetectionJson(@Param("id") Long id, @Param("detectionJson") String detectionJson);
+
+    // Bulk deletes; a derived delete would load every row, image bytes included, before removing it
+    @Modifying
+    @Transactional
+    @Query("delete from ImageDataEntity i where i.id = :id")
+    int deleteRowById(@Param("id") Long id);
+
     // Delete by composite key
-    void deleteByTransformerNoAndInspectionNo(String transformerNo, String inspectionNo);
+    @Modifying
+    @Transactional
+    @Query("delete from ImageDataEntity i where i.transformerNo = :transformerNo and i.inspectionNo = :inspectionNo")
+    int deleteByTransformerNoAndInspectionNo(@Param("transformerNo") String transformerNo,
+                                             @Param("inspectionNo") String inspectionNo);
 }
@@ -0,0 +1,20 @@
+package com.TransformerUI.TransformerUI.repository;
+
+/**
+ * The columns of an image row other than the image bytes; queries returning it never read the
+ * {@code image} column. {@code imageSize} and {@code imageHash} are null for rows that have not
+ * been moved into the image store yet.
+ */
+public interface ImageMetadataView {
+    Long getId();
+    String getType();
+    String getTransformerNo();
+    String getInspectionNo();
+    String getWeather();
+    String getUploader();
+    String getDateTime();
+    Long getImageSize();
+    String getImageHash();
+    String getImageRef();
+    String getDetectionJson();
+}
@@ -0,0 +1,14 @@
+package com.TransformerUI.TransformerUI.service;
+
+import com.TransformerUI.TransformerUI.service.util.exception.type.BaseException;
+import com.TransformerUI.TransformerUI.transport.response.AnomaliesResponse;
+import com.TransformerUI.TransformerUI.transport.response.ApiResponse;
+import com.TransformerUI.TransformerUI.transport.response.DetectionJobResponse;
+
+public interface DetectionJobService {
+
+    // Queue a detection for an existing thermal image and return its job id immediately
+    ApiResponse<DetectionJobResponse> submitDetection(String transformerNo, String inspectionNo);
+    ApiResponse<DetectionJobResponse> getJobStatus(String jobId) throws BaseException;
+    ApiResponse<AnomaliesResponse> getJobResult(String jobId) throws BaseException;
+}
@@ -1,17 +1,48 @@
 package com.TransformerUI.TransformerUI.service;
 
+import com.TransformerUI.TransformerUI.service.storage.ImageContent;
+import com.TransformerUI.TransformerUI.service.storage.ImageSize;
 import com.TransformerUI.TransformerUI.service.util.exception.type.BaseException;
+import com.TransformerUI.TransformerUI.transport.request.BatchDetectionRequest;
 import com.TransformerUI.TransformerUI.transport.request.ImageRequest;
 import com.TransformerUI.TransformerUI.transport.response.ApiResponse;
+import com.TransformerUI.TransformerUI.transport.response.BatchDetectionResponse;
+import com.TransformerUI.TransformerUI.transport.response.ChangeMapResponse;
+import com.TransformerUI.TransformerUI.transport.response.DetectionCacheStatsResponse;
+import com.TransformerUI.TransformerUI.transport.response.ImageMetadataResponse;
+import com.TransformerUI.TransformerUI.transport.response.ImageMigrationResponse;
 import com.TransformerUI.TransformerUI.transport.response.ImageResponse;
 
+import java.util.List;
+
 public interface ImageDataService {
 
     ApiResponse<Void> saveImage(ImageRequest imageRequest) throws BaseException;
     ApiResponse<ImageResponse> getImage(String transformerNo, String inspectionNo, String type) throws BaseException;
+    ApiResponse<ImageResponse> getImage(String transformerNo, String inspectionNo, String type, boolean includePhoto, ImageSize size) throws BaseException;
+
+    // The stored image itself at the requested resolution, for the binary content endpoint
+    ImageContent getImageContent(String transformerNo, String inspectionNo, String type, ImageSize size) throws BaseException;
+    // Image metadata and detection summary without the image bytes; all of the transformer's images when inspectionNo is null
+    ApiResponse<List<ImageMetadataResponse>> getImageMetadata(String transformerNo, String inspectionNo) throws BaseException;
+
     ApiResponse<Void> updateImage(String transformerNo, String inspectionNo, ImageRequest imageRequest) throws BaseException;
     ApiResponse<Void> deleteImage(String transformerNo, String inspectionNo) throws BaseException;
     
     // Run/refresh anomaly detection for an existing thermal image and return anomalies
     ApiResponse<com.TransformerUI.TransformerUI.transport.response.AnomaliesResponse> detectAnomalies(String transformerNo, String inspectionNo) throws BaseException;
+
+    // Same, optionally running overlapping tiles at full resolution for small hotspots on large images
+    ApiResponse<com.TransformerUI.TransformerUI.transport.response.AnomaliesResponse> detectAnomalies(String transformerNo, String inspectionNo, boolean tiled) throws BaseException;
+
+    // Re-detect many thermal images with batched model invocations; reports a status per image
+    ApiResponse<BatchDetectionResponse> detectAnomaliesBatch(BatchDetectionRequest batchDetectionRequest) throws BaseException;
+
+    ApiResponse<DetectionCacheStatsResponse> getDetectionCacheStats();
+
+    // Difference heatmap between the transformer's baseline and an inspection's thermal image
+    ApiResponse<ChangeMapResponse> getChangeMap(String transformerNo, String inspectionNo) throws BaseException;
+
+    // Move images still stored in the images table into the image store; returns how many moved
+    ApiResponse<ImageMigrationResponse> migrateImagesToStore() throws BaseException;
 }
@@ -0,0 +1,13 @@
+package com.TransformerUI.TransformerUI.service;
+
+import com.TransformerUI.TransformerUI.service.util.exception.type.BaseException;
+import com.TransformerUI.TransformerUI.transport.response.ApiResponse;
+import com.TransformerUI.TransformerUI.transport.response.BulkIngestResponse;
+
+import java.io.InputStream;
+
+public interface ImageIngestService {
+
+    // Store every image of a ZIP or (optionally gzipped) tar archive as described by its manifest and queue detection
+    ApiResponse<BulkIngestResponse> ingestArchive(InputStream archive) throws BaseException;
+}
@@ -0,0 +1,11 @@
+package com.TransformerUI.TransformerUI.service;
+
+import com.TransformerUI.TransformerUI.transport.response.ApiResponse;
+import com.TransformerUI.TransformerUI.transport.response.SearchResultResponse;
+
+import java.util.List;
+
+public interface SearchService {
+
+    ApiResponse<List<SearchResultResponse>> search(String query, String type, Integer limit);
+}
@@ -0,0 +1,203 @@
+package com.TransformerUI.TransformerUI.service.detection;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Compares an inspection's thermal image with the transformer's baseline. Both images are
+ * shrunk to a small grey analysis grid and brightness-normalized, the baseline is shifted by the
+ * offset (within {@code max-shift} cells) that matches best, and the per-cell difference is
+ * scanned row by row in parallel into a heatmap.
+ * <p>
+ * Every inspection of a transformer is compared with the same baseline, so its normalized grid is
+ * kept by content hash and grid size and the baseline is only decoded when the grid is not cached.
+ */
+@Component
+public class BaselineChangeMapper {
+
+    // Differences of this many standard deviations or more show as white
+    private static final double HEATMAP_FULL_SCALE = 3.0;
+
+    @Value("${detection.change-map.analysis-width:160}")
+    private int analysisWidth;
+
+    @Value("${detection.change-map.max-shift:8}")
+    private int maxShift;
+
+    // A cell counts as changed when it differs by this many standard deviations
+    @Value("${detection.change-map.cell-threshold:1.0}")
+    private double cellThreshold;
+
+    // Normalized baseline grids kept; one 160-cell-wide grid is about 80 KB
+    @Value("${detection.change-map.baseline-cache-size:64}")
+    private int baselineCacheSize;
+
+    private final Map<String, float[]> baselineGrids = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, float[]> eldest) {
+            return size() > baselineCacheSize;
+        }
+    };
+
+    /**
+     * {@code heatmap} is a grey PNG of {@code width} x {@code height} cells.
+     */
+    public record ChangeMap(int width, int height, int offsetX, int offsetY,
+                            double meanDifference, double changedFraction, byte[] heatmap) {
+    }
+
+    private record Shift(int dx, int dy, double score) {
+    }
+
+    public ChangeMap compute(byte[] baselineBytes, byte[] thermalBytes) throws IOException {
+        return compute(null, baselineBytes, thermalBytes);
+    }
+
+    /**
+     * Like {@link #compute(byte[], byte[])}, reusing the baseline grid cached under
+     * {@code baselineHash}; a null hash is never cached.
+     */
+    public ChangeMap compute(String baselineHash, byte[] baselineBytes, byte[] thermalBytes) throws IOException {
+        BufferedImage thermal = decode(thermalBytes, "thermal");
+        int width = Math.min(analysisWidth, thermal.getWidth());
+        int height = Math.max(1, (int) Math.round((double) width * thermal.getHeight() / thermal.getWidth()));
+        // The baseline is stretched onto the thermal grid; differing aspect ratios are part of "rough"
+        float[] t = normalizedGrey(thermal, width, height);
+        float[] b = baselineGrid(baselineHash, baselineBytes, width, height);
+
+        int span = 2 * maxShift + 1;
+        Shift best = IntStream.range(0, span * span).parallel()
+                .mapToObj(i -> {
+                    int dx = i % span - maxShift;
+                    int dy = i / span - maxShift;
+                    return new Shift(dx, dy, meanDifference(t, b, width, height, dx, dy));
+                })
+                .min(Comparator.comparingDouble(Shift::score))
+                .orElse(new Shift(0, 0, 0));
+
+        byte[] cells = new byte[width * height];
+        int[] changedPerRow = new int[height];
+        int[] overlapPerRow = new int[height];
+        double[] diffPerRow = new double[height];
+        IntStream.range(0, height).parallel().forEach(y -> {
+            int by = y + best.dy();
+            if (by < 0 || by >= height) {
+                return;
+            }
+            for (int x = 0; x < width; x++) {
+                int bx = x + best.dx();
+                if (bx < 0 || bx >= width) {
+                    continue;
+                }
+                double diff = Math.abs(t[y * width + x] - b[by * width + bx]);
+                cells[y * width + x] = (byte) Math.min(255, (int) Math.round(diff / HEATMAP_FULL_SCALE * 255));
+                overlapPerRow[y]++;
+                diffPerRow[y] += diff;
+                if (diff >= cellThreshold) {
+                    changedPerRow[y]++;
+                }
+            }
+        });
+
+        int overlap = IntStream.of(overlapPerRow).sum();
+        int changed = IntStream.of(changedPerRow).sum();
+        double totalDiff = Arrays.stream(diffPerRow).sum();
+        return new ChangeMap(width, height, best.dx(), best.dy(),
+                overlap == 0 ? 0 : totalDiff / overlap,
+                overlap == 0 ? 1 : (double) changed / overlap,
+                encodeHeatmap(cells, width, height));
+    }
+
+    // The returned grid is shared and must not be modified
+    private float[] baselineGrid(String baselineHash, byte[] baselineBytes, int width, int height) throws IOException {
+        String key = baselineHash == null ? null : baselineHash + ":" + width + "x" + height;
+        if (key != null) {
+            synchronized (baselineGrids) {
+                float[] cached = baselineGrids.get(key);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+        }
+        float[] grid = normalizedGrey(decode(baselineBytes, "baseline"), width, height);
+        if (key != null) {
+            synchronized (baselineGrids) {
+                baselineGrids.put(key, grid);
+            }
+        }
+        return grid;
+    }
+
+    private static BufferedImage decode(byte[] bytes, String which) throws IOException {
+        BufferedImage image = bytes == null ? null : ImageIO.read(new ByteArrayInputStream(bytes));
+        if (image == null) {
+            throw new IOException("Could not decode " + which + " image");
+        }
+        return image;
+    }
+
+    // Grey levels scaled to zero mean and unit variance so palette and exposure shifts cancel out
+    private static float[] normalizedGrey(BufferedImage image, int width, int height) {
+        BufferedImage grey = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = grey.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        byte[] raw = ((DataBufferByte) grey.getRaster().getDataBuffer()).getData();
+        float[] values = new float[raw.length];
+        double sum = 0;
+        for (int i = 0; i < raw.length; i++) {
+            values[i] = raw[i] & 0xFF;
+            sum += values[i];
+        }
+        double mean = sum / values.length;
+        double variance = 0;
+        for (float v : values) {
+            variance += (v - mean) * (v - mean);
+        }
+        double std = Math.sqrt(variance / values.length);
+        double scale = std < 1e-6 ? 1 : std;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (float) ((values[i] - mean) / scale);
+        }
+        return values;
+    }
+
+    private static double meanDifference(float[] t, float[] b, int width, int height, int dx, int dy) {
+        double sum = 0;
+        int count = 0;
+        for (int y = Math.max(0, -dy); y < Math.min(height, height - dy); y++) {
+            int row = y * width;
+            int bRow = (y + dy) * width;
+            for (int x = Math.max(0, -dx); x < Math.min(width, width - dx); x++) {
+                sum += Math.abs(t[row + x] - b[bRow + x + dx]);
+                count++;
+            }
+        }
+        return count == 0 ? Double.MAX_VALUE : sum / count;
+    }
+
+    private static byte[] encodeHeatmap(byte[] cells, int width, int height) throws IOException {
+        BufferedImage heatmap = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        heatmap.getRaster().setDataElements(0, 0, width, height, cells);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(heatmap, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,102 @@
+package com.TransformerUI.TransformerUI.service.detection;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounds how many detector invocations run at once and how many may wait for a slot.
+ * Work beyond the wait queue, or work that waits longer than {@code max-wait-ms}, is rejected
+ * with {@link DetectionBusyException} instead of piling up python processes on the host.
+ */
+@Component
+@RequiredArgsConstructor
+public class DetectionAdmissionController {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${detection.admission.max-concurrent:2}")
+    private int maxConcurrent;
+
+    @Value("${detection.admission.max-queue:20}")
+    private int maxQueue;
+
+    @Value("${detection.admission.max-wait-ms:30000}")
+    private long maxWaitMs;
+
+    private Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private Timer waitTimer;
+    private Counter rejected;
+
+    @FunctionalInterface
+    public interface DetectorCall<T> {
+        T call() throws IOException, InterruptedException;
+    }
+
+    @PostConstruct
+    public void init() {
+        permits = new Semaphore(maxConcurrent, true);
+        Gauge.builder("detection.admission.queue.depth", waiting, AtomicInteger::get)
+                .description("Detections waiting for a detector slot")
+                .register(meterRegistry);
+        Gauge.builder("detection.admission.in.flight", this, c -> c.maxConcurrent - c.permits.availablePermits())
+                .description("Detections currently running")
+                .register(meterRegistry);
+        waitTimer = Timer.builder("detection.admission.wait")
+                .description("Time spent waiting for a detector slot")
+                .register(meterRegistry);
+        rejected = Counter.builder("detection.admission.rejected")
+                .description("Detections shed because the detector was saturated")
+                .register(meterRegistry);
+    }
+
+    /**
+     * How many detector invocations may run at once; callers that split one request into
+     * parallel calls should not exceed it.
+     */
+    public int maxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public <T> T run(DetectorCall<T> call) throws IOException, InterruptedException {
+        acquire();
+        try {
+            return call.call();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void acquire() throws InterruptedException {
+        if (permits.tryAcquire()) {
+            waitTimer.record(0, TimeUnit.MILLISECONDS);
+            return;
+        }
+        if (waiting.incrementAndGet() > maxQueue) {
+            waiting.decrementAndGet();
+            rejected.increment();
+            throw new DetectionBusyException("Detection queue is full (" + maxQueue + " waiting)");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                throw new DetectionBusyException("No detector slot became free within " + maxWaitMs + " ms");
+            }
+        } finally {
+            waiting.decrementAndGet();
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
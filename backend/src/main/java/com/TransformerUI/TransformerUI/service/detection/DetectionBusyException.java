@@ -0,0 +1,12 @@
+package com.TransformerUI.TransformerUI.service.detection;
+
+/**
+ * Thrown when {@link DetectionAdmissionController} sheds a detection because the detector
+ * is saturated. Callers answer it with a fast "busy, retry later" response.
+ */
+public class DetectionBusyException extends RuntimeException {
+
+    public DetectionBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,151 @@
+package com.TransformerUI.TransformerUI.service.detection;
+
+import com.TransformerUI.TransformerUI.entity.DetectionCacheEntity;
+import com.TransformerUI.TransformerUI.repository.DetectionCacheRepository;
+import com.TransformerUI.TransformerUI.transport.response.AnomaliesResponse;
+import com.TransformerUI.TransformerUI.transport.response.Anomaly;
+import com.TransformerUI.TransformerUI.transport.response.DetectionCacheStatsResponse;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Detection results keyed by a hash of the image and the detection settings (see
+ * {@code DetectionEngine#configFingerprint}) and by the model version.
+ * A bounded LRU map sits in front of the {@code detection_cache} table; entries of an older
+ * model version are dropped from both tiers as soon as a new version is seen.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DetectionCache {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final DetectionCacheRepository detectionCacheRepository;
+    private final DetectionModelVersion modelVersion;
+
+    @Value("${detection.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${detection.cache.max-entries:1000}")
+    private int maxEntries;
+
+    @Value("${detection.cache.persistent:true}")
+    private boolean persistent;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong persistentHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    // Values are the serialized anomaly list so callers never share mutable objects
+    private final Map<String, String> memory = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > maxEntries;
+        }
+    };
+    private String lastModelVersion;
+
+    public Optional<AnomaliesResponse> get(String imageHash) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String version = checkModelVersion();
+        String key = imageHash + ":" + version;
+        String json;
+        synchronized (memory) {
+            json = memory.get(key);
+        }
+        if (json != null) {
+            memoryHits.incrementAndGet();
+            return Optional.of(parse(json));
+        }
+        if (persistent) {
+            Optional<DetectionCacheEntity> row = detectionCacheRepository.findByImageHashAndModelVersion(imageHash, version);
+            if (row.isPresent()) {
+                persistentHits.incrementAndGet();
+                remember(key, row.get().getDetectionJson());
+                return Optional.of(parse(row.get().getDetectionJson()));
+            }
+        }
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    public void put(String imageHash, AnomaliesResponse anomaliesResponse) {
+        if (!enabled) {
+            return;
+        }
+        String version = checkModelVersion();
+        try {
+            String json = MAPPER.writeValueAsString(anomaliesResponse.getAnomalies());
+            remember(imageHash + ":" + version, json);
+            if (persistent && detectionCacheRepository.findByImageHashAndModelVersion(imageHash, version).isEmpty()) {
+                detectionCacheRepository.save(DetectionCacheEntity.builder()
+                        .imageHash(imageHash)
+                        .modelVersion(version)
+                        .detectionJson(json)
+                        .createdAt(System.currentTimeMillis())
+                        .build());
+            }
+        } catch (DataIntegrityViolationException ex) {
+            // another request stored the same result first
+        } catch (Exception ex) {
+            log.warn("Could not cache detection result for {}: {}", imageHash, ex.getMessage());
+        }
+    }
+
+    private void remember(String key, String json) {
+        synchronized (memory) {
+            memory.put(key, json);
+        }
+    }
+
+    private String checkModelVersion() {
+        String version = modelVersion.current();
+        synchronized (memory) {
+            if (version.equals(lastModelVersion)) {
+                return version;
+            }
+            boolean changed = lastModelVersion != null;
+            lastModelVersion = version;
+            if (!changed) {
+                return version;
+            }
+            memory.clear();
+        }
+        log.info("Detection model changed to {}; invalidating cached results", version);
+        if (persistent) {
+            detectionCacheRepository.deleteByModelVersionNot(version);
+        }
+        return version;
+    }
+
+    private AnomaliesResponse parse(String json) {
+        try {
+            List<Anomaly> anomalies = MAPPER.readValue(json, new TypeReference<List<Anomaly>>() {});
+            return new AnomaliesResponse(anomalies);
+        } catch (Exception ex) {
+            throw new IllegalStateException("Corrupt cached detection result", ex);
+        }
+    }
+
+    public DetectionCacheStatsResponse stats() {
+        int entries;
+        synchronized (memory) {
+            entries = memory.size();
+        }
+        return new DetectionCacheStatsResponse(lastModelVersion, entries, maxEntries,
+                memoryHits.get(), persistentHits.get(), misses.get());
+    }
+}
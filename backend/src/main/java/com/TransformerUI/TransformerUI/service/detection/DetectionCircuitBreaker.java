@@ -0,0 +1,133 @@
+package com.TransformerUI.TransformerUI.service.detection;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Clock;
+
+/**
+ * Stops sending work to a detector that keeps failing. After {@code failure-threshold}
+ * consecutive crashes or timeouts the breaker opens and calls fail fast with
+ * {@link DetectorUnavailableException}. Once {@code open-ms} has passed, up to
+ * {@code half-open-probes} calls are let through; one success closes the breaker again and
+ * a failure re-opens it.
+ */
+@Slf4j
+@Component
+public class DetectionCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final MeterRegistry meterRegistry;
+    // Times the open period; tests pass a clock they can move
+    private final Clock clock;
+
+    @Value("${detection.breaker.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${detection.breaker.open-ms:30000}")
+    private long openMs;
+
+    @Value("${detection.breaker.half-open-probes:1}")
+    private int halfOpenProbes;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private int probesInFlight;
+
+    @Autowired
+    public DetectionCircuitBreaker(MeterRegistry meterRegistry) {
+        this(meterRegistry, Clock.systemUTC());
+    }
+
+    DetectionCircuitBreaker(MeterRegistry meterRegistry, Clock clock) {
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("detection.breaker.state", this, b -> b.getState().ordinal())
+                .description("Detector circuit breaker state (0 closed, 1 open, 2 half-open)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code call} if the breaker allows it. Only {@link IOException}s (worker crashes,
+     * timeouts, unreadable replies) count as failures; load shedding does not.
+     */
+    public <T> T run(DetectionAdmissionController.DetectorCall<T> call) throws IOException, InterruptedException {
+        boolean probe = admit();
+        boolean recorded = false;
+        try {
+            T result = call.call();
+            onSuccess(probe);
+            recorded = true;
+            return result;
+        } catch (IOException ex) {
+            onFailure(probe, ex);
+            recorded = true;
+            throw ex;
+        } finally {
+            if (!recorded) {
+                releaseProbe(probe);
+            }
+        }
+    }
+
+    private synchronized boolean admit() {
+        if (state == State.OPEN) {
+            long remaining = openedAt + openMs - clock.millis();
+            if (remaining > 0) {
+                throw new DetectorUnavailableException("Detector circuit is open; retry in " + remaining + " ms");
+            }
+            state = State.HALF_OPEN;
+            probesInFlight = 0;
+            log.info("Detector circuit half-open; probing");
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight >= halfOpenProbes) {
+                throw new DetectorUnavailableException("Detector circuit is half-open; probe already running");
+            }
+            probesInFlight++;
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized void onSuccess(boolean probe) {
+        releaseProbe(probe);
+        consecutiveFailures = 0;
+        if (state != State.CLOSED) {
+            state = State.CLOSED;
+            log.info("Detector circuit closed");
+        }
+    }
+
+    private synchronized void onFailure(boolean probe, IOException ex) {
+        releaseProbe(probe);
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAt = clock.millis();
+            log.warn("Detector circuit opened after {} consecutive failures: {}", consecutiveFailures, ex.getMessage());
+        }
+    }
+
+    private synchronized void releaseProbe(boolean probe) {
+        if (probe && probesInFlight > 0) {
+            probesInFlight--;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
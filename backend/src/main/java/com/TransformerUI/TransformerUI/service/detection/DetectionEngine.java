@@ -0,0 +1,34 @@
+package com.TransformerUI.TransformerUI.service.detection;
+
+import com.TransformerUI.TransformerUI.transport.response.AnomaliesResponse;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Turns encoded image bytes into normalized {@code Anomaly} boxes. The implementation is chosen
+ * with {@code detection.engine}: {@code python} runs the YOLO weights on pooled python workers,
+ * {@code onnx} runs an exported ONNX model inside the JVM.
+ * <p>
+ * A failed detection surfaces as a {@link RuntimeException} whose message is
+ * {@code KIND;FILE:<preserved image>;ERR:<cause>}, see {@link FailedDetectionImages}.
+ */
+public interface DetectionEngine {
+
+    AnomaliesResponse detect(byte[] imageBytes) throws IOException, InterruptedException;
+
+    /**
+     * Detects a group of images. Results keep the input order; a failure affects only its own
+     * entry unless the whole call fails.
+     */
+    List<BatchItemResult> detectBatch(List<byte[]> images) throws IOException, InterruptedException;
+
+    /**
+     * The settings besides the model that change what this engine detects on a given image, such
+     * as input size and thresholds. Cached results are keyed by it, so changing them misses the cache.
+     */
+    String configFingerprint();
+
+    record BatchItemResult(AnomaliesResponse anomalies, String error) {
+    }
+}
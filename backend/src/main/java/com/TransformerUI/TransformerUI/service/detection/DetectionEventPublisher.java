@@ -0,0 +1,156 @@
+package com.TransformerUI.TransformerUI.service.detection;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Pushes detection progress for one transformer/inspection pair to Server-Sent Event
+ * subscribers. Each pair keeps its latest {@code status} event and, once detection has
+ * finished, its {@code result} event, so a client that subscribes late still sees where the
+ * detection stands. Streams are completed after the result is sent.
+ *
+ * <p>A pair that only ever had subscribers is forgotten as soon as its last stream closes, and
+ * one with published events once it has had no subscribers and no events for
+ * {@code detection.jobs.retention-ms}, so subscribing to arbitrary pairs cannot grow the map.
+ * Events are written to the streams outside the pair's lock, so a slow client does not hold up
+ * the detection thread's other publishes or new subscribers.
+ */
+@Slf4j
+@Component
+public class DetectionEventPublisher {
+
+    public static final String STATUS = "status";
+    public static final String RESULT = "result";
+
+    @Value("${detection.events.timeout-ms:300000}")
+    private long timeoutMs;
+
+    @Value("${detection.jobs.retention-ms:3600000}")
+    private long retentionMs;
+
+    private final Map<String, Topic> topics = new ConcurrentHashMap<>();
+
+    private static class Topic {
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        private Object lastStatus;
+        private Object result;
+        private long updatedAt = System.currentTimeMillis();
+        // Set under the topic's lock when it is purged; a caller holding it looks the pair up again
+        private boolean removed;
+    }
+
+    public SseEmitter subscribe(String transformerNo, String inspectionNo) {
+        purgeIdleTopics();
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Object status;
+        Object result;
+        Topic topic;
+        while (true) {
+            topic = topics.computeIfAbsent(key(transformerNo, inspectionNo), k -> new Topic());
+            synchronized (topic) {
+                if (topic.removed) {
+                    continue;
+                }
+                status = topic.lastStatus;
+                result = topic.result;
+                if (result == null) {
+                    topic.emitters.add(emitter);
+                }
+                break;
+            }
+        }
+        Topic subscribed = topic;
+        emitter.onCompletion(() -> subscribed.emitters.remove(emitter));
+        emitter.onTimeout(() -> subscribed.emitters.remove(emitter));
+        emitter.onError(ex -> subscribed.emitters.remove(emitter));
+        if (status != null) {
+            send(topic, emitter, STATUS, status);
+        }
+        if (result != null) {
+            send(topic, emitter, RESULT, result);
+            emitter.complete();
+        }
+        return emitter;
+    }
+
+    public void publishStatus(String transformerNo, String inspectionNo, Object status) {
+        List<SseEmitter> emitters;
+        Topic topic;
+        while (true) {
+            topic = topics.computeIfAbsent(key(transformerNo, inspectionNo), k -> new Topic());
+            synchronized (topic) {
+                if (topic.removed) {
+                    continue;
+                }
+                // A status after a result belongs to a new detection of the same image
+                topic.result = null;
+                topic.lastStatus = status;
+                topic.updatedAt = System.currentTimeMillis();
+                emitters = List.copyOf(topic.emitters);
+                break;
+            }
+        }
+        for (SseEmitter emitter : emitters) {
+            send(topic, emitter, STATUS, status);
+        }
+    }
+
+    public void publishResult(String transformerNo, String inspectionNo, Object result) {
+        List<SseEmitter> emitters;
+        Topic topic;
+        while (true) {
+            topic = topics.computeIfAbsent(key(transformerNo, inspectionNo), k -> new Topic());
+            synchronized (topic) {
+                if (topic.removed) {
+                    continue;
+                }
+                topic.result = result;
+                topic.updatedAt = System.currentTimeMillis();
+                emitters = List.copyOf(topic.emitters);
+                topic.emitters.clear();
+                break;
+            }
+        }
+        for (SseEmitter emitter : emitters) {
+            send(topic, emitter, RESULT, result);
+            emitter.complete();
+        }
+    }
+
+    private void send(Topic topic, SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException ex) {
+            // the client went away; the servlet container cleans up the stream
+            log.debug("Dropping detection event subscriber: {}", ex.getMessage());
+            topic.emitters.remove(emitter);
+        }
+    }
+
+    private void purgeIdleTopics() {
+        long cutoff = System.currentTimeMillis() - retentionMs;
+        for (Map.Entry<String, Topic> entry : topics.entrySet()) {
+            Topic topic = entry.getValue();
+            synchronized (topic) {
+                boolean published = topic.lastStatus != null || topic.result != null;
+                if (topic.emitters.isEmpty() && (!published || topic.updatedAt < cutoff)) {
+                    topic.removed = true;
+                    topics.remove(entry.getKey(), topic);
+                }
+            }
+        }
+    }
+
+    private static String key(String transformerNo, String inspectionNo) {
+        return transformerNo + "|" + inspectionNo;
+    }
+}
@@ -0,0 +1,75 @@
+package com.TransformerUI.TransformerUI.service.detection;
+
+import com.TransformerUI.TransformerUI.service.util.HashUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+
+/**
+ * Identifies the deployed YOLO weights by the SHA-256 of the model file. The file is only
+ * re-hashed when its size or modification time changes, so replacing {@code model/best.pt}
+ * yields a new version without restarting the backend. With {@code detection.engine=onnx} the
+ * exported {@code .onnx} file is the one tracked.
+ */
+@Slf4j
+@Component
+public class DetectionModelVersion {
+
+    @Value("${python.model:model/best.pt}")
+    private String modelPath;
+
+    @Value("${detection.engine:python}")
+    private String engine;
+
+    @Value("${detection.onnx.model:model/best.onnx}")
+    private String onnxModelPath;
+
+    private long knownSize = -1;
+    private long knownModified = -1;
+    private String version = "missing";
+
+    public synchronized String current() {
+        Path model = resolveModelPath();
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(model, BasicFileAttributes.class);
+            long modified = attrs.lastModifiedTime().toMillis();
+            if (attrs.size() != knownSize || modified != knownModified) {
+                version = hashFile(model);
+                knownSize = attrs.size();
+                knownModified = modified;
+                log.info("Detection model {} has version {}", model, version);
+            }
+        } catch (IOException ex) {
+            knownSize = -1;
+            knownModified = -1;
+            version = "missing";
+        }
+        return version;
+    }
+
+    public Path resolveModelPath() {
+        // The python workers inherit the JVM working dir, so relative paths resolve against it
+        Path model = Paths.get("onnx".equalsIgnoreCase(engine) ? onnxModelPath : modelPath);
+        return model.isAbsolute() ? model : Paths.get(System.getProperty("user.dir")).resolve(model);
+    }
+
+    private static String hashFile(Path file) throws IOException {
+        MessageDigest digest = HashUtil.newSha256();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        return HashUtil.toHex(digest.digest());
+    }
+}
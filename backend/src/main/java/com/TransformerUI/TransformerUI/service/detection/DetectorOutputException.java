@@ -0,0 +1,17 @@
+package com.TransformerUI.TransformerUI.service.detection;
+
+import java.io.IOException;
+
+/**
+ * The detector answered, but its output was malformed or exceeded the configured limits.
+ */
+public class DetectorOutputException extends IOException {
+
+    public DetectorOutputException(String message) {
+        super(message);
+    }
+
+    public DetectorOutputException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
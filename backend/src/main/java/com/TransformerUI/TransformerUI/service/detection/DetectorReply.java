@@ -0,0 +1,19 @@
+package com.TransformerUI.TransformerUI.service.detection;
+
+import com.TransformerUI.TransformerUI.transport.response.Anomaly;
+import lombok.Data;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One response frame from a detector worker, as produced by {@link DetectorWorker}'s streaming
+ * parser. {@code results} is only present for batch requests and holds one reply per image.
+ */
+@Data
+public class DetectorReply {
+    private boolean ok;
+    private String error;
+    private List<Anomaly> anomalies = Collections.emptyList();
+    private List<DetectorReply> results = Collections.emptyList();
+}
@@ -0,0 +1,13 @@
+package com.TransformerUI.TransformerUI.service.detection;
+
+import java.io.IOException;
+
+/**
+ * A detector worker missed its deadline and was killed by the watchdog.
+ */
+public class DetectorTimeoutException extends IOException {
+
+    public DetectorTimeoutException(String message) {
+        super(message);
+    }
+}
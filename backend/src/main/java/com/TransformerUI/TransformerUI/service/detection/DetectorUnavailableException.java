@@ -0,0 +1,11 @@
+package com.TransformerUI.TransformerUI.service.detection;
+
+/**
+ * Thrown without touching the detector while {@link DetectionCircuitBreaker} is open.
+ */
+public class DetectorUnavailableException extends RuntimeException {
+
+    public DetectorUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,328 @@
+package com.TransformerUI.TransformerUI.service.detection;
+
+import com.TransformerUI.TransformerUI.transport.response.Anomaly;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One long-lived {@code anomaly_detection.py --serve} process.
+ * Requests and responses are length-prefixed JSON frames on stdin/stdout; the model is loaded
+ * once when the process starts. A worker serves one request at a time and is owned by
+ * {@link DetectorWorkerPool}.
+ * <p>
+ * stderr is drained on its own thread and only its tail is kept. Reply frames are parsed
+ * incrementally straight from the pipe, and frames larger than the configured limit are refused.
+ * Every call runs under a deadline; a watchdog kills the whole process tree when it is missed,
+ * which unblocks the waiting reader.
+ */
+@Slf4j
+public class DetectorWorker implements Closeable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "detector-watchdog");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final int workerId;
+    private final String modelVersion;
+    private final Process process;
+    private final DataOutputStream toWorker;
+    private final DataInputStream fromWorker;
+    private final StreamDrainer stderr;
+    private final DetectorLimits limits;
+    private final long startedAt = System.currentTimeMillis();
+    private int servedCount;
+    private volatile boolean broken;
+
+    private DetectorWorker(int workerId, String modelVersion, Process process, DetectorLimits limits) {
+        this.workerId = workerId;
+        this.modelVersion = modelVersion;
+        this.process = process;
+        this.limits = limits;
+        this.toWorker = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+        this.fromWorker = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+        this.stderr = StreamDrainer.start(process.getErrorStream(), "detector-" + workerId + "-stderr", limits.stderrTailChars());
+    }
+
+    /**
+     * Size limits applied to what a worker may send back, and the deadlines it must meet.
+     * A batch call gets {@code callTimeoutMs} plus {@code batchImageTimeoutMs} per image.
+     */
+    public record DetectorLimits(int maxReplyBytes, int stderrTailChars,
+                                 long startupTimeoutMs, long callTimeoutMs, long batchImageTimeoutMs) {
+    }
+
+    static DetectorWorker start(int workerId, String modelVersion, List<String> command, DetectorLimits limits) throws IOException {
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.redirectErrorStream(false);
+        DetectorWorker worker = new DetectorWorker(workerId, modelVersion, pb.start(), limits);
+        try {
+            // The worker announces itself once the model is loaded
+            DetectorReply ready = worker.withDeadline(limits.startupTimeoutMs(), worker::readReply);
+            if (!ready.isOk()) {
+                throw new IOException("Detector worker " + workerId + " failed to start: " + ready.getError());
+            }
+        } catch (IOException ex) {
+            worker.close();
+            throw ex;
+        }
+        log.info("Detector worker {} started (pid {})", workerId, worker.process.pid());
+        return worker;
+    }
+
+    public DetectorReply detect(Path image) throws IOException {
+        ObjectNode request = MAPPER.createObjectNode();
+        request.put("op", "detect");
+        request.put("image", image.toString());
+        return call(request, List.of(), limits.callTimeoutMs());
+    }
+
+    /**
+     * Streams the encoded image over the pipe; the worker decodes it in memory, so nothing
+     * touches the disk.
+     */
+    public DetectorReply detect(byte[] imageBytes) throws IOException {
+        ObjectNode request = MAPPER.createObjectNode();
+        request.put("op", "detect");
+        request.put("bytes", imageBytes.length);
+        return call(request, List.of(imageBytes), limits.callTimeoutMs());
+    }
+
+    /**
+     * Sends several encoded images in one request; the worker runs a single batched predict
+     * and answers with one {@code results} entry per image, in order.
+     */
+    public DetectorReply detectBatch(List<byte[]> images) throws IOException {
+        ObjectNode request = MAPPER.createObjectNode();
+        request.put("op", "detect_batch");
+        request.put("count", images.size());
+        return call(request, images, limits.callTimeoutMs() + limits.batchImageTimeoutMs() * images.size());
+    }
+
+    public boolean ping() {
+        try {
+            ObjectNode request = MAPPER.createObjectNode();
+            request.put("op", "ping");
+            return call(request, List.of(), limits.callTimeoutMs()).isOk();
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    private DetectorReply call(ObjectNode request, List<byte[]> bodies, long timeoutMs) throws IOException {
+        try {
+            DetectorReply reply = withDeadline(timeoutMs, () -> {
+                writeFrame(MAPPER.writeValueAsBytes(request));
+                for (byte[] body : bodies) {
+                    writeFrame(body);
+                }
+                toWorker.flush();
+                return readReply();
+            });
+            servedCount++;
+            return reply;
+        } catch (IOException ex) {
+            // The frame stream may be out of sync now; never reuse this worker
+            broken = true;
+            throw ex;
+        }
+    }
+
+    @FunctionalInterface
+    private interface PipeExchange<T> {
+        T run() throws IOException;
+    }
+
+    private <T> T withDeadline(long timeoutMs, PipeExchange<T> exchange) throws IOException {
+        AtomicBoolean timedOut = new AtomicBoolean();
+        ScheduledFuture<?> watchdog = WATCHDOG.schedule(() -> {
+            timedOut.set(true);
+            log.warn("Detector worker {} missed its {} ms deadline; killing it", workerId, timeoutMs);
+            killProcessTree();
+        }, timeoutMs, TimeUnit.MILLISECONDS);
+        try {
+            return exchange.run();
+        } catch (IOException ex) {
+            if (timedOut.get()) {
+                throw new DetectorTimeoutException("Detector worker " + workerId + " timed out after " + timeoutMs + " ms");
+            }
+            throw ex;
+        } finally {
+            watchdog.cancel(false);
+        }
+    }
+
+    private void killProcessTree() {
+        broken = true;
+        // ultralytics/torch may have forked helpers; take them down with the worker
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    private void writeFrame(byte[] payload) throws IOException {
+        toWorker.writeInt(payload.length);
+        toWorker.write(payload);
+    }
+
+    private DetectorReply readReply() throws IOException {
+        int length;
+        try {
+            length = fromWorker.readInt();
+        } catch (EOFException ex) {
+            throw new IOException("Detector worker " + workerId + " exited unexpectedly: " + stderr.tail());
+        }
+        if (length < 0 || length > limits.maxReplyBytes()) {
+            throw new DetectorOutputException("Detector worker " + workerId + " sent a reply of " + length
+                    + " bytes (limit " + limits.maxReplyBytes() + ")");
+        }
+        FrameInputStream frame = new FrameInputStream(fromWorker, length);
+        try (JsonParser parser = MAPPER.getFactory().createParser(frame)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new DetectorOutputException("Detector reply is not a JSON object");
+            }
+            return parseReply(parser);
+        } catch (DetectorOutputException ex) {
+            throw ex;
+        } catch (IOException ex) {
+            throw new DetectorOutputException("Could not parse detector reply: " + ex.getMessage(), ex);
+        } finally {
+            frame.skipRemaining();
+        }
+    }
+
+    // Expects the parser on START_OBJECT; anomalies are bound one element at a time
+    private static DetectorReply parseReply(JsonParser parser) throws IOException {
+        DetectorReply reply = new DetectorReply();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "ok" -> reply.setOk(value == JsonToken.VALUE_TRUE);
+                case "error" -> reply.setError(parser.getValueAsString());
+                case "anomalies" -> reply.setAnomalies(readArray(parser, value, p -> MAPPER.readValue(p, Anomaly.class)));
+                case "results" -> reply.setResults(readArray(parser, value, DetectorWorker::parseReply));
+                default -> parser.skipChildren();
+            }
+        }
+        return reply;
+    }
+
+    @FunctionalInterface
+    private interface ElementReader<T> {
+        T read(JsonParser parser) throws IOException;
+    }
+
+    private static <T> List<T> readArray(JsonParser parser, JsonToken value, ElementReader<T> reader) throws IOException {
+        List<T> items = new ArrayList<>();
+        if (value != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return items;
+        }
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            items.add(reader.read(parser));
+        }
+        return items;
+    }
+
+    public boolean isHealthy() {
+        return !broken && process.isAlive();
+    }
+
+    public int getWorkerId() {
+        return workerId;
+    }
+
+    public String getModelVersion() {
+        return modelVersion;
+    }
+
+    public int getServedCount() {
+        return servedCount;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    @Override
+    public void close() {
+        broken = true;
+        try {
+            toWorker.close();
+        } catch (IOException ignore) {
+        }
+        process.descendants().forEach(ProcessHandle::destroy);
+        process.destroy();
+        log.info("Detector worker {} stopped after {} requests", workerId, servedCount);
+    }
+
+    /**
+     * Exposes exactly one frame of the worker's stdout so the JSON parser cannot read past it.
+     */
+    private static class FrameInputStream extends InputStream {
+        private final InputStream in;
+        private int remaining;
+
+        FrameInputStream(InputStream in, int length) {
+            this.in = in;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = in.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = in.read(buffer, off, Math.min(len, remaining));
+            if (n > 0) {
+                remaining -= n;
+            }
+            return n;
+        }
+
+        @Override
+        public void close() {
+            // the underlying pipe stays open for the next frame
+        }
+
+        void skipRemaining() throws IOException {
+            while (remaining > 0) {
+                long skipped = in.skip(remaining);
+                if (skipped <= 0) {
+                    if (in.read() < 0) {
+                        return;
+                    }
+                    skipped = 1;
+                }
+                remaining -= (int) skipped;
+            }
+        }
+    }
+}
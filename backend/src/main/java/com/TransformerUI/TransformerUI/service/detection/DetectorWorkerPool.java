@@ -0,0 +1,208 @@
+package com.TransformerUI.TransformerUI.service.detection;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps a bounded set of warm {@link DetectorWorker} processes so a detection does not pay for
+ * interpreter startup and model loading. Workers are started lazily, pinged while idle and
+ * recycled after a failure, after serving a configured number of requests or when the model
+ * file changes.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DetectorWorkerPool {
+
+    private final DetectionModelVersion modelVersion;
+
+    @Value("${detection.pool.size:2}")
+    private int poolSize;
+
+    @Value("${detection.pool.max-requests-per-worker:500}")
+    private int maxRequestsPerWorker;
+
+    @Value("${detection.pool.acquire-timeout-ms:60000}")
+    private long acquireTimeoutMs;
+
+    @Value("${detection.pool.health-check-interval-ms:30000}")
+    private long healthCheckIntervalMs;
+
+    @Value("${detection.output.max-reply-bytes:16777216}")
+    private int maxReplyBytes;
+
+    @Value("${detection.output.stderr-tail-chars:8192}")
+    private int stderrTailChars;
+
+    @Value("${detection.timeout.startup-ms:120000}")
+    private long startupTimeoutMs;
+
+    @Value("${detection.timeout.call-ms:60000}")
+    private long callTimeoutMs;
+
+    @Value("${detection.timeout.batch-image-ms:5000}")
+    private long batchImageTimeoutMs;
+
+    private final BlockingQueue<DetectorWorker> idleWorkers = new LinkedBlockingQueue<>();
+    private final AtomicInteger liveWorkers = new AtomicInteger();
+    private final AtomicInteger workerIds = new AtomicInteger();
+    private ScheduledExecutorService healthChecker;
+
+    @FunctionalInterface
+    public interface WorkerCall<T> {
+        T apply(DetectorWorker worker) throws IOException;
+    }
+
+    @PostConstruct
+    public void init() {
+        healthChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "detector-health-check");
+            t.setDaemon(true);
+            return t;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkIdleWorkers,
+                healthCheckIntervalMs, healthCheckIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs {@code call} on a pooled worker. A worker that throws is discarded rather than
+     * returned to the pool.
+     */
+    public <T> T execute(WorkerCall<T> call) throws IOException, InterruptedException {
+        DetectorWorker worker = acquire();
+        boolean reusable = false;
+        try {
+            T result = call.apply(worker);
+            reusable = true;
+            return result;
+        } finally {
+            release(worker, reusable);
+        }
+    }
+
+    private DetectorWorker acquire() throws IOException, InterruptedException {
+        long deadline = System.currentTimeMillis() + acquireTimeoutMs;
+        while (true) {
+            DetectorWorker worker = idleWorkers.poll();
+            if (worker != null) {
+                return worker;
+            }
+            if (reserveSlot()) {
+                try {
+                    return DetectorWorker.start(workerIds.incrementAndGet(), modelVersion.current(), buildCommand(),
+                            new DetectorWorker.DetectorLimits(maxReplyBytes, stderrTailChars,
+                                    startupTimeoutMs, callTimeoutMs, batchImageTimeoutMs));
+                } catch (IOException ex) {
+                    liveWorkers.decrementAndGet();
+                    throw ex;
+                }
+            }
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                throw new IOException("No detector worker became available within " + acquireTimeoutMs + " ms");
+            }
+            // Wake up periodically in case a retired worker freed a slot
+            worker = idleWorkers.poll(Math.min(remaining, 250), TimeUnit.MILLISECONDS);
+            if (worker != null) {
+                return worker;
+            }
+        }
+    }
+
+    private boolean reserveSlot() {
+        int current;
+        do {
+            current = liveWorkers.get();
+            if (current >= poolSize) {
+                return false;
+            }
+        } while (!liveWorkers.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private void release(DetectorWorker worker, boolean reusable) {
+        if (reusable && isCurrent(worker) && worker.getServedCount() < maxRequestsPerWorker) {
+            idleWorkers.offer(worker);
+        } else {
+            retire(worker);
+        }
+    }
+
+    private void retire(DetectorWorker worker) {
+        liveWorkers.decrementAndGet();
+        worker.close();
+    }
+
+    private void checkIdleWorkers() {
+        List<DetectorWorker> checked = new ArrayList<>();
+        idleWorkers.drainTo(checked);
+        for (DetectorWorker worker : checked) {
+            if (isCurrent(worker) && worker.ping()) {
+                idleWorkers.offer(worker);
+            } else {
+                log.warn("Detector worker {} failed its health check; recycling", worker.getWorkerId());
+                retire(worker);
+            }
+        }
+    }
+
+    // Workers that loaded older weights are replaced once the model file changes
+    private boolean isCurrent(DetectorWorker worker) {
+        return worker.isHealthy() && worker.getModelVersion().equals(modelVersion.current());
+    }
+
+    List<String> buildCommand() {
+        // Allow overriding python via system property (set by PythonConfig) or env var.
+        String pythonCmd = System.getProperty("python.exec");
+        if (pythonCmd == null || pythonCmd.isBlank()) {
+            String env = System.getenv("PYTHON_EXEC");
+            pythonCmd = (env == null || env.isBlank()) ? "python" : env;
+        }
+        return List.of(pythonCmd, resolveScriptPath().toString(), "--serve",
+                "--model", modelVersion.resolveModelPath().toString());
+    }
+
+    static Path resolveScriptPath() {
+        // Try common locations relative to the JVM working dir
+        String cwd = System.getProperty("user.dir");
+        Path scriptPath = Paths.get(cwd, "python", "anomaly_detection.py");
+        if (!Files.exists(scriptPath)) {
+            // If running from repo root where backend is a subfolder
+            scriptPath = Paths.get(cwd, "backend", "python", "anomaly_detection.py");
+        }
+        if (!Files.exists(scriptPath)) {
+            // Fallback to the original relative path (let OS resolve from current CWD)
+            scriptPath = Paths.get("python", "anomaly_detection.py");
+        }
+        return scriptPath;
+    }
+
+    public int getLiveWorkers() {
+        return liveWorkers.get();
+    }
+
+    public int getIdleWorkers() {
+        return idleWorkers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        healthChecker.shutdownNow();
+        List<DetectorWorker> remaining = new ArrayList<>();
+        idleWorkers.drainTo(remaining);
+        remaining.forEach(this::retire);
+    }
+}
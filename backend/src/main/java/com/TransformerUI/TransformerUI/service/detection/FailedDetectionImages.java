@@ -0,0 +1,29 @@
+package com.TransformerUI.TransformerUI.service.detection;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * The only place an image is written to disk: failed inputs are kept for
+ * DevFailedDetectionsController.
+ */
+public class FailedDetectionImages {
+
+    private FailedDetectionImages() {
+    }
+
+    public static RuntimeException preserve(String kind, String prefix, byte[] imageBytes, String err) {
+        // create a debug folder next to the system temp dir
+        Path debugDir = Paths.get(System.getProperty("java.io.tmpdir")).resolve("../failed-detections").normalize();
+        try {
+            Files.createDirectories(debugDir);
+            Path preserved = debugDir.resolve(prefix + System.currentTimeMillis() + ".jpg");
+            Files.write(preserved, imageBytes);
+            return new RuntimeException(kind + ";FILE:" + preserved + ";ERR:" + err);
+        } catch (IOException ioEx) {
+            return new RuntimeException(kind + ";FILE:UNKNOWN;ERR:" + err);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.TransformerUI.TransformerUI.service.detection;
+
+import com.TransformerUI.TransformerUI.transport.response.Anomaly;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Shrinks images to the model input size before they leave the JVM. Each image is decoded,
+ * letterboxed onto a {@code image-size} square with grey padding and re-encoded as JPEG, so the
+ * detector receives and decodes a small frame instead of the full camera image. Batches are
+ * prepared in parallel. {@link PreparedImage#toOriginal} maps the returned boxes back so that
+ * {@code Anomaly.box} stays normalized to the original image.
+ */
+@Slf4j
+@Component
+public class ImagePreprocessor {
+
+    private static final int PAD_GREY = 114;
+
+    @Value("${detection.preprocess.enabled:true}")
+    private boolean enabled;
+
+    @Value("${detection.preprocess.image-size:640}")
+    private int imageSize;
+
+    @Value("${detection.preprocess.jpeg-quality:0.95}")
+    private float jpegQuality;
+
+    // 0 uses one thread per core
+    @Value("${detection.preprocess.threads:0}")
+    private int threads;
+
+    private ExecutorService executor;
+
+    /**
+     * Where the original image sits inside the {@code size} x {@code size} letterbox.
+     */
+    public record Letterbox(int width, int height, int size, double scale, int padLeft, int padTop) {
+
+        /** Letterbox x in pixels to original x in pixels, clipped to the image. */
+        public double originalX(double x) {
+            return Math.min(Math.max((x - padLeft) / scale, 0), width);
+        }
+
+        public double originalY(double y) {
+            return Math.min(Math.max((y - padTop) / scale, 0), height);
+        }
+    }
+
+    /**
+     * Bytes to send to the detector. {@code letterbox} is null when the original was passed
+     * through unchanged.
+     */
+    public record PreparedImage(byte[] bytes, Letterbox letterbox) {
+
+        public List<Anomaly> toOriginal(List<Anomaly> anomalies) {
+            if (letterbox == null || anomalies == null) {
+                return anomalies;
+            }
+            List<Anomaly> mapped = new ArrayList<>(anomalies.size());
+            for (Anomaly a : anomalies) {
+                List<Double> box = a.getBox();
+                int size = letterbox.size();
+                mapped.add(new Anomaly(a.getErrorType(), a.getConfidence(), List.of(
+                        letterbox.originalX(box.get(0) * size) / letterbox.width(),
+                        letterbox.originalY(box.get(1) * size) / letterbox.height(),
+                        letterbox.originalX(box.get(2) * size) / letterbox.width(),
+                        letterbox.originalY(box.get(3) * size) / letterbox.height()),
+                        a.getManual(), a.getUser()));
+            }
+            return mapped;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        executor = Executors.newFixedThreadPool(poolSize, r -> {
+            Thread t = new Thread(r, "detection-preprocess");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Letterboxes one image. Images that cannot be decoded, or that already fit the model input,
+     * are passed through so the detector reports on them as before.
+     */
+    public PreparedImage prepare(byte[] imageBytes) {
+        if (!enabled) {
+            return new PreparedImage(imageBytes, null);
+        }
+        try {
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(imageBytes));
+            if (image == null || (image.getWidth() <= imageSize && image.getHeight() <= imageSize)) {
+                return new PreparedImage(imageBytes, null);
+            }
+            Letterbox letterbox = letterboxFor(image.getWidth(), image.getHeight(), imageSize);
+            return new PreparedImage(encodeJpeg(draw(image, letterbox)), letterbox);
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Pre-processing failed; sending the original image: {}", ex.getMessage());
+            return new PreparedImage(imageBytes, null);
+        }
+    }
+
+    /**
+     * The settings that change the frames sent to the detector.
+     */
+    public String configFingerprint() {
+        return enabled ? "letterbox:" + imageSize + ":" + jpegQuality : "original";
+    }
+
+    /**
+     * Prepares a batch on the pre-processing pool; results keep the input order.
+     */
+    public List<PreparedImage> prepareAll(List<byte[]> images) throws InterruptedException {
+        List<Future<PreparedImage>> futures = new ArrayList<>(images.size());
+        for (byte[] image : images) {
+            futures.add(executor.submit(() -> prepare(image)));
+        }
+        List<PreparedImage> prepared = new ArrayList<>(images.size());
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                prepared.add(futures.get(i).get());
+            } catch (ExecutionException ex) {
+                prepared.add(new PreparedImage(images.get(i), null));
+            }
+        }
+        return prepared;
+    }
+
+    /**
+     * Scale and padding used by ultralytics' LetterBox, including its rounding.
+     */
+    public static Letterbox letterboxFor(int width, int height, int size) {
+        double scale = Math.min((double) size / width, (double) size / height);
+        int scaledWidth = (int) Math.round(width * scale);
+        int scaledHeight = (int) Math.round(height * scale);
+        int padLeft = (int) Math.round((size - scaledWidth) / 2.0 - 0.1);
+        int padTop = (int) Math.round((size - scaledHeight) / 2.0 - 0.1);
+        return new Letterbox(width, height, size, scale, padLeft, padTop);
+    }
+
+    /**
+     * Draws {@code image} onto a grey RGB square as described by {@code letterbox}.
+     */
+    public static BufferedImage draw(BufferedImage image, Letterbox letterbox) {
+        int size = letterbox.size();
+        BufferedImage canvas = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = canvas.createGraphics();
+        try {
+            g.setColor(new Color(PAD_GREY, PAD_GREY, PAD_GREY));
+            g.fillRect(0, 0, size, size);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(image, letterbox.padLeft(), letterbox.padTop(),
+                    (int) Math.round(letterbox.width() * letterbox.scale()),
+                    (int) Math.round(letterbox.height() * letterbox.scale()), null);
+        } finally {
+            g.dispose();
+        }
+        return canvas;
+    }
+
+    public byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
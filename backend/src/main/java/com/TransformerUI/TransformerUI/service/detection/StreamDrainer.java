@@ -0,0 +1,90 @@
+package com.TransformerUI.TransformerUI.service.detection;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Continuously reads a process stream on a daemon thread so the child can never block on a
+ * full pipe. Only the last {@code maxChars} characters are retained, for error messages, in a
+ * fixed ring; output without line breaks (progress bars, {@code \r} spinners) cannot grow the
+ * heap. Debug logging splits long lines at {@code maxChars} for the same reason.
+ */
+@Slf4j
+public class StreamDrainer {
+
+    private static final int READ_CHUNK = 4096;
+
+    private final char[] ring;
+    // Characters appended so far; the ring holds the last ring.length of them
+    private long written;
+
+    StreamDrainer(int maxChars) {
+        this.ring = new char[Math.max(1, maxChars)];
+    }
+
+    public static StreamDrainer start(InputStream stream, String name, int maxChars) {
+        StreamDrainer drainer = new StreamDrainer(maxChars);
+        Thread thread = new Thread(() -> drainer.drain(stream, name), name);
+        thread.setDaemon(true);
+        thread.start();
+        return drainer;
+    }
+
+    void drain(InputStream stream, String name) {
+        char[] chunk = new char[READ_CHUNK];
+        StringBuilder line = new StringBuilder();
+        try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+            int read;
+            while ((read = reader.read(chunk)) != -1) {
+                append(chunk, read);
+                if (log.isDebugEnabled()) {
+                    for (int i = 0; i < read; i++) {
+                        char c = chunk[i];
+                        if (c == '\n' || c == '\r' || line.length() >= ring.length) {
+                            logLine(name, line);
+                        }
+                        if (c != '\n' && c != '\r') {
+                            line.append(c);
+                        }
+                    }
+                }
+            }
+            logLine(name, line);
+        } catch (IOException ignore) {
+            // stream closed with the process
+        }
+    }
+
+    private static void logLine(String name, StringBuilder line) {
+        if (line.length() > 0) {
+            log.debug("{}: {}", name, line);
+            line.setLength(0);
+        }
+    }
+
+    private synchronized void append(char[] chunk, int length) {
+        // Only the end of a chunk longer than the ring survives
+        int from = Math.max(0, length - ring.length);
+        written += from;
+        for (int i = from; i < length; i++) {
+            // Carriage returns redraw a line; keep them readable as line breaks
+            ring[(int) (written++ % ring.length)] = chunk[i] == '\r' ? '\n' : chunk[i];
+        }
+    }
+
+    public synchronized String tail() {
+        int size = (int) Math.min(written, ring.length);
+        int start = (int) ((written - size) % ring.length);
+        StringBuilder tail = new StringBuilder(size);
+        for (int i = 0; i < size; i++) {
+            tail.append(ring[(start + i) % ring.length]);
+        }
+        // Blank lines add nothing to an error message
+        return tail.toString().replaceAll("\n{2,}", "\n").strip();
+    }
+}
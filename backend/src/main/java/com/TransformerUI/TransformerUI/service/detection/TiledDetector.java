@@ -0,0 +1,246 @@
+package com.TransformerUI.TransformerUI.service.detection;
+
+import com.TransformerUI.TransformerUI.transport.response.AnomaliesResponse;
+import com.TransformerUI.TransformerUI.transport.response.Anomaly;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Detects small hotspots on large images by running the detector on overlapping
+ * {@code tile-size} crops at full resolution instead of one shrunken frame. Tiles are split into
+ * batches that are sent to the engine in parallel; a whole-image pass is added so large anomalies
+ * are not cut up. The boxes are mapped back to the full image and merged with class-aware
+ * non-maximum suppression.
+ * <p>
+ * Every batch takes a detector slot from the {@link DetectionAdmissionController}, so one image
+ * is split into at most as many batches as there are slots. More batches would only wait in the
+ * admission queue and crowd out other callers.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TiledDetector {
+
+    private final DetectionEngine detectionEngine;
+    private final ImagePreprocessor preprocessor;
+    private final DetectionAdmissionController admissionController;
+
+    @Value("${detection.tiling.tile-size:640}")
+    private int tileSize;
+
+    @Value("${detection.tiling.overlap:0.2}")
+    private double overlap;
+
+    // Images whose longer side is at most this are detected in one pass
+    @Value("${detection.tiling.min-image-size:1280}")
+    private int minImageSize;
+
+    @Value("${detection.tiling.iou-threshold:0.5}")
+    private double iouThreshold;
+
+    @Value("${detection.tiling.include-full-frame:true}")
+    private boolean includeFullFrame;
+
+    // 0 uses one thread per core; never more batches than detection.admission.max-concurrent
+    @Value("${detection.tiling.parallelism:0}")
+    private int parallelism;
+
+    private ExecutorService fanOut;
+    private int fanOutThreads;
+
+    record Tile(int x, int y, int width, int height) {
+    }
+
+    @PostConstruct
+    public void init() {
+        fanOutThreads = Math.min(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+                Math.max(1, admissionController.maxConcurrent()));
+        fanOut = Executors.newFixedThreadPool(fanOutThreads, r -> {
+            Thread t = new Thread(r, "detection-tile");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * The tiling settings and the engine's; tiled results are cached by it.
+     */
+    public String configFingerprint() {
+        return "tiled:" + tileSize + ":" + overlap + ":" + minImageSize + ":" + iouThreshold + ":" + includeFullFrame
+                + ":" + preprocessor.configFingerprint() + ":" + detectionEngine.configFingerprint();
+    }
+
+    public AnomaliesResponse detect(byte[] imageBytes) throws IOException, InterruptedException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(imageBytes));
+        if (image == null || Math.max(image.getWidth(), image.getHeight()) <= minImageSize) {
+            return detectionEngine.detect(imageBytes);
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        List<Tile> tiles = tiles(width, height);
+        List<byte[]> frames = new ArrayList<>(tiles.size() + 1);
+        for (Tile tile : tiles) {
+            frames.add(preprocessor.encodeJpeg(crop(image, tile)));
+        }
+        if (includeFullFrame) {
+            frames.add(imageBytes);
+        }
+
+        List<List<Integer>> chunks = chunks(frames.size());
+        List<Future<List<DetectionEngine.BatchItemResult>>> futures = new ArrayList<>(chunks.size());
+        for (List<Integer> chunk : chunks) {
+            List<byte[]> chunkFrames = chunk.stream().map(frames::get).toList();
+            futures.add(fanOut.submit(() -> detectionEngine.detectBatch(chunkFrames)));
+        }
+
+        List<Anomaly> found = new ArrayList<>();
+        for (int c = 0; c < chunks.size(); c++) {
+            List<DetectionEngine.BatchItemResult> results = await(futures, c, imageBytes);
+            List<Integer> chunk = chunks.get(c);
+            for (int i = 0; i < chunk.size(); i++) {
+                DetectionEngine.BatchItemResult result = i < results.size() ? results.get(i) : null;
+                if (result == null || result.error() != null) {
+                    futures.forEach(f -> f.cancel(true));
+                    throw FailedDetectionImages.preserve("TILE_ERR", "failed_", imageBytes,
+                            result == null ? "No result returned for tile" : result.error());
+                }
+                int index = chunk.get(i);
+                List<Anomaly> anomalies = result.anomalies().getAnomalies();
+                found.addAll(index < tiles.size() ? toImage(anomalies, tiles.get(index), width, height) : anomalies);
+            }
+        }
+        log.debug("Tiled detection over {} tiles on {} threads found {} boxes before merging",
+                tiles.size(), chunks.size(), found.size());
+        return new AnomaliesResponse(nonMaxSuppression(found, iouThreshold));
+    }
+
+    private List<DetectionEngine.BatchItemResult> await(List<Future<List<DetectionEngine.BatchItemResult>>> futures,
+                                                         int index, byte[] imageBytes) throws InterruptedException {
+        try {
+            return futures.get(index).get();
+        } catch (ExecutionException ex) {
+            futures.forEach(f -> f.cancel(true));
+            // Busy/unavailable signals keep their meaning for the caller
+            if (ex.getCause() instanceof DetectionBusyException || ex.getCause() instanceof DetectorUnavailableException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw FailedDetectionImages.preserve("TILE_ERR", "failed_", imageBytes, ex.getCause().getMessage());
+        }
+    }
+
+    List<Tile> tiles(int width, int height) {
+        int stride = Math.max(1, (int) Math.round(tileSize * (1 - overlap)));
+        List<Tile> tiles = new ArrayList<>();
+        for (int y : starts(height, stride)) {
+            for (int x : starts(width, stride)) {
+                tiles.add(new Tile(x, y, Math.min(tileSize, width), Math.min(tileSize, height)));
+            }
+        }
+        return tiles;
+    }
+
+    // The last tile is pulled back so it ends on the image edge
+    private List<Integer> starts(int length, int stride) {
+        if (length <= tileSize) {
+            return List.of(0);
+        }
+        List<Integer> starts = new ArrayList<>();
+        for (int s = 0; s + tileSize < length; s += stride) {
+            starts.add(s);
+        }
+        starts.add(length - tileSize);
+        return starts;
+    }
+
+    private List<List<Integer>> chunks(int frameCount) {
+        int count = Math.min(fanOutThreads, frameCount);
+        List<List<Integer>> chunks = new ArrayList<>(count);
+        for (int c = 0; c < count; c++) {
+            chunks.add(new ArrayList<>());
+        }
+        for (int i = 0; i < frameCount; i++) {
+            chunks.get(i % count).add(i);
+        }
+        return chunks;
+    }
+
+    private static BufferedImage crop(BufferedImage image, Tile tile) {
+        // Copy into plain RGB so the JPEG encoder accepts grey and alpha sources alike
+        BufferedImage out = new BufferedImage(tile.width(), tile.height(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.drawImage(image.getSubimage(tile.x(), tile.y(), tile.width(), tile.height()), 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    private static List<Anomaly> toImage(List<Anomaly> anomalies, Tile tile, int width, int height) {
+        List<Anomaly> mapped = new ArrayList<>(anomalies.size());
+        for (Anomaly a : anomalies) {
+            List<Double> box = a.getBox();
+            mapped.add(new Anomaly(a.getErrorType(), a.getConfidence(), List.of(
+                    (tile.x() + box.get(0) * tile.width()) / width,
+                    (tile.y() + box.get(1) * tile.height()) / height,
+                    (tile.x() + box.get(2) * tile.width()) / width,
+                    (tile.y() + box.get(3) * tile.height()) / height),
+                    a.getManual(), a.getUser()));
+        }
+        return mapped;
+    }
+
+    /**
+     * Keeps the most confident box of each overlapping group, comparing only boxes of the same
+     * class. IoU does not depend on the axis scale, so normalized boxes can be compared directly.
+     */
+    static List<Anomaly> nonMaxSuppression(List<Anomaly> anomalies, double iouThreshold) {
+        List<Anomaly> sorted = new ArrayList<>(anomalies);
+        sorted.sort(Comparator.comparingDouble(Anomaly::getConfidence).reversed());
+        List<Anomaly> kept = new ArrayList<>();
+        for (Anomaly candidate : sorted) {
+            boolean suppressed = false;
+            for (Anomaly k : kept) {
+                if (k.getErrorType().equals(candidate.getErrorType()) && iou(k.getBox(), candidate.getBox()) > iouThreshold) {
+                    suppressed = true;
+                    break;
+                }
+            }
+            if (!suppressed) {
+                kept.add(candidate);
+            }
+        }
+        return kept;
+    }
+
+    private static double iou(List<Double> a, List<Double> b) {
+        double w = Math.min(a.get(2), b.get(2)) - Math.max(a.get(0), b.get(0));
+        double h = Math.min(a.get(3), b.get(3)) - Math.max(a.get(1), b.get(1));
+        if (w <= 0 || h <= 0) {
+            return 0;
+        }
+        double inter = w * h;
+        double areaA = (a.get(2) - a.get(0)) * (a.get(3) - a.get(1));
+        double areaB = (b.get(2) - b.get(0)) * (b.get(3) - b.get(1));
+        return inter / (areaA + areaB - inter);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanOut.shutdownNow();
+    }
+}
@@ -2,20 +2,29 @@ package com.TransformerUI.TransformerUI.service.impl;
 
 import com.TransformerUI.TransformerUI.entity.ImageDataEntity;
 import com.TransformerUI.TransformerUI.entity.InspectionDataEntity;
+import com.TransformerUI.TransformerUI.repository.ImageMetadataView;
+import com.TransformerUI.TransformerUI.service.storage.ImageContentService;
+import com.TransformerUI.TransformerUI.service.storage.ImageRenditions;
+import com.TransformerUI.TransformerUI.service.storage.ImageSize;
+import com.TransformerUI.TransformerUI.service.storage.ImageSource;
 import com.TransformerUI.TransformerUI.service.util.SequenceGeneratorService;
 import com.TransformerUI.TransformerUI.transport.request.ImageRequest;
 import com.TransformerUI.TransformerUI.transport.request.InspectionDataRequest;
 import com.TransformerUI.TransformerUI.transport.response.AnomaliesResponse;
 import com.TransformerUI.TransformerUI.transport.response.Anomaly;
+import com.TransformerUI.TransformerUI.transport.response.ImageMetadataResponse;
 import com.TransformerUI.TransformerUI.transport.response.ImageResponse;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.*;
 import java.io.IOException;
+import java.io.InputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,9 +41,17 @@ public class CustomMapper {
             new SimpleDateFormat("EEE(dd), MMM, yyyy hh:mm a");
 
     private final SequenceGeneratorService sequenceGeneratorService;
+    private final ImageContentService imageContentService;
+    private final ImageRenditions imageRenditions;
 
-    public CustomMapper(SequenceGeneratorService sequenceGeneratorService) {
+    @Value("${base-url.context}")
+    private String contextPath;
+
+    public CustomMapper(SequenceGeneratorService sequenceGeneratorService, ImageContentService imageContentService,
+                        ImageRenditions imageRenditions) {
         this.sequenceGeneratorService = sequenceGeneratorService;
+        this.imageContentService = imageContentService;
+        this.imageRenditions = imageRenditions;
     }
 
     // ===== InspectionData mapping =====
@@ -103,8 +120,7 @@ public class CustomMapper {
     }
 
     public ImageDataEntity toEntity(ImageRequest imageRequest) {
-        try {
-            byte[] imageBytes = imageRequest.getPhoto().getBytes();
+        try (InputStream photo = imageRequest.getPhoto().getInputStream()) {
             String detectionJson = "";
 
             if (Objects.equals(imageRequest.getType(), "Thermal")) {
@@ -114,14 +130,16 @@ public class CustomMapper {
                 detectionJson = "";
             }
 
-            return ImageDataEntity.builder()
+            ImageDataEntity entity = ImageDataEntity.builder()
                     .type(imageRequest.getType())
                     .transformerNo(imageRequest.getTransformerNo())
                     .inspectionNo(imageRequest.getInspectionNo())
                     .weather(imageRequest.getWeather())
-                    .image(imageBytes)
                     .detectionJson(detectionJson)
                     .build();
+            // Streamed from the part's temp file into the image store; never held in memory
+            imageContentService.store(entity, photo, imageRequest.getPhoto().getSize());
+            return entity;
 
         } catch (IOException e) {
             throw new RuntimeException("Failed to read image bytes", e);
@@ -140,8 +158,8 @@ public class CustomMapper {
             existingEntity.setInspectionNo(imageRequest.getInspectionNo());
         }
         if (imageRequest.getPhoto() != null && !imageRequest.getPhoto().isEmpty()) {
-            try {
-                existingEntity.setImage(imageRequest.getPhoto().getBytes());
+            try (InputStream photo = imageRequest.getPhoto().getInputStream()) {
+                imageContentService.store(existingEntity, photo, imageRequest.getPhoto().getSize());
             } catch (IOException e) {
                 throw new RuntimeException("Failed to read image bytes", e);
             }
@@ -157,11 +175,23 @@ public class CustomMapper {
     }
 
     public ImageResponse toResponse(ImageDataEntity entity) {
+        return toResponse(entity, true, ImageSize.FULL);
+    }
+
+    public ImageResponse toResponse(ImageDataEntity entity, boolean includePhoto, ImageSize size) {
         if (entity == null) return null;
 
-        String photoBase64 = null;
-        if (entity.getImage() != null && entity.getImage().length > 0) {
-            photoBase64 = Base64.getEncoder().encodeToString(entity.getImage());
+        ImageSource photoBase64 = null;
+        ImageRenditions.Dimensions dimensions = null;
+        if (imageContentService.hasContent(entity)) {
+            try {
+                if (includePhoto) {
+                    photoBase64 = imageRenditions.source(entity, size);
+                }
+                dimensions = imageRenditions.dimensions(entity, size);
+            } catch (IOException e) {
+                log.warn("Could not read image {} from the image store: {}", entity.getId(), e.getMessage());
+            }
         }
 
         AnomaliesResponse anomaliesResponse = null;
@@ -191,10 +221,51 @@ public class CustomMapper {
                 anomaliesResponse,
                 entity.getDateTime(),
                 photoBase64,
-                entity.getLogs()
+                entity.getLogs(),
+                photoUrl(entity.getTransformerNo(), entity.getInspectionNo(), entity.getType(), size),
+                dimensions == null ? null : dimensions.originalWidth(),
+                dimensions == null ? null : dimensions.originalHeight(),
+                dimensions == null ? null : dimensions.width(),
+                dimensions == null ? null : dimensions.height()
+        );
+    }
 
+    public ImageMetadataResponse toMetadataResponse(ImageMetadataView view) {
+        int anomalyCount = 0;
+        boolean detected = view.getDetectionJson() != null && !view.getDetectionJson().isEmpty();
+        if (detected) {
+            try {
+                anomalyCount = new ObjectMapper().readTree(view.getDetectionJson()).size();
+            } catch (IOException e) {
+                log.warn("Unreadable detection result on image {}: {}", view.getId(), e.getMessage());
+            }
+        }
+        return new ImageMetadataResponse(
+                view.getId(),
+                view.getTransformerNo(),
+                view.getInspectionNo(),
+                view.getType(),
+                view.getWeather(),
+                view.getUploader(),
+                view.getDateTime(),
+                view.getImageSize(),
+                view.getImageHash(),
+                detected,
+                anomalyCount,
+                photoUrl(view.getTransformerNo(), view.getInspectionNo(), view.getType(), ImageSize.FULL)
         );
     }
 
+    private String photoUrl(String transformerNo, String inspectionNo, String type, ImageSize size) {
+        UriComponentsBuilder url = UriComponentsBuilder.fromPath(contextPath + "/image-data/content")
+                .queryParam("transformerNo", transformerNo)
+                .queryParam("inspectionNo", inspectionNo)
+                .queryParam("type", type);
+        if (size != ImageSize.FULL) {
+            url.queryParam("size", size.param());
+        }
+        return url.encode().toUriString();
+    }
+
 
 }
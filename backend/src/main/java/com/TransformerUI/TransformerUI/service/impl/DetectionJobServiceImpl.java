@@ -0,0 +1,167 @@
+package com.TransformerUI.TransformerUI.service.impl;
+
+import com.TransformerUI.TransformerUI.constant.LoggingAdviceConstants;
+import com.TransformerUI.TransformerUI.service.DetectionJobService;
+import com.TransformerUI.TransformerUI.service.ImageDataService;
+import com.TransformerUI.TransformerUI.service.detection.DetectionEventPublisher;
+import com.TransformerUI.TransformerUI.service.util.StackTraceTracker;
+import com.TransformerUI.TransformerUI.service.util.exception.type.BaseException;
+import com.TransformerUI.TransformerUI.transport.response.AnomaliesResponse;
+import com.TransformerUI.TransformerUI.transport.response.ApiResponse;
+import com.TransformerUI.TransformerUI.transport.response.DetectionJobResponse;
+import com.TransformerUI.TransformerUI.transport.response.ResponseCodeEnum;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs detections off the servlet thread. Jobs go to a bounded executor; a full queue is
+ * reported as {@link ResponseCodeEnum#DETECTION_BUSY} instead of blocking the caller.
+ * Finished jobs are kept for {@code detection.jobs.retention-ms} so clients can poll them.
+ * Every status change, and the anomalies once the job finishes, is also pushed to
+ * {@link DetectionEventPublisher} subscribers.
+ */
+@Slf4j
+@Service
+public class DetectionJobServiceImpl implements DetectionJobService {
+
+    private static final String QUEUED = "QUEUED";
+    private static final String RUNNING = "RUNNING";
+    private static final String COMPLETED = "COMPLETED";
+    private static final String FAILED = "FAILED";
+
+    private final ImageDataService imageDataService;
+    private final DetectionEventPublisher eventPublisher;
+    private final Map<String, DetectionJob> jobs = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor executor;
+
+    @Value("${detection.jobs.threads:2}")
+    private int threads;
+
+    @Value("${detection.jobs.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${detection.jobs.retention-ms:3600000}")
+    private long retentionMs;
+
+    public DetectionJobServiceImpl(ImageDataService imageDataService, DetectionEventPublisher eventPublisher) {
+        this.imageDataService = imageDataService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNo = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> new Thread(r, "detection-job-" + threadNo.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public ApiResponse<DetectionJobResponse> submitDetection(String transformerNo, String inspectionNo) {
+        purgeExpiredJobs();
+        DetectionJob job = new DetectionJob(UUID.randomUUID().toString(), transformerNo, inspectionNo);
+        jobs.put(job.jobId, job);
+        eventPublisher.publishStatus(transformerNo, inspectionNo, job.toResponse());
+        try {
+            executor.execute(() -> runJob(job));
+        } catch (RejectedExecutionException ex) {
+            jobs.remove(job.jobId);
+            log.warn("Detection job rejected for {}/{}: queue is full", transformerNo, inspectionNo);
+            ApiResponse<AnomaliesResponse> busy = new ApiResponse<>(ResponseCodeEnum.DETECTION_BUSY.code(), ResponseCodeEnum.DETECTION_BUSY.message());
+            eventPublisher.publishResult(transformerNo, inspectionNo, busy);
+            return new ApiResponse<>(ResponseCodeEnum.DETECTION_BUSY.code(), ResponseCodeEnum.DETECTION_BUSY.message());
+        }
+        return new ApiResponse<>(ResponseCodeEnum.IN_PROGRESS.code(), ResponseCodeEnum.IN_PROGRESS.message(), job.toResponse());
+    }
+
+    private void runJob(DetectionJob job) {
+        job.startedAt = System.currentTimeMillis();
+        job.status = RUNNING;
+        eventPublisher.publishStatus(job.transformerNo, job.inspectionNo, job.toResponse());
+        try {
+            // detectAnomalies persists detectionJson on the image, exactly as the synchronous endpoint does
+            job.result = imageDataService.detectAnomalies(job.transformerNo, job.inspectionNo);
+            job.status = ResponseCodeEnum.DETECTION_BUSY.code().equals(job.result.getResponseCode()) ? FAILED : COMPLETED;
+        } catch (BaseException ex) {
+            job.result = new ApiResponse<>(ex.getResponseCode() == null ? ResponseCodeEnum.IMAGE_NOT_DETECTED.code() : ex.getResponseCode(), ex.getMessage());
+            job.status = FAILED;
+        } catch (Exception ex) {
+            log.error(LoggingAdviceConstants.EXCEPTION_STACK_TRACE, System.currentTimeMillis() - job.startedAt,
+                    ex.getMessage(), StackTraceTracker.displayStackStraceArray(ex.getStackTrace()));
+            job.result = new ApiResponse<>(ResponseCodeEnum.IMAGE_NOT_DETECTED.code(), ResponseCodeEnum.IMAGE_NOT_DETECTED.message());
+            job.status = FAILED;
+        } finally {
+            job.finishedAt = System.currentTimeMillis();
+            // Subscribers get the anomalies straight from the job; the image is not read again
+            eventPublisher.publishStatus(job.transformerNo, job.inspectionNo, job.toResponse());
+            eventPublisher.publishResult(job.transformerNo, job.inspectionNo, job.result);
+        }
+    }
+
+    @Override
+    public ApiResponse<DetectionJobResponse> getJobStatus(String jobId) throws BaseException {
+        DetectionJob job = findJob(jobId);
+        return new ApiResponse<>(ResponseCodeEnum.SUCCESS.code(), ResponseCodeEnum.SUCCESS.message(), job.toResponse());
+    }
+
+    @Override
+    public ApiResponse<AnomaliesResponse> getJobResult(String jobId) throws BaseException {
+        DetectionJob job = findJob(jobId);
+        ApiResponse<AnomaliesResponse> result = job.result;
+        if (result == null) {
+            return new ApiResponse<>(ResponseCodeEnum.IN_PROGRESS.code(), "Detection job is " + job.status);
+        }
+        return result;
+    }
+
+    private DetectionJob findJob(String jobId) throws BaseException {
+        DetectionJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new BaseException(ResponseCodeEnum.DETECTION_JOB_NOT_FOUND.code(),
+                    ResponseCodeEnum.DETECTION_JOB_NOT_FOUND.message() + ": " + jobId);
+        }
+        return job;
+    }
+
+    private void purgeExpiredJobs() {
+        long cutoff = System.currentTimeMillis() - retentionMs;
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt < cutoff);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static class DetectionJob {
+        private final String jobId;
+        private final String transformerNo;
+        private final String inspectionNo;
+        private final long submittedAt = System.currentTimeMillis();
+        private volatile String status = QUEUED;
+        private volatile Long startedAt;
+        private volatile Long finishedAt;
+        private volatile ApiResponse<AnomaliesResponse> result;
+
+        private DetectionJob(String jobId, String transformerNo, String inspectionNo) {
+            this.jobId = jobId;
+            this.transformerNo = transformerNo;
+            this.inspectionNo = inspectionNo;
+        }
+
+        private DetectionJobResponse toResponse() {
+            ApiResponse<AnomaliesResponse> r = result;
+            return new DetectionJobResponse(jobId, transformerNo, inspectionNo, status, submittedAt, startedAt, finishedAt,
+                    r == null ? null : r.getResponseCode(), r == null ? null : r.getResponseDescription());
+        }
+    }
+}
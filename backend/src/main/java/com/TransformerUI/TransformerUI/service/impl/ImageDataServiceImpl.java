@@ -3,20 +3,54 @@ package com.TransformerUI.TransformerUI.service.impl;
 import com.TransformerUI.TransformerUI.constant.LoggingAdviceConstants;
 import com.TransformerUI.TransformerUI.entity.ImageDataEntity;
 import com.TransformerUI.TransformerUI.repository.ImageDataRepository;
+import com.TransformerUI.TransformerUI.repository.ImageMetadataView;
 import com.TransformerUI.TransformerUI.service.ImageDataService;
+import com.TransformerUI.TransformerUI.service.detection.BaselineChangeMapper;
+import com.TransformerUI.TransformerUI.service.detection.DetectionBusyException;
+import com.TransformerUI.TransformerUI.service.detection.DetectionCache;
+import com.TransformerUI.TransformerUI.service.detection.DetectionEngine;
+import com.TransformerUI.TransformerUI.service.detection.DetectorUnavailableException;
+import com.TransformerUI.TransformerUI.service.detection.TiledDetector;
+import com.TransformerUI.TransformerUI.service.storage.ImageCache;
+import com.TransformerUI.TransformerUI.service.storage.ImageContent;
+import com.TransformerUI.TransformerUI.service.storage.ImageContentService;
+import com.TransformerUI.TransformerUI.service.storage.ImageRenditions;
+import com.TransformerUI.TransformerUI.service.storage.ImageSize;
+import com.TransformerUI.TransformerUI.service.storage.ImageStoreMigrator;
+import com.TransformerUI.TransformerUI.service.storage.InvalidImageException;
+import com.TransformerUI.TransformerUI.service.util.HashUtil;
 import com.TransformerUI.TransformerUI.service.util.StackTraceTracker;
 import com.TransformerUI.TransformerUI.service.util.exception.type.BaseException;
+import com.TransformerUI.TransformerUI.transport.request.BatchDetectionRequest;
+import com.TransformerUI.TransformerUI.transport.request.DetectionTarget;
 import com.TransformerUI.TransformerUI.transport.request.ImageRequest;
+import com.TransformerUI.TransformerUI.transport.response.AnomaliesResponse;
+import com.TransformerUI.TransformerUI.transport.response.Anomaly;
 import com.TransformerUI.TransformerUI.transport.response.ApiResponse;
+import com.TransformerUI.TransformerUI.transport.response.BatchDetectionItem;
+import com.TransformerUI.TransformerUI.transport.response.BatchDetectionResponse;
+import com.TransformerUI.TransformerUI.transport.response.ChangeMapResponse;
+import com.TransformerUI.TransformerUI.transport.response.DetectionCacheStatsResponse;
+import com.TransformerUI.TransformerUI.transport.response.ImageMetadataResponse;
+import com.TransformerUI.TransformerUI.transport.response.ImageMigrationResponse;
 import com.TransformerUI.TransformerUI.transport.response.ImageResponse;
 import com.TransformerUI.TransformerUI.transport.response.ResponseCodeEnum;
 import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Objects;
-import java.util.Optional;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 
 @Slf4j
 @Service
@@ -25,22 +59,56 @@ public class ImageDataServiceImpl implements ImageDataService {
 
     private final ImageDataRepository imageDataRepository;
     private final CustomMapper customMapper;
+    private final DetectionEngine detectionEngine;
+    private final DetectionCache detectionCache;
+    private final TiledDetector tiledDetector;
+    private final BaselineChangeMapper changeMapper;
+    private final ImageContentService imageContentService;
+    private final ImageStoreMigrator imageStoreMigrator;
+    private final ImageRenditions imageRenditions;
+    private final ImageCache imageCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, CompletableFuture<ApiResponse<AnomaliesResponse>>> inFlightDetections = new ConcurrentHashMap<>();
+
+    // Images sent to the detector per batched predict
+    @Value("${detection.batch.size:8}")
+    private int batchSize;
+
+    // Whether detectAnomalies tiles large images when the caller does not say
+    @Value("${detection.tiling.by-default:false}")
+    private boolean tiledByDefault;
+
+    // Skip the detector when this share of the image or less differs from the baseline
+    @Value("${detection.change-gate.enabled:false}")
+    private boolean changeGateEnabled;
+
+    @Value("${detection.change-gate.max-changed-fraction:0.02}")
+    private double changeGateMaxChangedFraction;
 
     @Override
     public ApiResponse<Void> saveImage(ImageRequest imageRequest) throws BaseException {
         try {
             validateImageRequest(imageRequest);
-            Optional<ImageDataEntity> existingOpt = imageDataRepository
-                    .findByTransformerNoAndInspectionNoAndType(
+            Optional<ImageMetadataView> existingOpt = imageDataRepository
+                    .findMetadataByTransformerNoAndInspectionNoAndType(
                             imageRequest.getTransformerNo(),
                             imageRequest.getInspectionNo(),
                             imageRequest.getType()
                     );
 
-            existingOpt.ifPresent(imageDataRepository::delete);
+            // Store the upload first so a rejected one leaves the existing image in place
             ImageDataEntity imageDataEntity = customMapper.toEntity(imageRequest);
+            existingOpt.ifPresent(existing -> imageDataRepository.deleteRowById(existing.getId()));
             imageDataRepository.save(imageDataEntity);
+            imageCache.evict(imageRequest.getTransformerNo());
+            existingOpt.ifPresent(replaced -> imageContentService.release(replaced.getImageRef()));
             return new ApiResponse<>(ResponseCodeEnum.SUCCESS.code(), ResponseCodeEnum.SUCCESS.message(), null);
+        } catch (BaseException ex) {
+            log.error(LoggingAdviceConstants.EXCEPTION_STACK_TRACE, ex.getMessage(), StackTraceTracker.displayStackStraceArray(ex.getStackTrace()));
+            throw ex;
+        } catch (InvalidImageException ex) {
+            log.warn("Upload rejected for {}/{}: {}", imageRequest.getTransformerNo(), imageRequest.getInspectionNo(), ex.getMessage());
+            throw new BaseException(ResponseCodeEnum.BAD_REQUEST.code(), ex.getMessage());
         } catch (Exception ex) {
             log.error(LoggingAdviceConstants.EXCEPTION_STACK_TRACE, ex.getMessage(),
                     StackTraceTracker.displayStackStraceArray(ex.getStackTrace()));
@@ -61,11 +129,14 @@ public class ImageDataServiceImpl implements ImageDataService {
     @Override
     @Transactional(readOnly = true)
     public ApiResponse<ImageResponse> getImage(String transformerNo, String inspectionNo, String type) throws BaseException {
+        return getImage(transformerNo, inspectionNo, type, true, ImageSize.FULL);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ApiResponse<ImageResponse> getImage(String transformerNo, String inspectionNo, String type, boolean includePhoto, ImageSize size) throws BaseException {
         try {
-            Optional<ImageDataEntity> entityOpt =
-                    "Baseline".equals(type)
-                            ? imageDataRepository.findByTransformerNoAndType(transformerNo, type)
-                            : imageDataRepository.findByTransformerNoAndInspectionNoAndType(transformerNo, inspectionNo, type);
+            Optional<ImageDataEntity> entityOpt = findImage(transformerNo, inspectionNo, type);
 
             if (entityOpt.isEmpty()) {
                 throw new BaseException(
@@ -74,7 +145,9 @@ public class ImageDataServiceImpl implements ImageDataService {
             }
 
             ImageDataEntity imageDataEntity = entityOpt.get();
-            ImageResponse response = customMapper.toResponse(imageDataEntity);
+            ImageResponse response = customMapper.toResponse(imageDataEntity, includePhoto, size);
+            // The inspection screen shows the baseline next to every thermal image
+            prefetchBaseline(transformerNo);
             return new ApiResponse<>(ResponseCodeEnum.SUCCESS.code(), ResponseCodeEnum.SUCCESS.message(), response);
         } catch (BaseException ex) {
             log.error(LoggingAdviceConstants.EXCEPTION_STACK_TRACE, ex.getMessage(),
@@ -86,6 +159,59 @@ public class ImageDataServiceImpl implements ImageDataService {
         }
     }
 
+    @Override
+    public ApiResponse<List<ImageMetadataResponse>> getImageMetadata(String transformerNo, String inspectionNo) throws BaseException {
+        try {
+            List<ImageMetadataView> views = inspectionNo == null || inspectionNo.isBlank()
+                    ? imageDataRepository.findMetadataByTransformerNoOrderByIdAsc(transformerNo)
+                    : imageDataRepository.findMetadataByTransformerNoAndInspectionNoOrderByIdAsc(transformerNo, inspectionNo);
+            List<ImageMetadataResponse> response = views.stream().map(customMapper::toMetadataResponse).toList();
+            return new ApiResponse<>(ResponseCodeEnum.SUCCESS.code(), ResponseCodeEnum.SUCCESS.message(), response);
+        } catch (Exception ex) {
+            log.error(LoggingAdviceConstants.EXCEPTION_STACK_TRACE, ex.getMessage(), StackTraceTracker.displayStackStraceArray(ex.getStackTrace()));
+            throw new BaseException(ResponseCodeEnum.IMAGE_NOT_CONNECTED.code(), ResponseCodeEnum.IMAGE_NOT_CONNECTED.message());
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ImageContent getImageContent(String transformerNo, String inspectionNo, String type, ImageSize size) throws BaseException {
+        ImageDataEntity entity = findImage(transformerNo, inspectionNo, type)
+                .filter(imageContentService::hasContent)
+                .orElseThrow(() -> new BaseException(ResponseCodeEnum.NOT_FOUND.code(),
+                        String.format("Image not found for Transformer: %s, Inspection: %s", transformerNo, inspectionNo)));
+        try {
+            return imageRenditions.content(entity, size);
+        } catch (IOException ex) {
+            log.error(LoggingAdviceConstants.EXCEPTION_STACK_TRACE, ex.getMessage(), StackTraceTracker.displayStackStraceArray(ex.getStackTrace()));
+            throw new BaseException(ResponseCodeEnum.IMAGE_NOT_CONNECTED.code(), ResponseCodeEnum.IMAGE_NOT_CONNECTED.message());
+        }
+    }
+
+    // A transformer has one baseline image, shared by all of its inspections
+    private Optional<ImageDataEntity> findImage(String transformerNo, String inspectionNo, String type) {
+        Optional<ImageDataEntity> cached = imageCache.row(transformerNo, inspectionNo, type);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        long stamp = imageCache.stamp();
+        Optional<ImageDataEntity> entity = "Baseline".equals(type)
+                ? imageDataRepository.findByTransformerNoAndType(transformerNo, type)
+                : imageDataRepository.findByTransformerNoAndInspectionNoAndType(transformerNo, inspectionNo, type);
+        entity.ifPresent(e -> imageCache.putRow(transformerNo, inspectionNo, type, e, stamp));
+        return entity;
+    }
+
+    private void prefetchBaseline(String transformerNo) {
+        imageCache.prefetch("Baseline|" + transformerNo, () -> findImage(transformerNo, null, "Baseline").ifPresent(baseline -> {
+            try {
+                imageContentService.loadCached(baseline);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }));
+    }
+
     @Override
     public ApiResponse<Void> updateImage(String transformerNo, String inspectionNo, ImageRequest imageRequest) throws BaseException {
         try {
@@ -94,12 +220,21 @@ public class ImageDataServiceImpl implements ImageDataService {
                 throw new BaseException("Image not found for Transformer: " + transformerNo + ", Inspection: " + inspectionNo);
             }
             ImageDataEntity entity = entityOpt.get();
+            String previousRef = entity.getImageRef();
             customMapper.updateEntity(entity, imageRequest);
             imageDataRepository.save(entity);
+            imageCache.evict(transformerNo);
+            imageCache.evict(entity.getTransformerNo());
+            if (previousRef != null && !previousRef.equals(entity.getImageRef())) {
+                imageContentService.release(previousRef);
+            }
             return new ApiResponse<>(ResponseCodeEnum.SUCCESS.code(), ResponseCodeEnum.SUCCESS.message(), null);
         } catch (BaseException ex) {
             log.error(LoggingAdviceConstants.EXCEPTION_STACK_TRACE, ex.getMessage(), StackTraceTracker.displayStackStraceArray(ex.getStackTrace()));
             throw ex;
+        } catch (InvalidImageException ex) {
+            log.warn("Upload rejected for {}/{}: {}", transformerNo, inspectionNo, ex.getMessage());
+            throw new BaseException(ResponseCodeEnum.BAD_REQUEST.code(), ex.getMessage());
         } catch (Exception ex) {
             log.error(LoggingAdviceConstants.EXCEPTION_STACK_TRACE, ex.getMessage(), StackTraceTracker.displayStackStraceArray(ex.getStackTrace()));
             throw new BaseException(ResponseCodeEnum.IMAGE_NOT_UPDATED.code(), ResponseCodeEnum.IMAGE_NOT_UPDATED.message());
@@ -112,7 +247,10 @@ public class ImageDataServiceImpl implements ImageDataService {
             if (!imageDataRepository.existsByTransformerNoAndInspectionNo(transformerNo, inspectionNo)) {
                 throw new BaseException("Image not found for Transformer: " + transformerNo + ", Inspection: " + inspectionNo);
             }
+            List<String> refs = imageDataRepository.findImageRefsByTransformerNoAndInspectionNo(transformerNo, inspectionNo);
             imageDataRepository.deleteByTransformerNoAndInspectionNo(transformerNo, inspectionNo);
+            imageCache.evict(transformerNo);
+            refs.forEach(imageContentService::release);
             return new ApiResponse<>(ResponseCodeEnum.SUCCESS.code(), ResponseCodeEnum.SUCCESS.message(), null);
         } catch (BaseException ex) {
             log.error(LoggingAdviceConstants.EXCEPTION_STACK_TRACE, ex.getMessage(), StackTraceTracker.displayStackStraceArray(ex.getStackTrace()));
@@ -124,22 +262,98 @@ public class ImageDataServiceImpl implements ImageDataService {
     }
 
     @Override
-    public ApiResponse<com.TransformerUI.TransformerUI.transport.response.AnomaliesResponse> detectAnomalies(String transformerNo, String inspectionNo) throws BaseException {
+    public ApiResponse<AnomaliesResponse> detectAnomalies(String transformerNo, String inspectionNo) throws BaseException {
+        return detectAnomalies(transformerNo, inspectionNo, tiledByDefault);
+    }
+
+    @Override
+    public ApiResponse<AnomaliesResponse> detectAnomalies(String transformerNo, String inspectionNo, boolean tiled) throws BaseException {
+        // Concurrent callers for the same image and mode share one in-flight detection; each gets
+        // its own copy of the result, as the response objects are mutable
+        String key = transformerNo + "|" + inspectionNo + (tiled ? "|tiled" : "");
+        CompletableFuture<ApiResponse<AnomaliesResponse>> mine = new CompletableFuture<>();
+        CompletableFuture<ApiResponse<AnomaliesResponse>> inFlight = inFlightDetections.putIfAbsent(key, mine);
+        if (inFlight != null) {
+            return awaitInFlightDetection(inFlight);
+        }
+        try {
+            ApiResponse<AnomaliesResponse> response = runDetectAnomalies(transformerNo, inspectionNo, tiled);
+            mine.complete(response);
+            return copyOf(response);
+        } catch (BaseException | RuntimeException ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlightDetections.remove(key, mine);
+        }
+    }
+
+    private ApiResponse<AnomaliesResponse> awaitInFlightDetection(CompletableFuture<ApiResponse<AnomaliesResponse>> inFlight) throws BaseException {
+        try {
+            return copyOf(inFlight.get());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BaseException(ResponseCodeEnum.IMAGE_NOT_DETECTED.code(), ResponseCodeEnum.IMAGE_NOT_DETECTED.message());
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof BaseException baseException) {
+                throw new BaseException(baseException.getResponseCode(), baseException.getMessage());
+            }
+            throw new BaseException(ResponseCodeEnum.IMAGE_NOT_DETECTED.code(), ResponseCodeEnum.IMAGE_NOT_DETECTED.message());
+        }
+    }
+
+    private static ApiResponse<AnomaliesResponse> copyOf(ApiResponse<AnomaliesResponse> response) {
+        AnomaliesResponse data = response.getResponseData();
+        AnomaliesResponse dataCopy = null;
+        if (data != null) {
+            List<Anomaly> anomalies = null;
+            if (data.getAnomalies() != null) {
+                anomalies = new ArrayList<>(data.getAnomalies().size());
+                for (Anomaly a : data.getAnomalies()) {
+                    anomalies.add(new Anomaly(a.getErrorType(), a.getConfidence(),
+                            a.getBox() == null ? null : new ArrayList<>(a.getBox()), a.getManual(), a.getUser()));
+                }
+            }
+            dataCopy = new AnomaliesResponse(anomalies);
+        }
+        return new ApiResponse<>(response.getResponseCode(), response.getResponseDescription(), dataCopy, response.getPageDetail());
+    }
+
+    private ApiResponse<AnomaliesResponse> runDetectAnomalies(String transformerNo, String inspectionNo, boolean tiled) throws BaseException {
         try {
             Optional<ImageDataEntity> entityOpt = imageDataRepository.findByTransformerNoAndInspectionNoAndType(transformerNo, inspectionNo, "Thermal");
             if (entityOpt.isEmpty()) {
                 throw new BaseException(ResponseCodeEnum.NOT_FOUND.code(), "Thermal image not found for Transformer: " + transformerNo + ", Inspection: " + inspectionNo);
             }
             ImageDataEntity entity = entityOpt.get();
-            byte[] imageBytes = entity.getImage();
+            byte[] imageBytes = imageContentService.hasContent(entity) ? imageContentService.load(entity) : null;
             if (imageBytes == null || imageBytes.length == 0) {
                 throw new BaseException("Stored image bytes are empty for Transformer: " + transformerNo + ", Inspection: " + inspectionNo);
             }
 
-            // Run Python YOLO (this can throw) — wrap to convert into BaseException
+            // Routine re-inspections that still look like the baseline do not need the detector
+            OptionalDouble changed = changeGateEnabled ? changedFromBaseline(transformerNo, inspectionNo, imageBytes) : OptionalDouble.empty();
+            if (changed.isPresent() && changed.getAsDouble() <= changeGateMaxChangedFraction) {
+                AnomaliesResponse unchanged = new AnomaliesResponse(new ArrayList<>());
+                imageDataRepository.updateDetectionJson(entity.getId(), toDetectionJson(new ObjectMapper(), unchanged));
+                imageCache.evict(transformerNo);
+                return new ApiResponse<>(ResponseCodeEnum.SUCCESS.code(), String.format(
+                        "Detection skipped: %.1f%% of the image differs from the baseline", changed.getAsDouble() * 100), unchanged);
+            }
+
+            // Run the detection engine (this can throw) — wrap to convert into BaseException
             com.TransformerUI.TransformerUI.transport.response.AnomaliesResponse anomaliesResponse;
             try {
-                anomaliesResponse = PythonYOLO.runYOLO(imageBytes);
+                anomaliesResponse = runDetection(imageBytes, tiled);
+            } catch (DetectionBusyException ex) {
+                // Shed load quickly; keep whatever detection result is already stored
+                log.warn("Detection shed for {}/{}: {}", transformerNo, inspectionNo, ex.getMessage());
+                return new ApiResponse<>(ResponseCodeEnum.DETECTION_BUSY.code(), ResponseCodeEnum.DETECTION_BUSY.message());
+            } catch (DetectorUnavailableException ex) {
+                // Circuit is open: answer at once without touching the stored detection result
+                log.warn("Detection skipped for {}/{}: {}", transformerNo, inspectionNo, ex.getMessage());
+                return new ApiResponse<>(ResponseCodeEnum.PARTIAL_SUCCESS.code(),
+                        "Detector temporarily unavailable; no anomalies were detected", new AnomaliesResponse(Collections.emptyList()));
             } catch (RuntimeException ex) {
                 // If the runner preserved a temp image, it encodes the path in the message
                 String msg = ex.getMessage() == null ? "" : ex.getMessage();
@@ -149,8 +363,8 @@ public class ImageDataServiceImpl implements ImageDataService {
                 try {
                     com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
                     String detectionJson = mapper.writeValueAsString(anomaliesResponse.getAnomalies());
-                    entity.setDetectionJson(detectionJson);
-                    imageDataRepository.save(entity);
+                    imageDataRepository.updateDetectionJson(entity.getId(), detectionJson);
+                    imageCache.evict(transformerNo);
                 } catch (Exception ex2) {
                     log.error(LoggingAdviceConstants.EXCEPTION_STACK_TRACE, ex2.getMessage(), StackTraceTracker.displayStackStraceArray(ex2.getStackTrace()));
                 }
@@ -170,8 +384,8 @@ public class ImageDataServiceImpl implements ImageDataService {
             try {
                 com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
                 String detectionJson = mapper.writeValueAsString(anomaliesResponse.getAnomalies());
-                entity.setDetectionJson(detectionJson);
-                imageDataRepository.save(entity);
+                imageDataRepository.updateDetectionJson(entity.getId(), detectionJson);
+                imageCache.evict(transformerNo);
             } catch (Exception ex) {
                 log.error(LoggingAdviceConstants.EXCEPTION_STACK_TRACE, ex.getMessage(), StackTraceTracker.displayStackStraceArray(ex.getStackTrace()));
                 // do not fail detection return — just log
@@ -191,4 +405,223 @@ public class ImageDataServiceImpl implements ImageDataService {
             throw new BaseException(ResponseCodeEnum.IMAGE_NOT_DETECTED.code(), ResponseCodeEnum.IMAGE_NOT_DETECTED.message());
         }
     }
+
+    @Override
+    public ApiResponse<BatchDetectionResponse> detectAnomaliesBatch(BatchDetectionRequest batchDetectionRequest) throws BaseException {
+        long start = System.currentTimeMillis();
+        try {
+            List<BatchDetectionItem> items = new ArrayList<>();
+            List<ImageDataEntity> targets = resolveBatchTargets(batchDetectionRequest, items);
+
+            ObjectMapper mapper = new ObjectMapper();
+            List<ImageDataEntity> detected = new ArrayList<>();
+            // Images with a cached result for the current model skip the detector
+            List<ImageDataEntity> uncached = new ArrayList<>();
+            Map<Long, String> imageHashes = new HashMap<>();
+            for (ImageDataEntity entity : targets) {
+                String imageHash = detectionKey(imageContentService.hash(entity), false);
+                Optional<AnomaliesResponse> cached = detectionCache.get(imageHash);
+                if (cached.isPresent()) {
+                    entity.setDetectionJson(toDetectionJson(mapper, cached.get()));
+                    detected.add(entity);
+                    items.add(new BatchDetectionItem(entity.getTransformerNo(), entity.getInspectionNo(),
+                            ResponseCodeEnum.SUCCESS.code(), ResponseCodeEnum.SUCCESS.message(), cached.get()));
+                } else {
+                    imageHashes.put(entity.getId(), imageHash);
+                    uncached.add(entity);
+                }
+            }
+
+            // Set when the detector sheds load or its circuit is open; the rest of the batch is not sent
+            RuntimeException stoppedBy = null;
+            for (int from = 0; from < uncached.size(); from += batchSize) {
+                List<ImageDataEntity> group = uncached.subList(from, Math.min(from + batchSize, uncached.size()));
+                List<DetectionEngine.BatchItemResult> outcomes;
+                try {
+                    List<byte[]> images = new ArrayList<>(group.size());
+                    for (ImageDataEntity entity : group) {
+                        images.add(imageContentService.load(entity));
+                    }
+                    outcomes = detectionEngine.detectBatch(images);
+                } catch (DetectionBusyException | DetectorUnavailableException ex) {
+                    log.warn("Batch detection stopped with {} of {} images left: {}", uncached.size() - from, uncached.size(), ex.getMessage());
+                    uncached.subList(from, uncached.size()).forEach(entity -> items.add(failedItem(entity.getTransformerNo(),
+                            entity.getInspectionNo(), "Not detected: " + ex.getMessage())));
+                    stoppedBy = ex;
+                    break;
+                } catch (IOException | RuntimeException ex) {
+                    log.error(LoggingAdviceConstants.EXCEPTION_STACK_TRACE, System.currentTimeMillis() - start,
+                            ex.getMessage(), StackTraceTracker.displayStackStraceArray(ex.getStackTrace()));
+                    group.forEach(entity -> items.add(failedItem(entity.getTransformerNo(), entity.getInspectionNo(),
+                            "Detection failed: " + ex.getMessage())));
+                    continue;
+                }
+                for (int i = 0; i < group.size(); i++) {
+                    ImageDataEntity entity = group.get(i);
+                    DetectionEngine.BatchItemResult outcome = outcomes.get(i);
+                    if (outcome.error() != null) {
+                        items.add(failedItem(entity.getTransformerNo(), entity.getInspectionNo(), "Detection failed: " + outcome.error()));
+                        continue;
+                    }
+                    detectionCache.put(imageHashes.get(entity.getId()), outcome.anomalies());
+                    entity.setDetectionJson(toDetectionJson(mapper, outcome.anomalies()));
+                    detected.add(entity);
+                    items.add(new BatchDetectionItem(entity.getTransformerNo(), entity.getInspectionNo(),
+                            ResponseCodeEnum.SUCCESS.code(), ResponseCodeEnum.SUCCESS.message(), outcome.anomalies()));
+                }
+            }
+
+            // Only detectionJson is written, saving the entities would rewrite every column of each row.
+            // The updates share one transaction so a failure leaves none of the batch written.
+            transactionTemplate.executeWithoutResult(status -> {
+                for (ImageDataEntity entity : detected) {
+                    imageDataRepository.updateDetectionJson(entity.getId(), entity.getDetectionJson());
+                }
+            });
+            detected.stream().map(ImageDataEntity::getTransformerNo).distinct().forEach(imageCache::evict);
+
+            int succeeded = detected.size();
+            BatchDetectionResponse response = new BatchDetectionResponse(items.size(), succeeded, items.size() - succeeded, items);
+            if (stoppedBy != null) {
+                // Results so far are kept; the caller retries the rest after Retry-After
+                return new ApiResponse<>(ResponseCodeEnum.DETECTION_BUSY.code(), ResponseCodeEnum.DETECTION_BUSY.message(), response);
+            }
+            if (succeeded == items.size()) {
+                return new ApiResponse<>(ResponseCodeEnum.SUCCESS.code(), ResponseCodeEnum.SUCCESS.message(), response);
+            }
+            if (succeeded > 0) {
+                return new ApiResponse<>(ResponseCodeEnum.PARTIAL_SUCCESS.code(), ResponseCodeEnum.PARTIAL_SUCCESS.message(), response);
+            }
+            return new ApiResponse<>(ResponseCodeEnum.IMAGE_NOT_DETECTED.code(), ResponseCodeEnum.IMAGE_NOT_DETECTED.message(), response);
+        } catch (BaseException ex) {
+            log.error(LoggingAdviceConstants.EXCEPTION_STACK_TRACE, System.currentTimeMillis() - start, ex.getMessage(), StackTraceTracker.displayStackStraceArray(ex.getStackTrace()));
+            throw ex;
+        } catch (Exception ex) {
+            log.error(LoggingAdviceConstants.EXCEPTION_STACK_TRACE, System.currentTimeMillis() - start, ex.getMessage(), StackTraceTracker.displayStackStraceArray(ex.getStackTrace()));
+            throw new BaseException(ResponseCodeEnum.IMAGE_NOT_DETECTED.code(), ResponseCodeEnum.IMAGE_NOT_DETECTED.message());
+        }
+    }
+
+    @Override
+    public ApiResponse<DetectionCacheStatsResponse> getDetectionCacheStats() {
+        return new ApiResponse<>(ResponseCodeEnum.SUCCESS.code(), ResponseCodeEnum.SUCCESS.message(), detectionCache.stats());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ApiResponse<ChangeMapResponse> getChangeMap(String transformerNo, String inspectionNo) throws BaseException {
+        try {
+            ImageDataEntity thermal = imageDataRepository.findByTransformerNoAndInspectionNoAndType(transformerNo, inspectionNo, "Thermal")
+                    .orElseThrow(() -> new BaseException(ResponseCodeEnum.NOT_FOUND.code(), "Thermal image not found for Transformer: " + transformerNo + ", Inspection: " + inspectionNo));
+            ImageDataEntity baseline = imageDataRepository.findByTransformerNoAndType(transformerNo, "Baseline")
+                    .orElseThrow(() -> new BaseException(ResponseCodeEnum.NOT_FOUND.code(), "Baseline image not found for Transformer: " + transformerNo));
+            BaselineChangeMapper.ChangeMap map = changeMapper.compute(baseline.getImageHash(),
+                    imageContentService.loadCached(baseline), imageContentService.load(thermal));
+            ChangeMapResponse response = new ChangeMapResponse(transformerNo, inspectionNo, map.width(), map.height(),
+                    map.offsetX(), map.offsetY(), map.meanDifference(), map.changedFraction(),
+                    Base64.getEncoder().encodeToString(map.heatmap()));
+            return new ApiResponse<>(ResponseCodeEnum.SUCCESS.code(), ResponseCodeEnum.SUCCESS.message(), response);
+        } catch (BaseException ex) {
+            log.error(LoggingAdviceConstants.EXCEPTION_STACK_TRACE, ex.getMessage(), StackTraceTracker.displayStackStraceArray(ex.getStackTrace()));
+            throw ex;
+        } catch (Exception ex) {
+            log.error(LoggingAdviceConstants.EXCEPTION_STACK_TRACE, ex.getMessage(), StackTraceTracker.displayStackStraceArray(ex.getStackTrace()));
+            throw new BaseException(ResponseCodeEnum.OPERATION_FAILED.code(), "Could not compute change map: " + ex.getMessage());
+        }
+    }
+
+    @Override
+    public ApiResponse<ImageMigrationResponse> migrateImagesToStore() throws BaseException {
+        ImageStoreMigrator.Result result = imageStoreMigrator.migrate();
+        if (result == null) {
+            throw new BaseException(ResponseCodeEnum.OPERATION_FAILED.code(), "An image store migration is already running");
+        }
+        ResponseCodeEnum code = result.failedIds().isEmpty() ? ResponseCodeEnum.SUCCESS : ResponseCodeEnum.PARTIAL_SUCCESS;
+        return new ApiResponse<>(code.code(), code.message(),
+                new ImageMigrationResponse(result.migrated(), result.failedIds()));
+    }
+
+    /**
+     * Share of the thermal image that differs from the baseline, or empty when there is no
+     * usable baseline; the gate then lets detection run as usual.
+     */
+    private OptionalDouble changedFromBaseline(String transformerNo, String inspectionNo, byte[] thermalBytes) {
+        try {
+            Optional<ImageDataEntity> baseline = imageDataRepository.findByTransformerNoAndType(transformerNo, "Baseline");
+            if (baseline.isEmpty()) {
+                return OptionalDouble.empty();
+            }
+            return OptionalDouble.of(changeMapper.compute(baseline.get().getImageHash(),
+                    imageContentService.loadCached(baseline.get()), thermalBytes).changedFraction());
+        } catch (Exception ex) {
+            log.warn("Change gate skipped for {}/{}: {}", transformerNo, inspectionNo, ex.getMessage());
+            return OptionalDouble.empty();
+        }
+    }
+
+    private List<ImageDataEntity> resolveBatchTargets(BatchDetectionRequest request, List<BatchDetectionItem> items) throws BaseException {
+        boolean hasTransformer = request.getTransformerNo() != null && !request.getTransformerNo().isBlank();
+        boolean hasTargets = request.getTargets() != null && !request.getTargets().isEmpty();
+        if (!hasTransformer && !hasTargets) {
+            throw new BaseException(ResponseCodeEnum.BAD_REQUEST.code(), "Either transformerNo or targets is required for batch detection");
+        }
+
+        // Keyed by id so a pair that is also covered by transformerNo is detected once
+        Map<Long, ImageDataEntity> targets = new LinkedHashMap<>();
+        if (hasTransformer) {
+            imageDataRepository.findAllByTransformerNoAndType(request.getTransformerNo(), "Thermal")
+                    .forEach(entity -> targets.put(entity.getId(), entity));
+        }
+        if (hasTargets) {
+            for (DetectionTarget target : request.getTargets()) {
+                Optional<ImageDataEntity> entityOpt = imageDataRepository.findByTransformerNoAndInspectionNoAndType(
+                        target.getTransformerNo(), target.getInspectionNo(), "Thermal");
+                if (entityOpt.isEmpty()) {
+                    items.add(failedItem(target.getTransformerNo(), target.getInspectionNo(), "Thermal image not found"));
+                } else {
+                    targets.putIfAbsent(entityOpt.get().getId(), entityOpt.get());
+                }
+            }
+        }
+
+        List<ImageDataEntity> withPixels = new ArrayList<>();
+        for (ImageDataEntity entity : targets.values()) {
+            if (!imageContentService.hasContent(entity)) {
+                items.add(failedItem(entity.getTransformerNo(), entity.getInspectionNo(), "Stored image bytes are empty"));
+            } else {
+                withPixels.add(entity);
+            }
+        }
+        return withPixels;
+    }
+
+    /**
+     * Runs the detector unless a result for the same image bytes, model version and detection
+     * settings is cached. Tiled results are cached under their own key since they can differ
+     * from a single pass.
+     */
+    private AnomaliesResponse runDetection(byte[] imageBytes, boolean tiled) throws IOException, InterruptedException {
+        String imageHash = detectionKey(HashUtil.sha256Hex(imageBytes), tiled);
+        Optional<AnomaliesResponse> cached = detectionCache.get(imageHash);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        AnomaliesResponse anomaliesResponse = tiled ? tiledDetector.detect(imageBytes) : detectionEngine.detect(imageBytes);
+        detectionCache.put(imageHash, anomaliesResponse);
+        return anomaliesResponse;
+    }
+
+    // The cache keeps the model version itself; the key adds the settings that change results
+    private String detectionKey(String imageHash, boolean tiled) {
+        String fingerprint = tiled ? tiledDetector.configFingerprint() : detectionEngine.configFingerprint();
+        return HashUtil.sha256Hex((imageHash + ":" + fingerprint).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private BatchDetectionItem failedItem(String transformerNo, String inspectionNo, String description) {
+        return new BatchDetectionItem(transformerNo, inspectionNo, ResponseCodeEnum.IMAGE_NOT_DETECTED.code(), description, null);
+    }
+
+    private String toDetectionJson(ObjectMapper mapper, AnomaliesResponse anomaliesResponse) throws JsonProcessingException {
+        return mapper.writeValueAsString(anomaliesResponse.getAnomalies());
+    }
 }
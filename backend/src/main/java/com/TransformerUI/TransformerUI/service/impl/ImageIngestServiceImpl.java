@@ -0,0 +1,364 @@
+package com.TransformerUI.TransformerUI.service.impl;
+
+import com.TransformerUI.TransformerUI.constant.LoggingAdviceConstants;
+import com.TransformerUI.TransformerUI.entity.ImageDataEntity;
+import com.TransformerUI.TransformerUI.repository.ImageDataRepository;
+import com.TransformerUI.TransformerUI.repository.ImageMetadataView;
+import com.TransformerUI.TransformerUI.service.ImageDataService;
+import com.TransformerUI.TransformerUI.service.ImageIngestService;
+import com.TransformerUI.TransformerUI.service.storage.ImageCache;
+import com.TransformerUI.TransformerUI.service.storage.ImageContentService;
+import com.TransformerUI.TransformerUI.service.storage.ImageStore;
+import com.TransformerUI.TransformerUI.service.storage.InvalidImageException;
+import com.TransformerUI.TransformerUI.service.util.StackTraceTracker;
+import com.TransformerUI.TransformerUI.service.util.exception.type.BaseException;
+import com.TransformerUI.TransformerUI.transport.request.BatchDetectionRequest;
+import com.TransformerUI.TransformerUI.transport.request.BulkManifestEntry;
+import com.TransformerUI.TransformerUI.transport.request.DetectionTarget;
+import com.TransformerUI.TransformerUI.transport.response.ApiResponse;
+import com.TransformerUI.TransformerUI.transport.response.BulkIngestItem;
+import com.TransformerUI.TransformerUI.transport.response.BulkIngestResponse;
+import com.TransformerUI.TransformerUI.transport.response.ResponseCodeEnum;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.ArchiveException;
+import org.apache.commons.compress.archivers.ArchiveInputStream;
+import org.apache.commons.compress.archivers.ArchiveStreamFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Ingests a patrol's worth of images from one ZIP or tar (optionally gzipped) archive. The
+ * archive is read as a stream: each image entry goes straight into the image store, so only
+ * its content hash is kept in memory, and the rows are written by a small worker pool while
+ * the next entry is read. The manifest ({@code manifest.json} or {@code manifest.csv}, anywhere
+ * in the archive) maps file names to transformer, inspection and type; images read before it
+ * are matched once it arrives. Thermal images are then detected by one background batch.
+ */
+@Slf4j
+@Service
+public class ImageIngestServiceImpl implements ImageIngestService {
+
+    private static final int MAX_MANIFEST_BYTES = 1024 * 1024;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final ImageDataRepository imageDataRepository;
+    private final ImageContentService imageContentService;
+    private final ImageDataService imageDataService;
+    private final ImageCache imageCache;
+
+    // 0 uses one thread per core
+    @Value("${storage.ingest.threads:0}")
+    private int threads;
+
+    @Value("${storage.ingest.queue-capacity:64}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+    private ExecutorService detectionExecutor;
+
+    public ImageIngestServiceImpl(ImageDataRepository imageDataRepository, ImageContentService imageContentService,
+                                  ImageDataService imageDataService, ImageCache imageCache) {
+        this.imageDataRepository = imageDataRepository;
+        this.imageContentService = imageContentService;
+        this.imageDataService = imageDataService;
+        this.imageCache = imageCache;
+    }
+
+    @PostConstruct
+    public void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNo = new AtomicInteger();
+        // A full queue makes the reading thread write the row itself, which throttles extraction
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> new Thread(r, "image-ingest-" + threadNo.incrementAndGet()),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        detectionExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, "image-ingest-detection"));
+    }
+
+    private record StoredFile(String name, ImageStore.StoredBlob blob) {
+    }
+
+    @Override
+    public ApiResponse<BulkIngestResponse> ingestArchive(InputStream archive) throws BaseException {
+        long start = System.currentTimeMillis();
+        List<BulkIngestItem> items = Collections.synchronizedList(new ArrayList<>());
+        List<StoredFile> stored = new ArrayList<>();
+        List<BulkManifestEntry> manifest = null;
+        // Manifest entry -> the archive file that was written for it
+        Map<BulkManifestEntry, StoredFile> assigned = new IdentityHashMap<>();
+        List<Future<BulkIngestItem>> rows = new ArrayList<>();
+        try (ArchiveInputStream<? extends ArchiveEntry> in = open(archive)) {
+            ArchiveEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                String name = entry.getName();
+                if (!in.canReadEntryData(entry)) {
+                    items.add(fileItem(name, BulkIngestItem.REJECTED, ResponseCodeEnum.BAD_REQUEST.code(),
+                            "Archive entry cannot be read (encrypted or unsupported compression)"));
+                    continue;
+                }
+                if (isManifest(name)) {
+                    if (manifest != null) {
+                        throw new BaseException(ResponseCodeEnum.BAD_REQUEST.code(), "Archive contains more than one manifest");
+                    }
+                    manifest = parseManifest(name, in);
+                    // Images read before the manifest can be written now
+                    for (StoredFile file : stored) {
+                        submitRows(manifest, assigned, file, rows);
+                    }
+                    continue;
+                }
+                try {
+                    StoredFile file = new StoredFile(name, imageContentService.put(in, entry.getSize()));
+                    stored.add(file);
+                    if (manifest != null) {
+                        submitRows(manifest, assigned, file, rows);
+                    }
+                } catch (InvalidImageException ex) {
+                    items.add(fileItem(name, BulkIngestItem.REJECTED, ResponseCodeEnum.BAD_REQUEST.code(), ex.getMessage()));
+                }
+            }
+            if (manifest == null) {
+                throw new BaseException(ResponseCodeEnum.BAD_REQUEST.code(), "Archive has no manifest.json or manifest.csv");
+            }
+
+            List<DetectionTarget> thermal = new ArrayList<>();
+            for (Future<BulkIngestItem> row : rows) {
+                BulkIngestItem item = row.get();
+                items.add(item);
+                if (BulkIngestItem.STORED.equals(item.getStatus()) && "Thermal".equals(item.getType())) {
+                    thermal.add(new DetectionTarget(item.getTransformerNo(), item.getInspectionNo()));
+                }
+            }
+            for (BulkManifestEntry entryInManifest : manifest) {
+                if (!assigned.containsKey(entryInManifest)) {
+                    items.add(item(entryInManifest, BulkIngestItem.MISSING, ResponseCodeEnum.NOT_FOUND.code(), "File not found in archive"));
+                }
+            }
+            items.addAll(unusedFiles(manifest, assigned, stored));
+            queueDetection(thermal);
+
+            int succeeded = count(items, BulkIngestItem.STORED);
+            int skipped = count(items, BulkIngestItem.SKIPPED);
+            int failed = items.size() - succeeded - skipped;
+            BulkIngestResponse response = new BulkIngestResponse(items.size(), succeeded, skipped, failed, thermal.size(), items);
+            log.info("Ingested {} of {} archive files ({} skipped) in {} ms", succeeded, items.size(), skipped, System.currentTimeMillis() - start);
+            if (succeeded > 0 && failed == 0) {
+                return new ApiResponse<>(ResponseCodeEnum.SUCCESS.code(), ResponseCodeEnum.SUCCESS.message(), response);
+            }
+            if (succeeded > 0) {
+                return new ApiResponse<>(ResponseCodeEnum.PARTIAL_SUCCESS.code(), ResponseCodeEnum.PARTIAL_SUCCESS.message(), response);
+            }
+            return new ApiResponse<>(ResponseCodeEnum.IMAGE_NOT_CREATED.code(), ResponseCodeEnum.IMAGE_NOT_CREATED.message(), response);
+        } catch (BaseException ex) {
+            log.error(LoggingAdviceConstants.EXCEPTION_STACK_TRACE, ex.getMessage(), StackTraceTracker.displayStackStraceArray(ex.getStackTrace()));
+            throw ex;
+        } catch (Exception ex) {
+            log.error(LoggingAdviceConstants.EXCEPTION_STACK_TRACE, ex.getMessage(), StackTraceTracker.displayStackStraceArray(ex.getStackTrace()));
+            throw new BaseException(ResponseCodeEnum.IMAGE_NOT_CREATED.code(), "Archive ingestion failed: " + ex.getMessage());
+        } finally {
+            awaitQuietly(rows);
+            // Blobs no row ended up using (unlisted files, failed rows, aborted ingestion)
+            stored.stream().map(file -> file.blob().ref()).distinct().forEach(imageContentService::release);
+        }
+    }
+
+    private ArchiveInputStream<? extends ArchiveEntry> open(InputStream archive) throws IOException, BaseException {
+        InputStream buffered = new BufferedInputStream(archive);
+        buffered.mark(2);
+        int b1 = buffered.read();
+        int b2 = buffered.read();
+        buffered.reset();
+        if (b1 == 0x1f && b2 == 0x8b) {
+            buffered = new BufferedInputStream(new GZIPInputStream(buffered));
+        }
+        try {
+            return new ArchiveStreamFactory().createArchiveInputStream(buffered);
+        } catch (ArchiveException ex) {
+            throw new BaseException(ResponseCodeEnum.BAD_REQUEST.code(), "Body is not a ZIP or tar archive");
+        }
+    }
+
+    private static boolean isManifest(String name) {
+        String base = baseName(name);
+        return base.equals("manifest.json") || base.equals("manifest.csv");
+    }
+
+    private List<BulkManifestEntry> parseManifest(String name, InputStream in) throws IOException, BaseException {
+        byte[] bytes = in.readNBytes(MAX_MANIFEST_BYTES + 1);
+        if (bytes.length > MAX_MANIFEST_BYTES) {
+            throw new BaseException(ResponseCodeEnum.BAD_REQUEST.code(), "Manifest is larger than " + MAX_MANIFEST_BYTES + " bytes");
+        }
+        List<BulkManifestEntry> entries = name.endsWith(".json")
+                ? MAPPER.readValue(bytes, new TypeReference<List<BulkManifestEntry>>() {})
+                : parseCsv(new String(bytes, StandardCharsets.UTF_8));
+        Set<String> keys = new HashSet<>();
+        for (BulkManifestEntry e : entries) {
+            if (e.getFile() == null || e.getTransformerNo() == null || e.getInspectionNo() == null || e.getType() == null) {
+                throw new BaseException(ResponseCodeEnum.BAD_REQUEST.code(),
+                        "Manifest entries need file, transformerNo, inspectionNo and type: " + e);
+            }
+            if (!keys.add(e.getTransformerNo() + "|" + e.getInspectionNo() + "|" + e.getType())) {
+                throw new BaseException(ResponseCodeEnum.BAD_REQUEST.code(), "Manifest lists "
+                        + e.getType() + " image of " + e.getTransformerNo() + "/" + e.getInspectionNo() + " twice");
+            }
+        }
+        return entries;
+    }
+
+    // Header row naming the columns, then one image per line; values must not contain commas
+    private static List<BulkManifestEntry> parseCsv(String csv) throws BaseException {
+        String[] lines = csv.strip().split("\\r?\\n");
+        List<String> header = Arrays.stream(lines[0].split(",")).map(String::trim).toList();
+        List<BulkManifestEntry> entries = new ArrayList<>();
+        for (int i = 1; i < lines.length; i++) {
+            if (lines[i].isBlank()) {
+                continue;
+            }
+            String[] values = lines[i].split(",", -1);
+            if (values.length != header.size()) {
+                throw new BaseException(ResponseCodeEnum.BAD_REQUEST.code(), "Manifest line " + (i + 1) + " does not match the header");
+            }
+            BulkManifestEntry entry = new BulkManifestEntry();
+            for (int c = 0; c < values.length; c++) {
+                String value = values[c].trim().isEmpty() ? null : values[c].trim();
+                switch (header.get(c)) {
+                    case "file" -> entry.setFile(value);
+                    case "transformerNo" -> entry.setTransformerNo(value);
+                    case "inspectionNo" -> entry.setInspectionNo(value);
+                    case "type" -> entry.setType(value);
+                    case "weather" -> entry.setWeather(value);
+                    default -> throw new BaseException(ResponseCodeEnum.BAD_REQUEST.code(), "Unknown manifest column: " + header.get(c));
+                }
+            }
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    private void submitRows(List<BulkManifestEntry> manifest, Map<BulkManifestEntry, StoredFile> assigned, StoredFile file,
+                            List<Future<BulkIngestItem>> rows) {
+        for (BulkManifestEntry entry : manifest) {
+            if (!assigned.containsKey(entry) && matches(entry.getFile(), file.name())) {
+                assigned.put(entry, file);
+                rows.add(executor.submit(() -> saveRow(entry, file)));
+            }
+        }
+    }
+
+    // Readable images no manifest entry was written from, with the reason
+    private static List<BulkIngestItem> unusedFiles(List<BulkManifestEntry> manifest, Map<BulkManifestEntry, StoredFile> assigned,
+                                                    List<StoredFile> stored) {
+        Set<StoredFile> used = Collections.newSetFromMap(new IdentityHashMap<>());
+        used.addAll(assigned.values());
+        List<BulkIngestItem> unused = new ArrayList<>();
+        for (StoredFile file : stored) {
+            if (used.contains(file)) {
+                continue;
+            }
+            String reason = manifest.stream()
+                    .filter(entry -> matches(entry.getFile(), file.name()))
+                    .findFirst()
+                    .map(entry -> "Manifest entry " + entry.getFile() + " was already matched by " + assigned.get(entry).name())
+                    .orElse("Not listed in the manifest");
+            unused.add(fileItem(file.name(), BulkIngestItem.SKIPPED, null, reason));
+        }
+        return unused;
+    }
+
+    private static int count(List<BulkIngestItem> items, String status) {
+        return (int) items.stream().filter(i -> status.equals(i.getStatus())).count();
+    }
+
+    // "a.jpg" in the manifest matches "a.jpg" and "patrol/a.jpg" in the archive
+    private static boolean matches(String manifestFile, String entryName) {
+        return entryName.equals(manifestFile) || entryName.endsWith("/" + manifestFile);
+    }
+
+    private BulkIngestItem saveRow(BulkManifestEntry entry, StoredFile file) {
+        try {
+            ImageDataEntity entity = ImageDataEntity.builder()
+                    .type(entry.getType())
+                    .transformerNo(entry.getTransformerNo())
+                    .inspectionNo(entry.getInspectionNo())
+                    .weather(entry.getWeather())
+                    .detectionJson("")
+                    .build();
+            ImageContentService.assign(entity, file.blob());
+            // Replaces an existing image of the same kind, like a single upload does
+            Optional<ImageMetadataView> existing = imageDataRepository.findMetadataByTransformerNoAndInspectionNoAndType(
+                    entry.getTransformerNo(), entry.getInspectionNo(), entry.getType());
+            existing.ifPresent(e -> imageDataRepository.deleteRowById(e.getId()));
+            imageDataRepository.save(entity);
+            imageCache.evict(entry.getTransformerNo());
+            existing.ifPresent(e -> imageContentService.release(e.getImageRef()));
+            return item(entry, BulkIngestItem.STORED, ResponseCodeEnum.SUCCESS.code(), ResponseCodeEnum.SUCCESS.message());
+        } catch (RuntimeException ex) {
+            log.warn("Could not store archive image {}: {}", file.name(), ex.getMessage());
+            return item(entry, BulkIngestItem.FAILED, ResponseCodeEnum.IMAGE_NOT_CREATED.code(), ResponseCodeEnum.IMAGE_NOT_CREATED.message());
+        }
+    }
+
+    private void queueDetection(List<DetectionTarget> targets) {
+        if (targets.isEmpty()) {
+            return;
+        }
+        detectionExecutor.execute(() -> {
+            try {
+                imageDataService.detectAnomaliesBatch(new BatchDetectionRequest(null, targets));
+            } catch (BaseException ex) {
+                log.warn("Detection of {} ingested images failed: {}", targets.size(), ex.getMessage());
+            }
+        });
+    }
+
+    private static void awaitQuietly(List<Future<BulkIngestItem>> rows) {
+        for (Future<BulkIngestItem> row : rows) {
+            try {
+                row.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException ex) {
+                // already reported by saveRow
+            }
+        }
+    }
+
+    private static BulkIngestItem item(BulkManifestEntry entry, String status, String code, String description) {
+        return new BulkIngestItem(entry.getFile(), entry.getTransformerNo(), entry.getInspectionNo(), entry.getType(),
+                status, code, description);
+    }
+
+    private static BulkIngestItem fileItem(String file, String status, String code, String description) {
+        return new BulkIngestItem(file, null, null, null, status, code, description);
+    }
+
+    private static String baseName(String name) {
+        int slash = name.lastIndexOf('/');
+        return slash < 0 ? name : name.substring(slash + 1);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        detectionExecutor.shutdownNow();
+    }
+}
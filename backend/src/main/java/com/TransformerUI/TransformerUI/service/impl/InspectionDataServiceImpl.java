@@ -4,18 +4,16 @@ import com.TransformerUI.TransformerUI.constant.LoggingAdviceConstants;
 import com.TransformerUI.TransformerUI.entity.InspectionDataEntity;
 import com.TransformerUI.TransformerUI.repository.InspectionDataRepository;
 import com.TransformerUI.TransformerUI.service.InspectionDataService;
-import com.TransformerUI.TransformerUI.service.util.DataSpecificationUtil;
+import com.TransformerUI.TransformerUI.service.search.SearchIndex;
+import com.TransformerUI.TransformerUI.service.util.FilterPageService;
 import com.TransformerUI.TransformerUI.service.util.StackTraceTracker;
 import com.TransformerUI.TransformerUI.service.util.exception.type.BaseException;
 import com.TransformerUI.TransformerUI.transport.request.FilterRequest;
 import com.TransformerUI.TransformerUI.transport.request.InspectionDataRequest;
 import com.TransformerUI.TransformerUI.transport.response.ApiResponse;
-import com.TransformerUI.TransformerUI.transport.response.PageDetail;
 import com.TransformerUI.TransformerUI.transport.response.ResponseCodeEnum;
 import com.TransformerUI.TransformerUI.transport.response.InspectionDataResponse;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.*;
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -26,10 +24,15 @@ public class InspectionDataServiceImpl implements InspectionDataService {
 
     private final InspectionDataRepository inspectionDataRepository;
     private final CustomMapper customMapper;
+    private final FilterPageService filterPageService;
+    private final SearchIndex searchIndex;
 
-    public InspectionDataServiceImpl(InspectionDataRepository inspectionDataRepository, CustomMapper customMapper) {
+    public InspectionDataServiceImpl(InspectionDataRepository inspectionDataRepository, CustomMapper customMapper,
+                                     FilterPageService filterPageService, SearchIndex searchIndex) {
         this.inspectionDataRepository = inspectionDataRepository;
         this.customMapper = customMapper;
+        this.filterPageService = filterPageService;
+        this.searchIndex = searchIndex;
     }
 
     @Override
@@ -39,7 +42,7 @@ public class InspectionDataServiceImpl implements InspectionDataService {
             InspectionDataEntity inspectionDataEntity = customMapper.toEntity(inspectionDataRequest);
             inspectionDataEntity = inspectionDataRepository.save(inspectionDataEntity);
             inspectionDataEntity.generateInspectionNo();
-            inspectionDataRepository.save(inspectionDataEntity);
+            searchIndex.indexInspection(inspectionDataRepository.save(inspectionDataEntity));
             return new ApiResponse<>(ResponseCodeEnum.SUCCESS.code(), ResponseCodeEnum.SUCCESS.message());
         } catch (Exception ex) {
             log.error(LoggingAdviceConstants.EXCEPTION_STACK_TRACE, ex.getMessage(), StackTraceTracker.displayStackStraceArray(ex.getStackTrace()));
@@ -63,7 +66,7 @@ public class InspectionDataServiceImpl implements InspectionDataService {
                     .orElseThrow(() -> new BaseException(ResponseCodeEnum.BAD_REQUEST.code(), "Inspection Data not found with ID: " + inspectionDataRequest.getId()));
 
             customMapper.updateEntity(existingInspectionEntity, inspectionDataRequest);
-            inspectionDataRepository.save(existingInspectionEntity);
+            searchIndex.indexInspection(inspectionDataRepository.save(existingInspectionEntity));
             return new ApiResponse<>(ResponseCodeEnum.SUCCESS.code(), ResponseCodeEnum.SUCCESS.message());
         } catch (Exception ex) {
             log.error(LoggingAdviceConstants.EXCEPTION_STACK_TRACE, ex.getMessage(), StackTraceTracker.displayStackStraceArray(ex.getStackTrace()));
@@ -90,6 +93,7 @@ public class InspectionDataServiceImpl implements InspectionDataService {
             InspectionDataEntity inspectionDataEntity = inspectionDataRepository.findById(id)
                     .orElseThrow(() -> new BaseException(ResponseCodeEnum.BAD_REQUEST.code(), "Inspection not found with ID: " + id));
             inspectionDataRepository.delete(inspectionDataEntity);
+            searchIndex.removeInspection(id);
             return new ApiResponse<>(ResponseCodeEnum.SUCCESS.code(), ResponseCodeEnum.SUCCESS.message());
         } catch (Exception ex) {
             log.error(LoggingAdviceConstants.EXCEPTION_STACK_TRACE, ex.getMessage(), StackTraceTracker.displayStackStraceArray(ex.getStackTrace()));
@@ -100,14 +104,10 @@ public class InspectionDataServiceImpl implements InspectionDataService {
     @Override
     public ApiResponse<List<InspectionDataResponse>> filterInspectionData(FilterRequest filterRequest) {
         try {
-            int pageId = filterRequest.getOffset() != null ? filterRequest.getOffset() : 0;
-            int limit = filterRequest.getLimit() != null ? filterRequest.getLimit() : 10;
-            Pageable pageable = PageRequest.of(pageId, limit, Sort.by(Sort.Direction.DESC, "id"));
+            FilterPageService.FilterPage<InspectionDataEntity> pageResult =
+                    filterPageService.find(InspectionDataEntity.class, filterRequest);
 
-            Specification<InspectionDataEntity> spec = DataSpecificationUtil.buildSpecification(filterRequest);
-            Page<InspectionDataEntity> pageResult = inspectionDataRepository.findAll(spec, pageable);
-
-            List<InspectionDataResponse> inspectionResponses = pageResult.stream()
+            List<InspectionDataResponse> inspectionResponses = pageResult.content().stream()
                     .map(entity -> {
                         InspectionDataResponse dto = new InspectionDataResponse();
                         dto.setId(entity.getId());
@@ -133,14 +133,14 @@ public class InspectionDataServiceImpl implements InspectionDataService {
                     inspectionResponses
             );
 
-            PageDetail pageDetail = new PageDetail();
-            pageDetail.setTotalRecords(String.valueOf(pageResult.getTotalElements()));
-            pageDetail.setPageNumber(String.valueOf(pageResult.getNumber() + 1));
-            pageDetail.setPageElementCount(String.valueOf(pageResult.getNumberOfElements()));
-            response.setPageDetail(pageDetail);
+            response.setPageDetail(pageResult.pageDetail());
 
             return response;
 
+        } catch (BaseException ex) {
+            log.error(LoggingAdviceConstants.EXCEPTION_STACK_TRACE, ex.getMessage(),
+                    StackTraceTracker.displayStackStraceArray(ex.getStackTrace()));
+            return new ApiResponse<>(ex.getResponseCode(), ex.getMessage(), null);
         } catch (Exception e) {
             log.error("Error occurred while filtering Inspection Data", e);
             return new ApiResponse<>(
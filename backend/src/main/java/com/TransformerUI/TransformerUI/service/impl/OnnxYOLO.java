@@ -0,0 +1,321 @@
+package com.TransformerUI.TransformerUI.service.impl;
+
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+import com.TransformerUI.TransformerUI.service.detection.DetectionAdmissionController;
+import com.TransformerUI.TransformerUI.service.detection.DetectionEngine;
+import com.TransformerUI.TransformerUI.service.detection.DetectionModelVersion;
+import com.TransformerUI.TransformerUI.service.detection.FailedDetectionImages;
+import com.TransformerUI.TransformerUI.service.detection.ImagePreprocessor;
+import com.TransformerUI.TransformerUI.service.detection.ImagePreprocessor.Letterbox;
+import com.TransformerUI.TransformerUI.transport.response.AnomaliesResponse;
+import com.TransformerUI.TransformerUI.transport.response.Anomaly;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs a YOLOv8 model exported with {@code python/export_onnx.py} inside the JVM on CPU, so no
+ * python runtime is needed. Pre- and post-processing follow ultralytics' predict: letterbox to
+ * {@code image-size} with grey padding, confidence filter, per-class NMS, and boxes normalized
+ * to the original image size.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "detection.engine", havingValue = "onnx")
+@RequiredArgsConstructor
+public class OnnxYOLO implements DetectionEngine {
+
+    private static final Pattern CLASS_NAME = Pattern.compile("(\\d+)\\s*:\\s*['\"]([^'\"]*)['\"]");
+
+    private final DetectionModelVersion modelVersion;
+    // Bounds how many inferences share the CPU at once
+    private final DetectionAdmissionController admissionController;
+
+    @Value("${detection.onnx.image-size:640}")
+    private int imageSize;
+
+    @Value("${detection.onnx.conf-threshold:0.25}")
+    private float confThreshold;
+
+    @Value("${detection.onnx.iou-threshold:0.7}")
+    private float iouThreshold;
+
+    @Value("${detection.onnx.max-detections:300}")
+    private int maxDetections;
+
+    // 0 lets onnxruntime pick one thread per core
+    @Value("${detection.onnx.intra-op-threads:0}")
+    private int intraOpThreads;
+
+    private LoadedModel model;
+
+    /**
+     * A loaded session and the inferences running on it. A replaced model is retired and its
+     * session is closed once the last of those finishes; closing it under a running inference
+     * would free native memory still in use.
+     */
+    private static final class LoadedModel {
+        private final String version;
+        private final OrtSession session;
+        private final String inputName;
+        private final Map<Integer, String> names;
+        private int users;
+        private boolean retired;
+
+        LoadedModel(String version, OrtSession session, String inputName, Map<Integer, String> names) {
+            this.version = version;
+            this.session = session;
+            this.inputName = inputName;
+            this.names = names;
+        }
+
+        synchronized boolean acquire() {
+            if (retired) {
+                return false;
+            }
+            users++;
+            return true;
+        }
+
+        synchronized void release() {
+            if (--users == 0 && retired) {
+                close();
+            }
+        }
+
+        synchronized void retire() {
+            retired = true;
+            if (users == 0) {
+                close();
+            }
+        }
+
+        private void close() {
+            try {
+                session.close();
+            } catch (OrtException ex) {
+                log.warn("Could not close retired ONNX session {}: {}", version, ex.getMessage());
+            }
+        }
+    }
+
+    private record Candidate(int classId, float score, float x1, float y1, float x2, float y2) {
+        float area() {
+            return Math.max(0, x2 - x1) * Math.max(0, y2 - y1);
+        }
+    }
+
+    @Override
+    public AnomaliesResponse detect(byte[] imageBytes) throws IOException, InterruptedException {
+        try {
+            return admissionController.run(() -> infer(imageBytes));
+        } catch (IOException ex) {
+            throw FailedDetectionImages.preserve("ONNX_ERR", "failed_", imageBytes, ex.getMessage());
+        }
+    }
+
+    @Override
+    public String configFingerprint() {
+        return "onnx:" + imageSize + ":" + confThreshold + ":" + iouThreshold + ":" + maxDetections;
+    }
+
+    /**
+     * Runs the images one after another under a single admission slot; the exported model has a
+     * fixed batch size of one.
+     */
+    @Override
+    public List<BatchItemResult> detectBatch(List<byte[]> images) throws IOException, InterruptedException {
+        return admissionController.run(() -> {
+            List<BatchItemResult> outcomes = new ArrayList<>(images.size());
+            for (byte[] image : images) {
+                try {
+                    outcomes.add(new BatchItemResult(infer(image), null));
+                } catch (IOException ex) {
+                    outcomes.add(new BatchItemResult(null, ex.getMessage()));
+                }
+            }
+            return outcomes;
+        });
+    }
+
+    AnomaliesResponse infer(byte[] imageBytes) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(imageBytes));
+        if (image == null) {
+            throw new IOException("Could not decode image bytes");
+        }
+        Letterbox input = ImagePreprocessor.letterboxFor(image.getWidth(), image.getHeight(), imageSize);
+        LoadedModel loaded = acquireModel();
+        float[][] output;
+        try (OnnxTensor tensor = OnnxTensor.createTensor(OrtEnvironment.getEnvironment(),
+                FloatBuffer.wrap(toTensor(ImagePreprocessor.draw(image, input))),
+                new long[]{1, 3, imageSize, imageSize});
+             OrtSession.Result result = loaded.session.run(Map.of(loaded.inputName, tensor))) {
+            // [1][4 + classes][candidates]: cx, cy, w, h followed by one score per class
+            output = ((float[][][]) result.get(0).getValue())[0];
+        } catch (OrtException ex) {
+            throw new IOException("ONNX inference failed: " + ex.getMessage(), ex);
+        } finally {
+            loaded.release();
+        }
+        return decode(output, input, loaded.names);
+    }
+
+    /**
+     * Turns the raw model output for one image into anomalies the way ultralytics' predict and
+     * {@code anomaly_detection.py} report them, in descending confidence.
+     */
+    AnomaliesResponse decode(float[][] output, Letterbox input, Map<Integer, String> names) {
+        List<Candidate> kept = nonMaxSuppression(candidates(output, input));
+        List<Anomaly> anomalies = new ArrayList<>(kept.size());
+        for (Candidate c : kept) {
+            String name = names.getOrDefault(c.classId(), String.valueOf(c.classId()));
+            anomalies.add(new Anomaly(name, Math.round(c.score() * 100) / 100.0,
+                    List.of((double) c.x1() / input.width(), (double) c.y1() / input.height(),
+                            (double) c.x2() / input.width(), (double) c.y2() / input.height()),
+                    null, null));
+        }
+        return new AnomaliesResponse(anomalies);
+    }
+
+    private float[] toTensor(BufferedImage canvas) {
+        int[] rgb = ((DataBufferInt) canvas.getRaster().getDataBuffer()).getData();
+        int plane = imageSize * imageSize;
+        float[] pixels = new float[3 * plane];
+        for (int i = 0; i < plane; i++) {
+            int p = rgb[i];
+            pixels[i] = ((p >> 16) & 0xFF) / 255f;
+            pixels[plane + i] = ((p >> 8) & 0xFF) / 255f;
+            pixels[2 * plane + i] = (p & 0xFF) / 255f;
+        }
+        return pixels;
+    }
+
+    private List<Candidate> candidates(float[][] output, Letterbox input) {
+        int classes = output.length - 4;
+        int count = output[0].length;
+        List<Candidate> found = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int best = 0;
+            float bestScore = output[4][i];
+            for (int c = 1; c < classes; c++) {
+                if (output[4 + c][i] > bestScore) {
+                    bestScore = output[4 + c][i];
+                    best = c;
+                }
+            }
+            if (bestScore <= confThreshold) {
+                continue;
+            }
+            float cx = output[0][i];
+            float cy = output[1][i];
+            float halfW = output[2][i] / 2;
+            float halfH = output[3][i] / 2;
+            // Undo the letterbox and clip to the original image
+            found.add(new Candidate(best, bestScore,
+                    (float) input.originalX(cx - halfW), (float) input.originalY(cy - halfH),
+                    (float) input.originalX(cx + halfW), (float) input.originalY(cy + halfH)));
+        }
+        return found;
+    }
+
+    private List<Candidate> nonMaxSuppression(List<Candidate> candidates) {
+        candidates.sort(Comparator.comparingDouble(Candidate::score).reversed());
+        List<Candidate> kept = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            if (kept.size() >= maxDetections) {
+                break;
+            }
+            boolean suppressed = false;
+            for (Candidate k : kept) {
+                if (k.classId() == candidate.classId() && iou(k, candidate) > iouThreshold) {
+                    suppressed = true;
+                    break;
+                }
+            }
+            if (!suppressed) {
+                kept.add(candidate);
+            }
+        }
+        return kept;
+    }
+
+    private static float iou(Candidate a, Candidate b) {
+        float w = Math.min(a.x2(), b.x2()) - Math.max(a.x1(), b.x1());
+        float h = Math.min(a.y2(), b.y2()) - Math.max(a.y1(), b.y1());
+        if (w <= 0 || h <= 0) {
+            return 0;
+        }
+        float inter = w * h;
+        return inter / (a.area() + b.area() - inter);
+    }
+
+    // A model retired between currentModel() and acquire() is skipped for its replacement
+    private LoadedModel acquireModel() throws IOException {
+        while (true) {
+            LoadedModel loaded = currentModel();
+            if (loaded.acquire()) {
+                return loaded;
+            }
+        }
+    }
+
+    // The session is reloaded when the .onnx file is replaced, like the python workers are
+    private synchronized LoadedModel currentModel() throws IOException {
+        String version = modelVersion.current();
+        if (model != null && model.version.equals(version)) {
+            return model;
+        }
+        try (OrtSession.SessionOptions options = new OrtSession.SessionOptions()) {
+            options.setIntraOpNumThreads(intraOpThreads);
+            options.setOptimizationLevel(OrtSession.SessionOptions.OptLevel.ALL_OPT);
+            OrtSession session = OrtEnvironment.getEnvironment()
+                    .createSession(modelVersion.resolveModelPath().toString(), options);
+            Map<Integer, String> names = parseNames(session.getMetadata().getCustomMetadata().get("names"));
+            LoadedModel loaded = new LoadedModel(version, session, session.getInputNames().iterator().next(), names);
+            if (model != null) {
+                model.retire();
+            }
+            model = loaded;
+            log.info("Loaded ONNX detection model {} ({} classes)", modelVersion.resolveModelPath(), names.size());
+            return loaded;
+        } catch (OrtException ex) {
+            throw new IOException("Could not load ONNX model " + modelVersion.resolveModelPath() + ": " + ex.getMessage(), ex);
+        }
+    }
+
+    // ultralytics stores the class names as a python dict literal: {0: 'faulty', 1: 'normal'}
+    static Map<Integer, String> parseNames(String names) {
+        Map<Integer, String> parsed = new HashMap<>();
+        if (names != null) {
+            Matcher m = CLASS_NAME.matcher(names);
+            while (m.find()) {
+                parsed.put(Integer.parseInt(m.group(1)), m.group(2));
+            }
+        }
+        return parsed;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (model != null) {
+            model.retire();
+            model = null;
+        }
+    }
+}
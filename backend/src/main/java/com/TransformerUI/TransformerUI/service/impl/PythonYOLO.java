@@ -1,132 +1,103 @@
 package com.TransformerUI.TransformerUI.service.impl;
 
 
+import com.TransformerUI.TransformerUI.service.detection.DetectionAdmissionController;
+import com.TransformerUI.TransformerUI.service.detection.DetectionCircuitBreaker;
+import com.TransformerUI.TransformerUI.service.detection.DetectionEngine;
+import com.TransformerUI.TransformerUI.service.detection.DetectorOutputException;
+import com.TransformerUI.TransformerUI.service.detection.DetectorReply;
+import com.TransformerUI.TransformerUI.service.detection.DetectorWorkerPool;
+import com.TransformerUI.TransformerUI.service.detection.FailedDetectionImages;
+import com.TransformerUI.TransformerUI.service.detection.ImagePreprocessor;
+import com.TransformerUI.TransformerUI.service.detection.ImagePreprocessor.PreparedImage;
 import com.TransformerUI.TransformerUI.transport.response.AnomaliesResponse;
-import com.TransformerUI.TransformerUI.transport.response.Anomaly;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
 
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Collections;
 
-public class PythonYOLO {
-
-    public static AnomaliesResponse runYOLO(byte[] imageBytes) throws IOException, InterruptedException {
-        // Save image temporarily
-        Path tempFile = Files.createTempFile("image", ".jpg");
-        Files.write(tempFile, imageBytes);
-
-        // Run Python script. Allow overriding python via system property or env var.
-        String pythonCmd = System.getProperty("python.exec");
-        if (pythonCmd == null || pythonCmd.isBlank()) {
-            String env = System.getenv("PYTHON_EXEC");
-            pythonCmd = (env == null || env.isBlank()) ? "python" : env;
-        }
-
-        // Resolve the python script path robustly. Try common locations relative to the JVM working dir
-        String cwd = System.getProperty("user.dir");
-        Path scriptPath = Paths.get(cwd, "python", "anomaly_detection.py");
-        if (!Files.exists(scriptPath)) {
-            // If running from repo root where backend is a subfolder
-            scriptPath = Paths.get(cwd, "backend", "python", "anomaly_detection.py");
+@Component
+@ConditionalOnProperty(name = "detection.engine", havingValue = "python", matchIfMissing = true)
+@RequiredArgsConstructor
+public class PythonYOLO implements DetectionEngine {
+
+    // Detection runs on warm, pooled python workers that keep the model loaded
+    private final DetectorWorkerPool workerPool;
+    // Sheds load with DetectionBusyException once the detector is saturated
+    private final DetectionAdmissionController admissionController;
+    // Fails fast with DetectorUnavailableException while the detector keeps crashing or timing out
+    private final DetectionCircuitBreaker circuitBreaker;
+    // Letterboxes images to the model input size so workers get small frames
+    private final ImagePreprocessor preprocessor;
+
+    // "pipe" streams the image bytes to the worker; "file" hands over a temp file path
+    @Value("${detection.transport:pipe}")
+    private String transport;
+
+    @Override
+    public AnomaliesResponse detect(byte[] imageBytes) throws IOException, InterruptedException {
+        // Resize outside the admission slot; it only needs CPU, not a worker
+        PreparedImage prepared = preprocessor.prepare(imageBytes);
+        DetectorReply result;
+        try {
+            result = circuitBreaker.run(() -> admissionController.run(() -> "file".equalsIgnoreCase(transport)
+                    ? runViaTempFile(prepared.bytes())
+                    : workerPool.execute(worker -> worker.detect(prepared.bytes()))));
+        } catch (DetectorOutputException ex) {
+            throw FailedDetectionImages.preserve("PY_PARSE_ERR", "failed_parse_", imageBytes, ex.getMessage());
+        } catch (IOException ex) {
+            throw FailedDetectionImages.preserve("PY_ERR", "failed_", imageBytes, ex.getMessage());
         }
-        if (!Files.exists(scriptPath)) {
-            // Fallback to the original relative path (let OS resolve from current CWD)
-            scriptPath = Paths.get("python", "anomaly_detection.py");
+        if (!result.isOk()) {
+            // include the worker error for debugging and preserve the image for offline inspection
+            throw FailedDetectionImages.preserve("PY_ERR", "failed_", imageBytes, result.getError());
         }
+        return new AnomaliesResponse(prepared.toOriginal(result.getAnomalies()));
+    }
 
-    // Pass the --image flag expected by anomaly_detection.py
-    ProcessBuilder pb = new ProcessBuilder(pythonCmd, scriptPath.toString(), "--image", tempFile.toString());
-        // Keep stderr separate so we can include useful error messages
-        pb.redirectErrorStream(false);
-        Process process = pb.start();
-
-        // Read stdout
-        BufferedReader stdout = new BufferedReader(new InputStreamReader(process.getInputStream()));
-        StringBuilder outBuf = new StringBuilder();
-        String line;
-        while ((line = stdout.readLine()) != null) {
-            outBuf.append(line).append('\n');
-        }
+    @Override
+    public String configFingerprint() {
+        return "python:" + preprocessor.configFingerprint();
+    }
 
-        // Read stderr
-        BufferedReader stderr = new BufferedReader(new InputStreamReader(process.getErrorStream()));
-        StringBuilder errBuf = new StringBuilder();
-        while ((line = stderr.readLine()) != null) {
-            errBuf.append(line).append('\n');
+    /**
+     * Detects a group of images with one worker call and one batched predict.
+     */
+    @Override
+    public List<BatchItemResult> detectBatch(List<byte[]> images) throws IOException, InterruptedException {
+        List<PreparedImage> prepared = preprocessor.prepareAll(images);
+        List<byte[]> frames = prepared.stream().map(PreparedImage::bytes).toList();
+        DetectorReply result = circuitBreaker.run(() -> admissionController.run(
+                () -> workerPool.execute(worker -> worker.detectBatch(frames))));
+        if (!result.isOk()) {
+            throw new IOException("Batch detection failed: " + result.getError());
         }
-
-        int exitCode = process.waitFor();
-        if (exitCode != 0) {
-            // include stderr for debugging and preserve the temp image for offline inspection
-            String err = errBuf.length() > 0 ? errBuf.toString() : "Python script exited with code " + exitCode;
-            // create a debug folder next to project root
-            Path debugDir = tempFile.getParent().resolve("../failed-detections").normalize();
-            try {
-                Files.createDirectories(debugDir);
-                Path preserved = debugDir.resolve("failed_" + System.currentTimeMillis() + ".jpg");
-                Files.copy(tempFile, preserved);
-                throw new RuntimeException("PY_ERR;FILE:" + preserved.toString() + ";ERR:" + err);
-            } catch (IOException ioEx) {
-                throw new RuntimeException("PY_ERR;FILE:UNKNOWN;ERR:" + err);
+        List<DetectorReply> items = result.getResults();
+        List<BatchItemResult> outcomes = new ArrayList<>(images.size());
+        for (int i = 0; i < images.size(); i++) {
+            DetectorReply item = i < items.size() ? items.get(i) : null;
+            if (item == null || !item.isOk()) {
+                outcomes.add(new BatchItemResult(null, item == null ? "No result returned for image" : item.getError()));
+            } else {
+                outcomes.add(new BatchItemResult(new AnomaliesResponse(prepared.get(i).toOriginal(item.getAnomalies())), null));
             }
         }
+        return outcomes;
+    }
 
-        // Delete temp image
-        Files.delete(tempFile);
-
-        String resultStr = outBuf.toString().trim();
-        // Try to extract JSON array/object from stdout. If script prints logs
-        // before JSON, attempt to find the JSON bracket. Otherwise parse the whole.
-        String json = resultStr;
-        int arrStart = resultStr.indexOf("[");
-        int objStart = resultStr.indexOf("{");
-        if (arrStart != -1 && (arrStart < objStart || objStart == -1)) {
-            json = resultStr.substring(arrStart);
-        } else if (objStart != -1) {
-            json = resultStr.substring(objStart);
-        }
-
-        ObjectMapper mapper = new ObjectMapper();
-        List<Anomaly> anomalies;
+    private DetectorReply runViaTempFile(byte[] imageBytes) throws IOException, InterruptedException {
+        Path tempFile = Files.createTempFile("image", ".jpg");
         try {
-            // If JSON is an object with "anomalies" field, parse that
-            if (json.startsWith("{")) {
-                com.fasterxml.jackson.databind.JsonNode node = mapper.readTree(json);
-                if (node.has("anomalies")) {
-                    anomalies = mapper.convertValue(node.get("anomalies"), new TypeReference<List<Anomaly>>() {});
-                } else {
-                    // try parse as list inside object
-                    anomalies = Collections.emptyList();
-                }
-            } else if (json.startsWith("[")) {
-                anomalies = mapper.readValue(json, new TypeReference<List<Anomaly>>() {});
-            } else {
-                anomalies = Collections.emptyList();
-            }
-        } catch (Exception e) {
-            // preserve temp image for offline debugging
-            Path debugDir = tempFile.getParent().resolve("../failed-detections").normalize();
-            try {
-                Files.createDirectories(debugDir);
-                Path preserved = debugDir.resolve("failed_parse_" + System.currentTimeMillis() + ".jpg");
-                Files.copy(tempFile, preserved);
-                throw new RuntimeException("PY_PARSE_ERR;FILE:" + preserved.toString() + ";ERR:" + e.getMessage());
-            } catch (IOException ioEx) {
-                // fallback to empty anomalies
-                anomalies = java.util.Collections.emptyList();
-                return new AnomaliesResponse(anomalies);
-            }
+            Files.write(tempFile, imageBytes);
+            return workerPool.execute(worker -> worker.detect(tempFile));
+        } finally {
+            try { Files.deleteIfExists(tempFile); } catch (Exception ignore) {}
         }
-
-        // Delete temp image on success
-        try { Files.deleteIfExists(tempFile); } catch (Exception ignore) {}
-
-        return new AnomaliesResponse(anomalies);
-
     }
 }
@@ -0,0 +1,63 @@
+package com.TransformerUI.TransformerUI.service.impl;
+
+import com.TransformerUI.TransformerUI.service.SearchService;
+import com.TransformerUI.TransformerUI.service.search.SearchIndex;
+import com.TransformerUI.TransformerUI.service.search.TrigramIndex;
+import com.TransformerUI.TransformerUI.transport.response.ApiResponse;
+import com.TransformerUI.TransformerUI.transport.response.ResponseCodeEnum;
+import com.TransformerUI.TransformerUI.transport.response.SearchResultResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class SearchServiceImpl implements SearchService {
+
+    private final SearchIndex searchIndex;
+
+    @Value("${search.min-similarity:0.3}")
+    private double minSimilarity;
+
+    @Value("${search.default-limit:10}")
+    private int defaultLimit;
+
+    @Value("${search.max-limit:50}")
+    private int maxLimit;
+
+    @Override
+    public ApiResponse<List<SearchResultResponse>> search(String query, String type, Integer limit) {
+        if (query == null || query.isBlank()) {
+            return new ApiResponse<>(ResponseCodeEnum.BAD_REQUEST.code(), "Search query is empty");
+        }
+        if (type != null && !type.equals(SearchIndex.TRANSFORMER) && !type.equals(SearchIndex.INSPECTION)) {
+            return new ApiResponse<>(ResponseCodeEnum.BAD_REQUEST.code(),
+                    "type must be " + SearchIndex.TRANSFORMER + " or " + SearchIndex.INSPECTION);
+        }
+        int max = limit == null ? defaultLimit : Math.min(Math.max(limit, 1), maxLimit);
+
+        List<TrigramIndex.Hit<SearchIndex.Document>> hits = new ArrayList<>();
+        if (type == null || type.equals(SearchIndex.TRANSFORMER)) {
+            hits.addAll(searchIndex.searchTransformers(query, max, minSimilarity));
+        }
+        if (type == null || type.equals(SearchIndex.INSPECTION)) {
+            hits.addAll(searchIndex.searchInspections(query, max, minSimilarity));
+        }
+        List<SearchResultResponse> results = hits.stream()
+                .sorted(Comparator.comparingDouble((TrigramIndex.Hit<SearchIndex.Document> hit) -> hit.score()).reversed())
+                .limit(max)
+                .map(SearchServiceImpl::toResponse)
+                .toList();
+        return new ApiResponse<>(ResponseCodeEnum.SUCCESS.code(), ResponseCodeEnum.SUCCESS.message(), results);
+    }
+
+    private static SearchResultResponse toResponse(TrigramIndex.Hit<SearchIndex.Document> hit) {
+        SearchIndex.Document doc = hit.value();
+        return new SearchResultResponse(doc.type(), doc.id(), doc.transformerNo(), doc.inspectionNo(), doc.poleNo(),
+                doc.locationDetails(), doc.branch(), Math.round(hit.score() * 1000) / 1000.0);
+    }
+}
@@ -4,18 +4,16 @@ import com.TransformerUI.TransformerUI.constant.LoggingAdviceConstants;
 import com.TransformerUI.TransformerUI.entity.TransformerDataEntity;
 import com.TransformerUI.TransformerUI.repository.TransformerDataRepository;
 import com.TransformerUI.TransformerUI.service.TransformerDataService;
+import com.TransformerUI.TransformerUI.service.search.SearchIndex;
 import com.TransformerUI.TransformerUI.service.util.StackTraceTracker;
-import com.TransformerUI.TransformerUI.service.util.DataSpecificationUtil;
+import com.TransformerUI.TransformerUI.service.util.FilterPageService;
 import com.TransformerUI.TransformerUI.service.util.exception.type.BaseException;
 import com.TransformerUI.TransformerUI.transport.request.FilterRequest;
 import com.TransformerUI.TransformerUI.transport.request.TransformerDataRequest;
 import com.TransformerUI.TransformerUI.transport.response.ApiResponse;
-import com.TransformerUI.TransformerUI.transport.response.PageDetail;
 import com.TransformerUI.TransformerUI.transport.response.ResponseCodeEnum;
 import com.TransformerUI.TransformerUI.transport.response.TransformerDataResponse;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.*;
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -25,9 +23,14 @@ import java.util.List;
 public class TransformerDataServiceImpl implements TransformerDataService {
 
     private final TransformerDataRepository transformerDataRepository;
+    private final FilterPageService filterPageService;
+    private final SearchIndex searchIndex;
 
-    public TransformerDataServiceImpl(TransformerDataRepository transformerDataRepository) {
+    public TransformerDataServiceImpl(TransformerDataRepository transformerDataRepository,
+                                      FilterPageService filterPageService, SearchIndex searchIndex) {
         this.transformerDataRepository = transformerDataRepository;
+        this.filterPageService = filterPageService;
+        this.searchIndex = searchIndex;
     }
 
     @Override
@@ -37,7 +40,7 @@ public class TransformerDataServiceImpl implements TransformerDataService {
             validateTransformerData(transformerDataRequest);
             TransformerDataEntity transformerDataEntity =
                     CommonMapper.map(transformerDataRequest, TransformerDataEntity.class);
-            transformerDataRepository.save(transformerDataEntity);
+            searchIndex.indexTransformer(transformerDataRepository.save(transformerDataEntity));
             return new ApiResponse<>(ResponseCodeEnum.SUCCESS.code(), ResponseCodeEnum.SUCCESS.message());
         } catch (Exception ex) {
             log.error(LoggingAdviceConstants.EXCEPTION_STACK_TRACE,
@@ -68,7 +71,7 @@ public class TransformerDataServiceImpl implements TransformerDataService {
                             "Transformer Data is not found with ID to Update: " + transformerDataRequest.getId()));
             CommonMapper.update(transformerDataRequest, existingTransformerEntity);
 
-            transformerDataRepository.save(existingTransformerEntity);
+            searchIndex.indexTransformer(transformerDataRepository.save(existingTransformerEntity));
             return new ApiResponse<>(ResponseCodeEnum.SUCCESS.code(), ResponseCodeEnum.SUCCESS.message());
         } catch (BaseException ex) {
             log.error(LoggingAdviceConstants.EXCEPTION_STACK_TRACE, System.currentTimeMillis() - start,
@@ -112,6 +115,7 @@ public class TransformerDataServiceImpl implements TransformerDataService {
                     .orElseThrow(() -> new BaseException(ResponseCodeEnum.BAD_REQUEST.code(),
                             "Transformer is not found with ID to Delete: " + id));
             transformerDataRepository.delete(transformerDataEntity);
+            searchIndex.removeTransformer(id);
 
             return new ApiResponse<>(ResponseCodeEnum.SUCCESS.code(), ResponseCodeEnum.SUCCESS.message());
         } catch (BaseException ex) {
@@ -130,15 +134,10 @@ public class TransformerDataServiceImpl implements TransformerDataService {
     public ApiResponse<List<TransformerDataResponse>> filterTransformerData(FilterRequest filterRequest) {
         ApiResponse<List<TransformerDataResponse>> response = new ApiResponse<>();
         try {
-            int offset = filterRequest.getOffset() != null ? filterRequest.getOffset() : 0;
-            int limit = filterRequest.getLimit() != null ? filterRequest.getLimit() : 10;
-            int pageId = offset / limit;
-            Pageable pageable = PageRequest.of(pageId, limit, Sort.by(Sort.Direction.DESC, "id"));
+            FilterPageService.FilterPage<TransformerDataEntity> results =
+                    filterPageService.find(TransformerDataEntity.class, filterRequest);
 
-            Specification<TransformerDataEntity> spec = DataSpecificationUtil.buildSpecification(filterRequest);
-            Page<TransformerDataEntity> results = transformerDataRepository.findAll(spec, pageable);
-
-            List<TransformerDataResponse> responseList = results.stream()
+            List<TransformerDataResponse> responseList = results.content().stream()
                     .map(entity -> CommonMapper.map(entity, TransformerDataResponse.class))
                     .toList();
 
@@ -146,13 +145,13 @@ public class TransformerDataServiceImpl implements TransformerDataService {
             response.setResponseDescription("Operation Successful");
             response.setResponseData(responseList);
 
-            PageDetail pageDetail = new PageDetail();
-            pageDetail.setTotalRecords(String.valueOf(results.getTotalElements()));
-            pageDetail.setPageNumber(String.valueOf(results.getNumber() + 1));
-            pageDetail.setPageElementCount(String.valueOf(results.getNumberOfElements()));
-            response.setPageDetail(pageDetail);
+            response.setPageDetail(results.pageDetail());
 
             return response;
+        } catch (BaseException ex) {
+            log.error(LoggingAdviceConstants.EXCEPTION_STACK_TRACE, ex.getMessage(),
+                    StackTraceTracker.displayStackStraceArray(ex.getStackTrace()));
+            return new ApiResponse<>(ex.getResponseCode(), ex.getMessage(), null);
         } catch (Exception e) {
             log.error("Error occurred while filtering Transformer Data", e);
             return new ApiResponse<>(ResponseCodeEnum.INTERNAL_SERVER_ERROR.code(),
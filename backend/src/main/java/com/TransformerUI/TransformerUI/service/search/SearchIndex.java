@@ -0,0 +1,87 @@
+package com.TransformerUI.TransformerUI.service.search;
+
+import com.TransformerUI.TransformerUI.entity.InspectionDataEntity;
+import com.TransformerUI.TransformerUI.entity.TransformerDataEntity;
+import com.TransformerUI.TransformerUI.repository.InspectionDataRepository;
+import com.TransformerUI.TransformerUI.repository.TransformerDataRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Type-ahead index over transformers (transformerNo, poleNo, locationDetails) and inspections
+ * (inspectionNo, transformerNo, branch). It is loaded from the database before the application
+ * takes requests, and the transformer and inspection services keep it current as they save and
+ * delete rows, so searches never touch the database.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SearchIndex {
+
+    public static final String TRANSFORMER = "transformer";
+    public static final String INSPECTION = "inspection";
+
+    private final TransformerDataRepository transformerDataRepository;
+    private final InspectionDataRepository inspectionDataRepository;
+
+    private final TrigramIndex<Document> transformers = new TrigramIndex<>();
+    private final TrigramIndex<Document> inspections = new TrigramIndex<>();
+
+    /**
+     * What a search returns for one row.
+     */
+    public record Document(String type, Long id, String transformerNo, String inspectionNo, String poleNo,
+                           String locationDetails, String branch) {
+    }
+
+    @PostConstruct
+    public void build() {
+        long start = System.currentTimeMillis();
+        transformers.clear();
+        inspections.clear();
+        transformerDataRepository.findAll().forEach(this::indexTransformer);
+        inspectionDataRepository.findAll().forEach(this::indexInspection);
+        log.info("Search index built with {} transformers and {} inspections in {} ms",
+                transformers.size(), inspections.size(), System.currentTimeMillis() - start);
+    }
+
+    public void indexTransformer(TransformerDataEntity entity) {
+        if (entity.getId() == null) {
+            return;
+        }
+        transformers.put(entity.getId(),
+                new Document(TRANSFORMER, entity.getId(), entity.getTransformerNo(), null, entity.getPoleNo(),
+                        entity.getLocationDetails(), null),
+                entity.getTransformerNo(), entity.getPoleNo(), entity.getLocationDetails());
+    }
+
+    public void removeTransformer(Long id) {
+        transformers.remove(id);
+    }
+
+    public void indexInspection(InspectionDataEntity entity) {
+        if (entity.getId() == null) {
+            return;
+        }
+        inspections.put(entity.getId(),
+                new Document(INSPECTION, entity.getId(), entity.getTransformerNo(), entity.getInspectionNo(), null,
+                        null, entity.getBranch()),
+                entity.getInspectionNo(), entity.getTransformerNo(), entity.getBranch());
+    }
+
+    public void removeInspection(Long id) {
+        inspections.remove(id);
+    }
+
+    public List<TrigramIndex.Hit<Document>> searchTransformers(String query, int limit, double minSimilarity) {
+        return transformers.search(query, limit, minSimilarity);
+    }
+
+    public List<TrigramIndex.Hit<Document>> searchInspections(String query, int limit, double minSimilarity) {
+        return inspections.search(query, limit, minSimilarity);
+    }
+}
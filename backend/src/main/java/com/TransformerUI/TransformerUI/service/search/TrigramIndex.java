@@ -0,0 +1,176 @@
+package com.TransformerUI.TransformerUI.service.search;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index from trigrams to ids, in the style of pg_trgm. Text is lower-cased and
+ * split into words, and each word is padded with two spaces in front and one behind, so the first
+ * letters of a word form trigrams of their own. That lets one- and two-letter queries match word
+ * prefixes. Queries match by the share of their trigrams a row contains; rows are then ranked by
+ * how the query matches the row's fields (exact, prefix, word prefix, substring) in field order,
+ * so the first field counts most.
+ */
+public class TrigramIndex<T> {
+
+    private static final double EXACT = 3;
+    private static final double PREFIX = 2;
+    private static final double WORD_PREFIX = 1.5;
+    private static final double SUBSTRING = 1;
+    // Separates otherwise equal matches on earlier and later fields
+    private static final double FIELD_STEP = 0.01;
+
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Map<Long, Entry<T>> entries = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private record Entry<T>(T value, List<String> fields, Set<String> trigrams) {
+    }
+
+    public record Hit<T>(long id, T value, double score) {
+    }
+
+    /**
+     * Adds or replaces the row {@code id}. Null fields are indexed as empty.
+     */
+    public void put(long id, T value, String... fields) {
+        List<String> normalized = Arrays.stream(fields).map(TrigramIndex::normalize).toList();
+        Set<String> trigrams = new HashSet<>();
+        for (String field : normalized) {
+            for (String word : words(field)) {
+                addTrigrams("  " + word + " ", trigrams);
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            unlink(id);
+            entries.put(id, new Entry<>(value, normalized, trigrams));
+            for (String trigram : trigrams) {
+                postings.computeIfAbsent(trigram, k -> new HashSet<>()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            unlink(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            entries.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Best {@code limit} rows containing at least {@code minSimilarity} of the query's trigrams,
+     * highest score first. The score is the match bonus of the best field plus that share.
+     */
+    public List<Hit<T>> search(String query, int limit, double minSimilarity) {
+        String normalized = normalize(query);
+        Set<String> trigrams = new HashSet<>();
+        for (String word : words(normalized)) {
+            // Short words only make sense as a word prefix; longer ones may match anywhere in a word
+            addTrigrams(word.length() < 3 ? "  " + word : word, trigrams);
+        }
+        if (trigrams.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        List<Hit<T>> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> matched = new HashMap<>();
+            for (String trigram : trigrams) {
+                Set<Long> ids = postings.get(trigram);
+                if (ids != null) {
+                    ids.forEach(id -> matched.merge(id, 1, Integer::sum));
+                }
+            }
+            for (Map.Entry<Long, Integer> candidate : matched.entrySet()) {
+                double similarity = (double) candidate.getValue() / trigrams.size();
+                if (similarity < minSimilarity) {
+                    continue;
+                }
+                Entry<T> entry = entries.get(candidate.getKey());
+                hits.add(new Hit<>(candidate.getKey(), entry.value(), bonus(entry.fields(), normalized) + similarity));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        hits.sort(Comparator.comparingDouble((Hit<T> hit) -> hit.score()).reversed()
+                .thenComparing(Comparator.comparingLong((Hit<T> hit) -> hit.id()).reversed()));
+        return hits.size() > limit ? List.copyOf(hits.subList(0, limit)) : hits;
+    }
+
+    private static double bonus(List<String> fields, String query) {
+        double best = 0;
+        for (int i = 0; i < fields.size(); i++) {
+            String field = fields.get(i);
+            double bonus;
+            if (field.equals(query)) {
+                bonus = EXACT;
+            } else if (field.startsWith(query)) {
+                bonus = PREFIX;
+            } else if (field.contains(" " + query)) {
+                bonus = WORD_PREFIX;
+            } else if (field.contains(query)) {
+                bonus = SUBSTRING;
+            } else {
+                continue;
+            }
+            best = Math.max(best, bonus - i * FIELD_STEP);
+        }
+        return best;
+    }
+
+    private void unlink(long id) {
+        Entry<T> previous = entries.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String trigram : previous.trigrams()) {
+            Set<Long> ids = postings.get(trigram);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                postings.remove(trigram);
+            }
+        }
+    }
+
+    // Lower case, with every run of other characters than letters and digits turned into one space
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    private static String[] words(String normalized) {
+        return normalized.isEmpty() ? new String[0] : normalized.split(" ");
+    }
+
+    private static void addTrigrams(String text, Set<String> trigrams) {
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            trigrams.add(text.substring(i, i + 3));
+        }
+    }
+}
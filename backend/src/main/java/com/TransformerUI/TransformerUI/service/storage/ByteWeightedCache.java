@@ -0,0 +1,74 @@
+package com.TransformerUI.TransformerUI.service.storage;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU map of byte arrays bounded by their total length rather than by entry count, so a few
+ * full-size images cannot crowd out memory the way a count limit would allow. Thread-safe.
+ */
+public class ByteWeightedCache<K> {
+
+    // Charged per entry on top of its bytes so empty markers still count
+    private static final long ENTRY_OVERHEAD = 64;
+
+    private final long maxBytes;
+    private final Map<K, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    public ByteWeightedCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public synchronized byte[] get(K key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Stores {@code value} unless it alone exceeds the ceiling, evicting least recently used
+     * entries until the total fits.
+     */
+    public synchronized void put(K key, byte[] value) {
+        long weight = weight(value);
+        if (weight > maxBytes) {
+            remove(key);
+            return;
+        }
+        byte[] previous = entries.put(key, value);
+        if (previous != null) {
+            totalBytes -= weight(previous);
+        }
+        totalBytes += weight;
+        Iterator<Map.Entry<K, byte[]>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<K, byte[]> entry = eldest.next();
+            totalBytes -= weight(entry.getValue());
+            eldest.remove();
+        }
+    }
+
+    public synchronized void remove(K key) {
+        byte[] previous = entries.remove(key);
+        if (previous != null) {
+            totalBytes -= weight(previous);
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        totalBytes = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    private static long weight(byte[] value) {
+        return value.length + ENTRY_OVERHEAD;
+    }
+}
@@ -0,0 +1,200 @@
+package com.TransformerUI.TransformerUI.service.storage;
+
+import com.TransformerUI.TransformerUI.service.util.HashUtil;
+import com.TransformerUI.TransformerUI.service.util.ImageTypeUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Keeps blobs under {@code storage.images.root} as {@code ab/cd/<sha256>}. A blob is written to
+ * a temp file in its target directory and then moved into place atomically, so readers never
+ * see a partial image and two writers of the same content cannot corrupt each other. Storing a
+ * blob that already exists touches its modification time; that and the delete check run under
+ * the same per-blob lock, so a blob cannot be swept away between a duplicate upload and the save
+ * of its row.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "storage.images.type", havingValue = "filesystem", matchIfMissing = true)
+public class FileSystemImageStore implements ImageStore {
+
+    private static final Pattern REF = Pattern.compile("[0-9a-f]{64}");
+
+    @Value("${storage.images.root:data/images}")
+    private String root;
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int LOCK_STRIPES = 64;
+
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    private Path rootDir;
+    // Uploads are streamed here first; it is on the same file system, so the final move is atomic
+    private Path incomingDir;
+
+    @PostConstruct
+    public void init() throws IOException {
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+        Path configured = Paths.get(root);
+        rootDir = configured.isAbsolute() ? configured : Paths.get(System.getProperty("user.dir")).resolve(configured);
+        Files.createDirectories(rootDir);
+        incomingDir = Files.createDirectories(rootDir.resolve("incoming"));
+        log.info("Image store at {}", rootDir);
+    }
+
+    @Override
+    public StoredBlob put(byte[] bytes) throws IOException {
+        String hash = HashUtil.sha256Hex(bytes);
+        Path target = resolve(hash);
+        if (touchIfExists(target, hash)) {
+            return new StoredBlob(hash, hash, bytes.length);
+        }
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), hash, ".tmp");
+        try {
+            Files.write(temp, bytes);
+            commit(temp, target, hash);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return new StoredBlob(hash, hash, bytes.length);
+    }
+
+    @Override
+    public StoredBlob put(InputStream in, long maxBytes) throws IOException {
+        MessageDigest digest = HashUtil.newSha256();
+        Path temp = Files.createTempFile(incomingDir, "upload", ".tmp");
+        try {
+            long size = 0;
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                byte[] header = in.readNBytes(ImageTypeUtil.HEADER_LENGTH);
+                if (ImageTypeUtil.detect(header) == null) {
+                    throw new InvalidImageException("Upload is not a supported image format");
+                }
+                digest.update(header);
+                out.write(header);
+                size = header.length;
+                byte[] chunk = new byte[CHUNK_SIZE];
+                int read;
+                while ((read = in.read(chunk)) != -1) {
+                    size += read;
+                    if (size > maxBytes) {
+                        throw new InvalidImageException("Upload exceeds the maximum image size of " + maxBytes + " bytes");
+                    }
+                    digest.update(chunk, 0, read);
+                    out.write(chunk, 0, read);
+                }
+            }
+            String hash = HashUtil.toHex(digest.digest());
+            Path target = resolve(hash);
+            Files.createDirectories(target.getParent());
+            commit(temp, target, hash);
+            return new StoredBlob(hash, hash, size);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public byte[] read(String ref) throws IOException {
+        return Files.readAllBytes(resolve(ref));
+    }
+
+    @Override
+    public InputStream open(String ref) throws IOException {
+        return Files.newInputStream(resolve(ref));
+    }
+
+    @Override
+    public boolean exists(String ref) {
+        return Files.exists(resolve(ref));
+    }
+
+    @Override
+    public void delete(String ref) throws IOException {
+        Files.deleteIfExists(resolve(ref));
+    }
+
+    @Override
+    public boolean deleteIfUnusedSince(String ref, long cutoffMillis) throws IOException {
+        Path target = resolve(ref);
+        synchronized (lock(ref)) {
+            try {
+                if (Files.getLastModifiedTime(target).toMillis() >= cutoffMillis) {
+                    return false;
+                }
+            } catch (NoSuchFileException ex) {
+                return false;
+            }
+            return Files.deleteIfExists(target);
+        }
+    }
+
+    @Override
+    public Stream<String> refsUnusedSince(long cutoffMillis) throws IOException {
+        // Blobs sit two directories down; incoming/ holds only temp files, whose names never match
+        return Files.find(rootDir, 3, (path, attributes) -> attributes.isRegularFile()
+                        && attributes.lastModifiedTime().toMillis() < cutoffMillis
+                        && REF.matcher(path.getFileName().toString()).matches())
+                .map(path -> path.getFileName().toString());
+    }
+
+    private boolean touchIfExists(Path target, String hash) throws IOException {
+        synchronized (lock(hash)) {
+            try {
+                Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+                return true;
+            } catch (NoSuchFileException ex) {
+                return false;
+            }
+        }
+    }
+
+    // Moves a fully written temp file into place, or marks the existing identical blob as used
+    private void commit(Path temp, Path target, String hash) throws IOException {
+        synchronized (lock(hash)) {
+            if (touchIfExists(target, hash)) {
+                return;
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException ex) {
+                // written by another process sharing the store; its copy is identical
+                Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+            }
+        }
+    }
+
+    private Object lock(String ref) {
+        return locks[Math.floorMod(ref.hashCode(), LOCK_STRIPES)];
+    }
+
+    @Override
+    public Path localPath(String ref) {
+        return resolve(ref);
+    }
+
+    /**
+     * Path of the blob for {@code ref}; it does not have to exist.
+     */
+    public Path resolve(String ref) {
+        if (ref == null || !REF.matcher(ref).matches()) {
+            throw new IllegalArgumentException("Invalid image reference: " + ref);
+        }
+        return rootDir.resolve(ref.substring(0, 2)).resolve(ref.substring(2, 4)).resolve(ref);
+    }
+}
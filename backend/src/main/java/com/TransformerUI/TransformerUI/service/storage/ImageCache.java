@@ -0,0 +1,179 @@
+package com.TransformerUI.TransformerUI.service.storage;
+
+import com.TransformerUI.TransformerUI.entity.ImageDataEntity;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * In-process cache in front of the images table and the image store. Rows looked up by
+ * transformer/inspection/type are kept as detached copies and must be evicted by every write
+ * to that transformer's images; image bytes are keyed by their SHA-256 and, being immutable,
+ * are only ever evicted for space, by total bytes up to {@code storage.images.cache.max-bytes}.
+ *
+ * <p>A row read from the database may be stale by the time it is cached, if a write evicted the
+ * transformer in between. Callers therefore take a {@link #stamp()} before the read and pass it
+ * to {@link #putRow}, which refuses rows read before the transformer's last eviction.
+ * Evictions are recorded per stripe of transformers, so a put can also be refused because of
+ * another transformer in the same stripe; that only costs a cache miss.
+ */
+@Slf4j
+@Component
+public class ImageCache {
+
+    @Value("${storage.images.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${storage.images.cache.max-bytes:134217728}")
+    private long maxBytes;
+
+    @Value("${storage.images.cache.max-rows:1000}")
+    private int maxRows;
+
+    @Value("${storage.images.cache.prefetch-queue:32}")
+    private int prefetchQueue;
+
+    private static final int EVICTION_STRIPES = 64;
+
+    private ByteWeightedCache<String> bytes;
+    private final Map<String, ImageDataEntity> rows = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ImageDataEntity> eldest) {
+            return size() > maxRows;
+        }
+    };
+    // Guarded by rows: the stamp of the last eviction in each stripe, and the stamp counter
+    private final long[] evictedAt = new long[EVICTION_STRIPES];
+    private long stamp;
+    private ExecutorService prefetcher;
+    private final Set<String> prefetching = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        bytes = new ByteWeightedCache<>(maxBytes);
+        // Prefetches are only hints: when the queue is full new ones are dropped
+        prefetcher = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(prefetchQueue), r -> {
+            Thread t = new Thread(r, "image-prefetch");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public Optional<ImageDataEntity> row(String transformerNo, String inspectionNo, String type) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        synchronized (rows) {
+            return Optional.ofNullable(rows.get(key(transformerNo, inspectionNo, type))).map(ImageCache::copy);
+        }
+    }
+
+    /**
+     * Take before reading a row from the database and pass to {@link #putRow}.
+     */
+    public long stamp() {
+        synchronized (rows) {
+            return stamp;
+        }
+    }
+
+    /**
+     * Only rows whose bytes are in the image store are cached, so a cached row never holds an image.
+     * The row is not cached if the transformer was evicted after {@code readStamp} was taken.
+     */
+    public void putRow(String transformerNo, String inspectionNo, String type, ImageDataEntity entity, long readStamp) {
+        if (!enabled || entity.getImageRef() == null) {
+            return;
+        }
+        synchronized (rows) {
+            if (evictedAt[stripe(transformerNo)] > readStamp) {
+                return;
+            }
+            rows.put(key(transformerNo, inspectionNo, type), copy(entity));
+        }
+    }
+
+    /**
+     * Drops every cached row of the transformer; its baseline is shared by all of its inspections.
+     */
+    public void evict(String transformerNo) {
+        String prefix = transformerNo + "|";
+        synchronized (rows) {
+            evictedAt[stripe(transformerNo)] = ++stamp;
+            rows.keySet().removeIf(k -> k.startsWith(prefix));
+        }
+    }
+
+    public byte[] bytes(String imageHash) {
+        return enabled && imageHash != null ? bytes.get(imageHash) : null;
+    }
+
+    public void putBytes(String imageHash, byte[] image) {
+        if (enabled && imageHash != null) {
+            bytes.put(imageHash, image);
+        }
+    }
+
+    /**
+     * Runs {@code task} on the prefetch thread unless a task with the same {@code key} is already
+     * waiting or running. Dropped silently if the cache is disabled or the prefetch queue is full.
+     */
+    public void prefetch(String key, Runnable task) {
+        if (!enabled || !prefetching.add(key)) {
+            return;
+        }
+        try {
+            prefetcher.execute(() -> {
+                try {
+                    task.run();
+                } catch (RuntimeException ex) {
+                    log.debug("Image prefetch failed: {}", ex.getMessage());
+                } finally {
+                    prefetching.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            // queue full or shutting down
+            prefetching.remove(key);
+        }
+    }
+
+    private static String key(String transformerNo, String inspectionNo, String type) {
+        // A transformer has one baseline, whichever inspection asks for it
+        return transformerNo + "|" + ("Baseline".equals(type) ? "" : inspectionNo) + "|" + type;
+    }
+
+    private static int stripe(String transformerNo) {
+        return Math.floorMod(String.valueOf(transformerNo).hashCode(), EVICTION_STRIPES);
+    }
+
+    private static ImageDataEntity copy(ImageDataEntity entity) {
+        return ImageDataEntity.builder()
+                .id(entity.getId())
+                .type(entity.getType())
+                .transformerNo(entity.getTransformerNo())
+                .inspectionNo(entity.getInspectionNo())
+                .weather(entity.getWeather())
+                .uploader(entity.getUploader())
+                .dateTime(entity.getDateTime())
+                .imageRef(entity.getImageRef())
+                .imageHash(entity.getImageHash())
+                .imageSize(entity.getImageSize())
+                .detectionJson(entity.getDetectionJson())
+                .logs(entity.getLogs())
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        prefetcher.shutdownNow();
+    }
+}
@@ -0,0 +1,10 @@
+package com.TransformerUI.TransformerUI.service.storage;
+
+import java.nio.file.Path;
+
+/**
+ * An image ready to be sent as binary. Exactly one of {@code path} (a file in the image store,
+ * sent without copying it through the JVM) and {@code bytes} is set.
+ */
+public record ImageContent(String etag, String mediaType, long length, Path path, byte[] bytes) {
+}
@@ -0,0 +1,275 @@
+package com.TransformerUI.TransformerUI.service.storage;
+
+import com.TransformerUI.TransformerUI.entity.ImageDataEntity;
+import com.TransformerUI.TransformerUI.repository.ImageDataRepository;
+import com.TransformerUI.TransformerUI.service.util.HashUtil;
+import com.TransformerUI.TransformerUI.service.util.ImageTypeUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * The one place that knows where an image's bytes live. New images go to the {@link ImageStore}
+ * and the row keeps only the reference, size and hash; rows written before the store existed
+ * still carry their bytes in the {@code image} column until {@link ImageStoreMigrator} moves them.
+ *
+ * <p>Released blobs are deleted by a sweep after {@code release-grace-ms}, and only if no row
+ * refers to them and no upload has stored the same content within that time. A duplicate upload
+ * reuses the existing blob before its row is saved, so deleting as soon as the count reaches zero
+ * could leave the new row pointing at nothing.
+ *
+ * <p>Pending releases are only kept in memory, so a restart within the grace period forgets them.
+ * An orphan scan at startup and every {@code orphan-scan-interval-ms} recovers those blobs: it
+ * applies the same checks to every blob unused for the grace period that no row refers to.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageContentService {
+
+    private final ImageStore imageStore;
+    private final ImageDataRepository imageDataRepository;
+    private final ImageCache imageCache;
+
+    @Value("${storage.images.max-bytes:52428800}")
+    private long maxBytes;
+
+    @Value("${storage.images.release-grace-ms:600000}")
+    private long releaseGraceMs;
+
+    @Value("${storage.images.sweep-interval-ms:60000}")
+    private long sweepIntervalMs;
+
+    // 0 disables the scan
+    @Value("${storage.images.orphan-scan-interval-ms:86400000}")
+    private long orphanScanIntervalMs;
+
+    // Refs looked up in the database per query during the orphan scan
+    private static final int ORPHAN_SCAN_BATCH = 500;
+
+    // Released refs and when they were released
+    private final Map<String, Long> released = new ConcurrentHashMap<>();
+    private ScheduledExecutorService sweeper;
+
+    @PostConstruct
+    public void init() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "image-blob-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepIntervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
+        if (orphanScanIntervalMs > 0) {
+            // The first scan waits a sweep interval so startup is not slowed down
+            sweeper.scheduleWithFixedDelay(this::scanForOrphans, sweepIntervalMs, orphanScanIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void store(ImageDataEntity entity, byte[] bytes) throws IOException {
+        assign(entity, imageStore.put(bytes));
+    }
+
+    public void store(ImageDataEntity entity, InputStream upload, long declaredSize) throws IOException {
+        assign(entity, put(upload, declaredSize));
+    }
+
+    /**
+     * Streams an upload into the store; see {@link ImageStore#put(InputStream, long)}.
+     * {@code declaredSize} (-1 if unknown) rejects oversized uploads before copying them into the store.
+     */
+    public ImageStore.StoredBlob put(InputStream upload, long declaredSize) throws IOException {
+        if (declaredSize > maxBytes) {
+            throw new InvalidImageException("Upload exceeds the maximum image size of " + maxBytes + " bytes");
+        }
+        return imageStore.put(upload, maxBytes);
+    }
+
+    public static void assign(ImageDataEntity entity, ImageStore.StoredBlob blob) {
+        entity.setImageRef(blob.ref());
+        entity.setImageHash(blob.sha256());
+        entity.setImageSize(blob.size());
+        entity.setImage(null);
+    }
+
+    public byte[] load(ImageDataEntity entity) throws IOException {
+        if (entity.getImageRef() != null) {
+            byte[] cached = imageCache.bytes(entity.getImageHash());
+            return cached != null ? cached : imageStore.read(entity.getImageRef());
+        }
+        return entity.getImage();
+    }
+
+    /**
+     * Like {@link #load} but keeps the bytes in the {@link ImageCache}; for images that are read
+     * again and again, such as baselines.
+     */
+    public byte[] loadCached(ImageDataEntity entity) throws IOException {
+        byte[] image = load(entity);
+        if (entity.getImageRef() != null) {
+            imageCache.putBytes(entity.getImageHash(), image);
+        }
+        return image;
+    }
+
+    /**
+     * The image as a source that is read when it is written out, or null if its blob is missing.
+     */
+    public ImageSource source(ImageDataEntity entity) {
+        String ref = entity.getImageRef();
+        if (ref == null) {
+            return entity.getImage() == null ? null : ImageSource.of(entity.getImage());
+        }
+        byte[] cached = imageCache.bytes(entity.getImageHash());
+        if (cached != null) {
+            return ImageSource.of(cached);
+        }
+        if (!imageStore.exists(ref)) {
+            log.warn("Image blob {} of image {} is missing from the image store", ref, entity.getId());
+            return null;
+        }
+        long length = entity.getImageSize() == null ? -1 : entity.getImageSize();
+        return new ImageSource() {
+            @Override
+            public InputStream open() throws IOException {
+                return imageStore.open(ref);
+            }
+
+            @Override
+            public long length() {
+                return length;
+            }
+        };
+    }
+
+    public boolean hasContent(ImageDataEntity entity) {
+        if (entity.getImageRef() != null) {
+            return entity.getImageSize() == null || entity.getImageSize() > 0;
+        }
+        return entity.getImage() != null && entity.getImage().length > 0;
+    }
+
+    /**
+     * SHA-256 of the image; stored rows answer without touching the bytes.
+     */
+    public String hash(ImageDataEntity entity) throws IOException {
+        if (entity.getImageHash() != null) {
+            return entity.getImageHash();
+        }
+        return HashUtil.sha256Hex(load(entity));
+    }
+
+    /**
+     * The image for a binary response: the blob's file when the store has one, otherwise the
+     * bytes. The ETag is the quoted SHA-256, so it only changes when the image does.
+     */
+    public ImageContent content(ImageDataEntity entity) throws IOException {
+        String etag = "\"" + hash(entity) + "\"";
+        if (entity.getImageRef() != null) {
+            Path path = imageStore.localPath(entity.getImageRef());
+            if (path != null) {
+                byte[] header;
+                try (InputStream in = imageStore.open(entity.getImageRef())) {
+                    header = in.readNBytes(ImageTypeUtil.HEADER_LENGTH);
+                }
+                return new ImageContent(etag, mediaType(header), Files.size(path), path, null);
+            }
+        }
+        byte[] bytes = load(entity);
+        return new ImageContent(etag, mediaType(bytes), bytes.length, null, bytes);
+    }
+
+    private static String mediaType(byte[] header) {
+        String detected = ImageTypeUtil.detect(header);
+        return detected == null ? "application/octet-stream" : detected;
+    }
+
+    /**
+     * Marks the blob for deletion once no row refers to it any more. Call after the referring row
+     * is gone; the blob is removed by the next sweep after the grace period.
+     */
+    public void release(String ref) {
+        if (ref != null) {
+            released.put(ref, System.currentTimeMillis());
+        }
+    }
+
+    void sweep() {
+        long cutoff = System.currentTimeMillis() - releaseGraceMs;
+        for (Map.Entry<String, Long> entry : released.entrySet()) {
+            String ref = entry.getKey();
+            if (entry.getValue() > cutoff || !released.remove(ref, entry.getValue())) {
+                continue;
+            }
+            try {
+                if (imageDataRepository.countByImageRef(ref) == 0 && imageStore.deleteIfUnusedSince(ref, cutoff)) {
+                    log.debug("Deleted unreferenced image blob {}", ref);
+                }
+            } catch (IOException | RuntimeException ex) {
+                log.warn("Could not delete unreferenced image blob {}: {}", ref, ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Deletes blobs that no row refers to and that nothing has stored for the grace period, such
+     * as those released just before a restart. Returns how many were deleted.
+     */
+    int scanForOrphans() {
+        long cutoff = System.currentTimeMillis() - releaseGraceMs;
+        int deleted = 0;
+        try (Stream<String> refs = imageStore.refsUnusedSince(cutoff)) {
+            Iterator<String> it = refs.iterator();
+            List<String> batch = new ArrayList<>(ORPHAN_SCAN_BATCH);
+            while (it.hasNext()) {
+                batch.add(it.next());
+                if (batch.size() == ORPHAN_SCAN_BATCH || !it.hasNext()) {
+                    deleted += deleteOrphans(batch, cutoff);
+                    batch.clear();
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Image blob orphan scan stopped: {}", ex.getMessage());
+        }
+        if (deleted > 0) {
+            log.info("Orphan scan deleted {} unreferenced image blobs", deleted);
+        }
+        return deleted;
+    }
+
+    private int deleteOrphans(List<String> refs, long cutoff) throws IOException {
+        Set<String> referenced = new HashSet<>(imageDataRepository.findImageRefsIn(refs));
+        int deleted = 0;
+        for (String ref : refs) {
+            // A blob stored again since the listing has a newer time and is kept
+            if (!referenced.contains(ref) && imageStore.deleteIfUnusedSince(ref, cutoff)) {
+                released.remove(ref);
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+}
@@ -0,0 +1,217 @@
+package com.TransformerUI.TransformerUI.service.storage;
+
+import com.TransformerUI.TransformerUI.entity.ImageDataEntity;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.*;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Thumbnail and preview renditions of stored images, generated on first request by scaling the
+ * longer side down to the configured size and kept in a {@link ByteWeightedCache}. Renditions
+ * are keyed by image hash, so a replaced image never serves a stale thumbnail. Images that
+ * already fit are served as uploaded.
+ *
+ * <p>{@link #dimensions} gives the pixel size of the original and of a rendition, so clients can
+ * scale coordinates measured on the original, such as detection boxes, onto the image they show.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImageRenditions {
+
+    // Cached for images at or below the requested size: serve the original
+    private static final byte[] USE_ORIGINAL = new byte[0];
+    private static final int MAX_CACHED_DIMENSIONS = 4096;
+
+    /**
+     * Pixel size of the original image and of the rendition served for the requested size.
+     */
+    public record Dimensions(int originalWidth, int originalHeight, int width, int height) {
+    }
+
+    private final ImageContentService imageContentService;
+
+    @Value("${storage.images.renditions.thumbnail-size:256}")
+    private int thumbnailSize;
+
+    @Value("${storage.images.renditions.preview-size:1024}")
+    private int previewSize;
+
+    @Value("${storage.images.renditions.jpeg-quality:0.85}")
+    private float jpegQuality;
+
+    @Value("${storage.images.renditions.cache-max-bytes:67108864}")
+    private long cacheMaxBytes;
+
+    private ByteWeightedCache<String> cache;
+    // Original width and height by image hash, read from the image header
+    private final Map<String, int[]> originalSizes = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, int[]> eldest) {
+            return size() > MAX_CACHED_DIMENSIONS;
+        }
+    };
+
+    @PostConstruct
+    public void init() {
+        cache = new ByteWeightedCache<>(cacheMaxBytes);
+    }
+
+    /**
+     * The image at {@code size} for a binary response.
+     */
+    public ImageContent content(ImageDataEntity entity, ImageSize size) throws IOException {
+        byte[] rendition = rendition(entity, size);
+        if (rendition == null) {
+            return imageContentService.content(entity);
+        }
+        String etag = "\"" + imageContentService.hash(entity) + "-" + size.param() + "\"";
+        return new ImageContent(etag, "image/jpeg", rendition.length, null, rendition);
+    }
+
+    /**
+     * The image at {@code size} for the JSON view; full-size images are streamed from the store.
+     */
+    public ImageSource source(ImageDataEntity entity, ImageSize size) throws IOException {
+        byte[] rendition = rendition(entity, size);
+        return rendition == null ? imageContentService.source(entity) : ImageSource.of(rendition);
+    }
+
+    /**
+     * Size of the original and of the {@code size} rendition, or null if the image cannot be read.
+     * Only the image header is decoded.
+     */
+    public Dimensions dimensions(ImageDataEntity entity, ImageSize size) throws IOException {
+        String hash = imageContentService.hash(entity);
+        int[] original;
+        synchronized (originalSizes) {
+            original = originalSizes.get(hash);
+        }
+        if (original == null) {
+            original = readSize(imageContentService.source(entity));
+            if (original == null) {
+                return null;
+            }
+            synchronized (originalSizes) {
+                originalSizes.put(hash, original);
+            }
+        }
+        int width = original[0];
+        int height = original[1];
+        if (size != ImageSize.FULL) {
+            int maxSide = size == ImageSize.THUMBNAIL ? thumbnailSize : previewSize;
+            if (Math.max(width, height) > maxSide) {
+                width = scaledSide(original[0], original, maxSide);
+                height = scaledSide(original[1], original, maxSide);
+            }
+        }
+        return new Dimensions(original[0], original[1], width, height);
+    }
+
+    private static int[] readSize(ImageSource source) throws IOException {
+        if (source == null) {
+            return null;
+        }
+        try (InputStream in = source.open(); ImageInputStream iis = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = iis == null ? null : ImageIO.getImageReaders(iis);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                return new int[]{reader.getWidth(0), reader.getHeight(0)};
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // One side of an image whose longer side is scaled down to maxSide, as render does it
+    private static int scaledSide(int side, int[] original, int maxSide) {
+        double scale = (double) maxSide / Math.max(original[0], original[1]);
+        return Math.max(1, (int) Math.round(side * scale));
+    }
+
+    /**
+     * Scaled JPEG bytes, or null when the original should be served.
+     */
+    private byte[] rendition(ImageDataEntity entity, ImageSize size) throws IOException {
+        if (size == ImageSize.FULL) {
+            return null;
+        }
+        int maxSide = size == ImageSize.THUMBNAIL ? thumbnailSize : previewSize;
+        String key = imageContentService.hash(entity) + ":" + maxSide;
+        byte[] cached = cache.get(key);
+        if (cached == null) {
+            // Two first requests may both render; the results are identical
+            cached = render(imageContentService.load(entity), maxSide);
+            cache.put(key, cached);
+        }
+        return cached.length == 0 ? null : cached;
+    }
+
+    private byte[] render(byte[] original, int maxSide) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(original));
+        if (image == null) {
+            log.warn("Could not decode image for a rendition; serving the original");
+            return USE_ORIGINAL;
+        }
+        if (Math.max(image.getWidth(), image.getHeight()) <= maxSide) {
+            return USE_ORIGINAL;
+        }
+        int[] original = {image.getWidth(), image.getHeight()};
+        return encodeJpeg(scale(image, scaledSide(original[0], original, maxSide), scaledSide(original[1], original, maxSide)));
+    }
+
+    // Halving in steps keeps bilinear scaling from skipping pixels on large reductions
+    private static BufferedImage scale(BufferedImage image, int width, int height) {
+        BufferedImage current = image;
+        int w = image.getWidth();
+        int h = image.getHeight();
+        do {
+            w = Math.max(width, w / 2);
+            h = Math.max(height, h / 2);
+            BufferedImage next = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.drawImage(current, 0, 0, w, h, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (w != width || h != height);
+        return current;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32 * 1024);
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,27 @@
+package com.TransformerUI.TransformerUI.service.storage;
+
+import java.util.Locale;
+
+/**
+ * Resolutions an image can be served at. Thumbnails suit lists, previews the annotation canvas;
+ * {@code FULL} is the image as uploaded.
+ */
+public enum ImageSize {
+    THUMBNAIL,
+    PREVIEW,
+    FULL;
+
+    /**
+     * Case-insensitive; null or blank means {@code FULL}.
+     */
+    public static ImageSize parse(String value) {
+        if (value == null || value.isBlank()) {
+            return FULL;
+        }
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+
+    public String param() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
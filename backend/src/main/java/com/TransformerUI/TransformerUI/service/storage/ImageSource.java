@@ -0,0 +1,33 @@
+package com.TransformerUI.TransformerUI.service.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Image bytes that are read only when they are written out, e.g. by the JSON serializer, so a
+ * response can stream an image from the store instead of holding it.
+ */
+public interface ImageSource {
+
+    InputStream open() throws IOException;
+
+    /**
+     * Length in bytes, or -1 if unknown.
+     */
+    long length();
+
+    static ImageSource of(byte[] bytes) {
+        return new ImageSource() {
+            @Override
+            public InputStream open() {
+                return new ByteArrayInputStream(bytes);
+            }
+
+            @Override
+            public long length() {
+                return bytes.length;
+            }
+        };
+    }
+}
@@ -0,0 +1,56 @@
+package com.TransformerUI.TransformerUI.service.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed blob storage for image bytes. A blob is referenced by the SHA-256 of its
+ * content, so storing the same image twice keeps one copy; storing it again still marks the blob
+ * as just used, which {@link #deleteIfUnusedSince} relies on. The implementation is chosen with
+ * {@code storage.images.type}.
+ */
+public interface ImageStore {
+
+    /**
+     * Stores {@code bytes} unless a blob with the same content already exists.
+     */
+    StoredBlob put(byte[] bytes) throws IOException;
+
+    /**
+     * Streams an upload into the store in fixed-size chunks, hashing it on the way, so the
+     * upload is never held in memory. Throws {@link InvalidImageException} as soon as the
+     * content read from {@code in} turns out not to be an image or to exceed {@code maxBytes};
+     * whatever the source already buffered, such as a spooled multipart part, has been received.
+     */
+    StoredBlob put(InputStream in, long maxBytes) throws IOException;
+
+    byte[] read(String ref) throws IOException;
+
+    InputStream open(String ref) throws IOException;
+
+    boolean exists(String ref);
+
+    void delete(String ref) throws IOException;
+
+    /**
+     * Deletes the blob unless it was written, or stored again as a duplicate, at or after
+     * {@code cutoffMillis}. Returns whether it was deleted.
+     */
+    boolean deleteIfUnusedSince(String ref, long cutoffMillis) throws IOException;
+
+    /**
+     * Refs of the blobs last written or stored again before {@code cutoffMillis}, read lazily;
+     * close the stream when done.
+     */
+    Stream<String> refsUnusedSince(long cutoffMillis) throws IOException;
+
+    /**
+     * The blob's file when the store keeps blobs on the local file system, otherwise null.
+     */
+    Path localPath(String ref);
+
+    record StoredBlob(String ref, String sha256, long size) {
+    }
+}
@@ -0,0 +1,114 @@
+package com.TransformerUI.TransformerUI.service.storage;
+
+import com.TransformerUI.TransformerUI.entity.ImageDataEntity;
+import com.TransformerUI.TransformerUI.repository.ImageDataRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves images still stored in the {@code image} column into the {@link ImageStore}, one small
+ * transaction per row so a large table never has to fit in memory. Runs in the background at
+ * startup when {@code storage.images.migrate-on-startup} is set, or on demand.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImageStoreMigrator {
+
+    private final ImageDataRepository imageDataRepository;
+    private final ImageContentService imageContentService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${storage.images.migrate-on-startup:false}")
+    private boolean migrateOnStartup;
+
+    @Value("${storage.images.migrate-batch-size:50}")
+    private int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (migrateOnStartup) {
+            Thread t = new Thread(this::migrate, "image-store-migration");
+            t.setDaemon(true);
+            t.start();
+        }
+    }
+
+    /**
+     * {@code failedIds} are rows that could not be moved; they keep their bytes in the table.
+     */
+    public record Result(int migrated, List<Long> failedIds) {
+    }
+
+    /**
+     * Migrates every legacy row once, walking the table by id, and returns what was moved and
+     * what failed; null if a migration is already running.
+     */
+    public Result migrate() {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        int migrated = 0;
+        List<Long> failedIds = new ArrayList<>();
+        try {
+            long lastId = 0;
+            while (true) {
+                List<Long> ids = imageDataRepository.findIdsWithLegacyImageAfter(lastId, PageRequest.of(0, batchSize));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                for (Long id : ids) {
+                    if (migrateRow(id)) {
+                        migrated++;
+                    } else {
+                        failedIds.add(id);
+                    }
+                }
+                lastId = ids.get(ids.size() - 1);
+            }
+            if (failedIds.isEmpty()) {
+                log.info("Moved {} images from the images table into the image store", migrated);
+            } else {
+                log.warn("Moved {} images from the images table into the image store; could not move images {}",
+                        migrated, failedIds);
+            }
+            return new Result(migrated, failedIds);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private boolean migrateRow(Long id) {
+        try {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                ImageDataEntity entity = imageDataRepository.findById(id).orElse(null);
+                if (entity == null || entity.getImageRef() != null || entity.getImage() == null) {
+                    return true;
+                }
+                try {
+                    imageContentService.store(entity, entity.getImage());
+                } catch (IOException ex) {
+                    throw new IllegalStateException(ex);
+                }
+                imageDataRepository.save(entity);
+                return true;
+            }));
+        } catch (RuntimeException ex) {
+            log.warn("Could not move image {} into the image store: {}", id, ex.getMessage());
+            return false;
+        }
+    }
+}
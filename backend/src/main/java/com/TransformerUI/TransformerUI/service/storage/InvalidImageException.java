@@ -0,0 +1,13 @@
+package com.TransformerUI.TransformerUI.service.storage;
+
+/**
+ * Thrown while an upload is streamed into the {@link ImageStore} when it is larger than
+ * {@code storage.images.max-bytes} or does not start like an image. Nothing is kept from a
+ * rejected upload.
+ */
+public class InvalidImageException extends RuntimeException {
+
+    public InvalidImageException(String message) {
+        super(message);
+    }
+}
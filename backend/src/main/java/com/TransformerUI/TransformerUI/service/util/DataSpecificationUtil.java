@@ -1,56 +1,218 @@
 package com.TransformerUI.TransformerUI.service.util;
 
+import com.TransformerUI.TransformerUI.service.util.exception.type.BaseException;
 import com.TransformerUI.TransformerUI.transport.request.FilterRequest;
 import com.TransformerUI.TransformerUI.transport.request.FilterValue;
+import com.TransformerUI.TransformerUI.transport.response.ResponseCodeEnum;
 import jakarta.persistence.criteria.*;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
 import org.springframework.data.jpa.domain.Specification;
 
-import java.lang.reflect.Field;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Turns a {@link FilterRequest} into a JPA {@link Specification}. The filterable columns of each
+ * entity are read from the metamodel once and cached, and every filter is checked and its values
+ * converted to the column type before the query runs, so a bad column, operation or value is
+ * reported as a bad request instead of being skipped or failing in the database.
+ *
+ * <p>Operations: {@code Include} (case-insensitive contains), {@code StartsWith}
+ * (case-insensitive prefix), {@code Equal}, {@code NotEqual}, {@code In}, {@code Between},
+ * {@code GreaterThan} and {@code LessThan}. {@code In} takes any number of values,
+ * {@code Between} takes two (both inclusive) and the others use the first value.
+ */
 public class DataSpecificationUtil {
 
-    public static <T> Specification<T> buildSpecification(FilterRequest filterRequest) {
-        return (Root<T> root, CriteriaQuery<?> query, CriteriaBuilder cb) -> {
-            List<Predicate> predicates = new ArrayList<>();
-
-            if (filterRequest.getFilterValues() != null) {
-                for (FilterValue filter : filterRequest.getFilterValues()) {
-                    String column = filter.getColumnName();
-                    Object[] values = filter.getValue();
-                    String operation = filter.getOperation();
-
-                    // ✅ Check if this column exists on the entity
-                    boolean columnExists = false;
-                    for (Field field : root.getJavaType().getDeclaredFields()) {
-                        if (field.getName().equals(column)) {
-                            columnExists = true;
-                            break;
-                        }
-                    }
+    private static final Map<Class<?>, Map<String, Column>> COLUMNS = new ConcurrentHashMap<>();
 
-                    if (!columnExists) {
-                        continue; // Skip this filter
-                    }
+    private DataSpecificationUtil() {
+    }
+
+    private record Column(String name, Class<?> type) {
+    }
+
+    @FunctionalInterface
+    private interface CompiledFilter {
+        Predicate toPredicate(Root<?> root, CriteriaBuilder cb);
+    }
+
+    public static <T> Specification<T> buildSpecification(EntityType<T> entityType, FilterRequest filterRequest)
+            throws BaseException {
+        List<CompiledFilter> filters = new ArrayList<>();
+        if (filterRequest.getFilterValues() != null) {
+            for (FilterValue filter : filterRequest.getFilterValues()) {
+                Column column = column(entityType, filter.getColumnName());
+                Object[] values = filter.getValue();
+                if (values == null || values.length == 0) {
+                    continue; // A filter without a value matches everything, as before
+                }
+                filters.add(compile(column, filter.getOperation(), values));
+            }
+        }
+        return (Root<T> root, CriteriaQuery<?> query, CriteriaBuilder cb) -> cb.and(filters.stream()
+                .map(filter -> filter.toPredicate(root, cb))
+                .toArray(Predicate[]::new));
+    }
+
+    /**
+     * Java type of a filterable column, rejecting names that are not basic attributes of the entity.
+     */
+    public static Class<?> columnType(EntityType<?> entityType, String columnName) throws BaseException {
+        return column(entityType, columnName).type();
+    }
+
+    /**
+     * Converts a request value to the type of {@code columnName}, as filter values are.
+     */
+    public static Object columnValue(EntityType<?> entityType, String columnName, Object value) throws BaseException {
+        return convert(column(entityType, columnName), value);
+    }
+
+    private static Column column(EntityType<?> entityType, String columnName) throws BaseException {
+        Column column = columnName == null ? null : columns(entityType).get(columnName);
+        if (column == null) {
+            throw badRequest("Unknown filter column: " + columnName);
+        }
+        return column;
+    }
+
+    private static Map<String, Column> columns(EntityType<?> entityType) {
+        return COLUMNS.computeIfAbsent(entityType.getJavaType(), type -> {
+            Map<String, Column> columns = new HashMap<>();
+            for (SingularAttribute<?, ?> attribute : entityType.getSingularAttributes()) {
+                if (attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.BASIC) {
+                    columns.put(attribute.getName(), new Column(attribute.getName(), boxed(attribute.getJavaType())));
+                }
+            }
+            return Map.copyOf(columns);
+        });
+    }
 
-                    if (values != null && values.length > 0) {
-                        String val = values[0].toString();
-
-                        switch (operation) {
-                            case "Include":
-                                predicates.add(cb.like(cb.lower(root.get(column)), "%" + val.toLowerCase() + "%"));
-                                break;
-                            case "Equal":
-                                predicates.add(cb.equal(root.get(column), val));
-                                break;
-                            // Add more cases like "NotEqual", "GreaterThan" if needed
-                        }
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static CompiledFilter compile(Column column, String operation, Object[] values) throws BaseException {
+        String name = column.name();
+        switch (operation == null ? "" : operation) {
+            case "Include": {
+                String pattern = "%" + escapeLike(text(column, values[0]).toLowerCase()) + "%";
+                return (root, cb) -> cb.like(cb.lower(root.get(name)), pattern, '\\');
+            }
+            case "StartsWith": {
+                String pattern = escapeLike(text(column, values[0]).toLowerCase()) + "%";
+                return (root, cb) -> cb.like(cb.lower(root.get(name)), pattern, '\\');
+            }
+            case "Equal": {
+                Object value = convert(column, values[0]);
+                return (root, cb) -> cb.equal(root.get(name), value);
+            }
+            case "NotEqual": {
+                Object value = convert(column, values[0]);
+                return (root, cb) -> cb.notEqual(root.get(name), value);
+            }
+            case "In": {
+                List<Object> converted = new ArrayList<>(values.length);
+                for (Object value : values) {
+                    converted.add(convert(column, value));
+                }
+                return (root, cb) -> root.get(name).in(converted);
+            }
+            case "Between": {
+                if (values.length < 2) {
+                    throw badRequest("Between on " + name + " needs two values");
+                }
+                Comparable lower = comparable(column, values[0]);
+                Comparable upper = comparable(column, values[1]);
+                return (root, cb) -> cb.between(root.get(name), lower, upper);
+            }
+            case "GreaterThan": {
+                Comparable value = comparable(column, values[0]);
+                return (root, cb) -> cb.greaterThan(root.get(name), value);
+            }
+            case "LessThan": {
+                Comparable value = comparable(column, values[0]);
+                return (root, cb) -> cb.lessThan(root.get(name), value);
+            }
+            default:
+                throw badRequest("Unsupported filter operation: " + operation);
+        }
+    }
+
+    private static String text(Column column, Object value) throws BaseException {
+        if (column.type() != String.class) {
+            throw badRequest("Column " + column.name() + " is not a text column");
+        }
+        return convert(column, value).toString();
+    }
+
+    private static Comparable<?> comparable(Column column, Object value) throws BaseException {
+        Object converted = convert(column, value);
+        if (!(converted instanceof Comparable<?> comparable)) {
+            throw badRequest("Column " + column.name() + " cannot be compared");
+        }
+        return comparable;
+    }
+
+    private static Object convert(Column column, Object value) throws BaseException {
+        if (value == null) {
+            throw badRequest("Null value for filter column " + column.name());
+        }
+        Class<?> type = column.type();
+        if (type.isInstance(value)) {
+            return value;
+        }
+        String raw = value.toString().trim();
+        try {
+            if (type == String.class) {
+                return value.toString();
+            } else if (type == Long.class) {
+                return Long.valueOf(raw);
+            } else if (type == Integer.class) {
+                return Integer.valueOf(raw);
+            } else if (type == Double.class) {
+                return Double.valueOf(raw);
+            } else if (type == Float.class) {
+                return Float.valueOf(raw);
+            } else if (type == Boolean.class && ("true".equalsIgnoreCase(raw) || "false".equalsIgnoreCase(raw))) {
+                return Boolean.valueOf(raw);
+            } else if (type.isEnum()) {
+                for (Object constant : type.getEnumConstants()) {
+                    if (((Enum<?>) constant).name().equals(raw)) {
+                        return constant;
                     }
                 }
             }
+        } catch (IllegalArgumentException ex) {
+            // NumberFormatException included; reported below
+        }
+        throw badRequest("Invalid value '" + value + "' for filter column " + column.name());
+    }
+
+    private static Class<?> boxed(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        if (type == long.class) {
+            return Long.class;
+        } else if (type == int.class) {
+            return Integer.class;
+        } else if (type == double.class) {
+            return Double.class;
+        } else if (type == float.class) {
+            return Float.class;
+        } else if (type == boolean.class) {
+            return Boolean.class;
+        }
+        return type;
+    }
+
+    // The user's text is matched literally; % and _ are not wildcards
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
 
-            return cb.and(predicates.toArray(new Predicate[0]));
-        };
+    private static BaseException badRequest(String message) {
+        return new BaseException(ResponseCodeEnum.BAD_REQUEST.code(), message);
     }
 }
@@ -0,0 +1,223 @@
+package com.TransformerUI.TransformerUI.service.util;
+
+import com.TransformerUI.TransformerUI.service.util.exception.type.BaseException;
+import com.TransformerUI.TransformerUI.transport.request.FilterRequest;
+import com.TransformerUI.TransformerUI.transport.response.PageDetail;
+import com.TransformerUI.TransformerUI.transport.response.ResponseCodeEnum;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Table;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.*;
+import jakarta.persistence.metamodel.EntityType;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Runs a {@link FilterRequest} as one page of rows ordered by {@code sortColumn} with the id as
+ * tie-breaker. Every page carries an opaque {@code nextCursor}; a request that sends it back
+ * continues after the last row with a keyset predicate instead of an OFFSET, so deep pages cost
+ * the same as the first. The total is counted exactly, estimated from planner statistics, or
+ * skipped, as the request asks.
+ *
+ * <p>Ordering follows PostgreSQL's defaults (nulls first when descending, last when ascending),
+ * and the keyset predicate places null sort values the same way.
+ */
+@Service
+public class FilterPageService {
+
+    private static final int DEFAULT_LIMIT = 10;
+    private static final String CURSOR_VERSION = "1";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public record FilterPage<T>(List<T> content, PageDetail pageDetail) {
+    }
+
+    private enum CountMode {
+        EXACT, ESTIMATE, NONE
+    }
+
+    // lastId is null on the first page; lastValue is null when the last row had no value
+    record Cursor(String column, boolean descending, Object lastId, String lastValue) {
+    }
+
+    public <T> FilterPage<T> find(Class<T> entityClass, FilterRequest request) throws BaseException {
+        EntityType<T> entityType = entityManager.getMetamodel().entity(entityClass);
+        Specification<T> spec = DataSpecificationUtil.buildSpecification(entityType, request);
+        int limit = request.getLimit() != null ? request.getLimit() : DEFAULT_LIMIT;
+        int offset = request.getOffset() != null ? request.getOffset() : 0;
+        if (limit <= 0 || offset < 0) {
+            throw badRequest("limit must be positive and offset must not be negative");
+        }
+        boolean continued = request.getCursor() != null && !request.getCursor().isBlank();
+        String idColumn = entityType.getId(entityType.getIdType().getJavaType()).getName();
+        Cursor cursor = continued ? decode(request.getCursor()) : firstPage(request, idColumn);
+        if (!Comparable.class.isAssignableFrom(DataSpecificationUtil.columnType(entityType, cursor.column()))) {
+            throw badRequest("Cannot sort by " + cursor.column());
+        }
+        CountMode countMode = countMode(request.getCount(), continued ? CountMode.NONE : CountMode.EXACT);
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(entityClass);
+        Root<T> root = query.from(entityClass);
+        Predicate where = spec.toPredicate(root, query, cb);
+        if (continued) {
+            where = cb.and(where, after(cb, root, entityType, idColumn, cursor));
+        }
+        query.where(where);
+        query.orderBy(orders(cb, root, idColumn, cursor));
+        // One extra row tells whether another page follows
+        TypedQuery<T> typed = entityManager.createQuery(query).setMaxResults(limit + 1);
+        if (!continued) {
+            typed.setFirstResult(offset);
+        }
+        List<T> rows = typed.getResultList();
+        boolean hasMore = rows.size() > limit;
+        List<T> content = hasMore ? rows.subList(0, limit) : rows;
+
+        PageDetail pageDetail = new PageDetail();
+        pageDetail.setPageElementCount(String.valueOf(content.size()));
+        if (!continued) {
+            pageDetail.setPageNumber(String.valueOf(offset / limit + 1));
+        }
+        if (hasMore) {
+            pageDetail.setNextCursor(encode(cursor, content.get(content.size() - 1), idColumn));
+        }
+        switch (countMode) {
+            case EXACT -> pageDetail.setTotalRecords(String.valueOf(count(entityClass, spec)));
+            case ESTIMATE -> {
+                long estimate = hasFilters(request) ? -1 : estimate(entityClass);
+                if (estimate >= 0) {
+                    pageDetail.setTotalRecords(String.valueOf(estimate));
+                    pageDetail.setTotalRecordsEstimated("true");
+                } else {
+                    // Statistics describe the whole table, so filtered requests are counted
+                    pageDetail.setTotalRecords(String.valueOf(count(entityClass, spec)));
+                }
+            }
+            case NONE -> {
+            }
+        }
+        return new FilterPage<>(content, pageDetail);
+    }
+
+    private static Cursor firstPage(FilterRequest request, String idColumn) throws BaseException {
+        String column = request.getSortColumn() != null && !request.getSortColumn().isBlank()
+                ? request.getSortColumn() : idColumn;
+        String direction = request.getSortDirection();
+        if (direction != null && !direction.equalsIgnoreCase("ASC") && !direction.equalsIgnoreCase("DESC")) {
+            throw badRequest("sortDirection must be ASC or DESC");
+        }
+        return new Cursor(column, direction == null || direction.equalsIgnoreCase("DESC"), null, null);
+    }
+
+    private static CountMode countMode(String count, CountMode fallback) throws BaseException {
+        if (count == null || count.isBlank()) {
+            return fallback;
+        }
+        try {
+            return CountMode.valueOf(count.trim().toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            throw badRequest("count must be EXACT, ESTIMATE or NONE");
+        }
+    }
+
+    private static List<Order> orders(CriteriaBuilder cb, Root<?> root, String idColumn, Cursor cursor) {
+        List<Order> orders = new ArrayList<>(2);
+        if (!cursor.column().equals(idColumn)) {
+            orders.add(cursor.descending() ? cb.desc(root.get(cursor.column())) : cb.asc(root.get(cursor.column())));
+        }
+        orders.add(cursor.descending() ? cb.desc(root.get(idColumn)) : cb.asc(root.get(idColumn)));
+        return orders;
+    }
+
+    /**
+     * Rows that come after the cursor's row in {@link #orders} order.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Predicate after(CriteriaBuilder cb, Root<?> root, EntityType<?> entityType, String idColumn,
+                                   Cursor cursor) throws BaseException {
+        Comparable lastId = (Comparable) DataSpecificationUtil.columnValue(entityType, idColumn, cursor.lastId());
+        Path<Comparable> id = root.get(idColumn);
+        Predicate idAfter = cursor.descending() ? cb.lessThan(id, lastId) : cb.greaterThan(id, lastId);
+        if (cursor.column().equals(idColumn)) {
+            return idAfter;
+        }
+        Path<Comparable> column = root.get(cursor.column());
+        if (cursor.lastValue() == null) {
+            // Descending puts nulls first, so every non-null row follows; ascending puts them last
+            return cursor.descending()
+                    ? cb.or(cb.and(cb.isNull(column), idAfter), cb.isNotNull(column))
+                    : cb.and(cb.isNull(column), idAfter);
+        }
+        Comparable lastValue = (Comparable) DataSpecificationUtil.columnValue(entityType, cursor.column(), cursor.lastValue());
+        Predicate valueAfter = cursor.descending() ? cb.lessThan(column, lastValue) : cb.greaterThan(column, lastValue);
+        Predicate tieAfter = cb.and(cb.equal(column, lastValue), idAfter);
+        return cursor.descending()
+                ? cb.or(valueAfter, tieAfter)
+                : cb.or(valueAfter, tieAfter, cb.isNull(column));
+    }
+
+    private <T> long count(Class<T> entityClass, Specification<T> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(entityClass);
+        query.select(cb.count(root)).where(spec.toPredicate(root, query, cb));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    // The planner's row estimate from the last ANALYZE; -1 when the table has not been analyzed yet
+    private long estimate(Class<?> entityClass) {
+        Table table = entityClass.getAnnotation(Table.class);
+        if (table == null) {
+            return -1;
+        }
+        Number estimate = (Number) entityManager
+                .createNativeQuery("SELECT reltuples FROM pg_class WHERE oid = to_regclass(:table)")
+                .setParameter("table", table.name())
+                .getResultStream()
+                .findFirst()
+                .orElse(null);
+        return estimate == null ? -1 : Math.round(estimate.doubleValue());
+    }
+
+    private static boolean hasFilters(FilterRequest request) {
+        return request.getFilterValues() != null && request.getFilterValues().stream()
+                .anyMatch(filter -> filter.getValue() != null && filter.getValue().length > 0);
+    }
+
+    static String encode(Cursor cursor, Object lastRow, String idColumn) {
+        var row = PropertyAccessorFactory.forDirectFieldAccess(lastRow);
+        Object value = row.getPropertyValue(cursor.column());
+        String token = String.join("|", CURSOR_VERSION, cursor.column(), cursor.descending() ? "D" : "A",
+                String.valueOf(row.getPropertyValue(idColumn)), value == null ? "N" : "V" + value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Cursor decode(String token) throws BaseException {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|", 5);
+            if (parts.length == 5 && CURSOR_VERSION.equals(parts[0])
+                    && (parts[2].equals("D") || parts[2].equals("A"))
+                    && (parts[4].equals("N") || parts[4].startsWith("V"))) {
+                return new Cursor(parts[1], parts[2].equals("D"), parts[3],
+                        parts[4].equals("N") ? null : parts[4].substring(1));
+            }
+        } catch (IllegalArgumentException ex) {
+            // not base64; reported below
+        }
+        throw badRequest("Invalid cursor");
+    }
+
+    private static BaseException badRequest(String message) {
+        return new BaseException(ResponseCodeEnum.BAD_REQUEST.code(), message);
+    }
+}
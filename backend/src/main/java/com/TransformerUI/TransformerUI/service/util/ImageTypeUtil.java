@@ -0,0 +1,56 @@
+package com.TransformerUI.TransformerUI.service.util;
+
+/**
+ * Recognizes image formats from their leading bytes, so stored images can be served with the
+ * right content type without trusting the file name or the client's declared type.
+ */
+public class ImageTypeUtil {
+
+    // Enough leading bytes to tell every supported format apart
+    public static final int HEADER_LENGTH = 12;
+
+    private ImageTypeUtil() {
+    }
+
+    /**
+     * Media type of the image starting with {@code header}, or null if it is not a known image
+     * format.
+     */
+    public static String detect(byte[] header) {
+        if (header == null) {
+            return null;
+        }
+        if (startsWith(header, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(header, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
+        }
+        if (startsWith(header, 'G', 'I', 'F', '8')) {
+            return "image/gif";
+        }
+        if (startsWith(header, 'B', 'M')) {
+            return "image/bmp";
+        }
+        if (startsWith(header, 'I', 'I', 0x2A, 0x00) || startsWith(header, 'M', 'M', 0x00, 0x2A)) {
+            return "image/tiff";
+        }
+        if (startsWith(header, 'R', 'I', 'F', 'F') && header.length >= 12
+                && header[8] == 'W' && header[9] == 'E' && header[10] == 'B' && header[11] == 'P') {
+            return "image/webp";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] data, int... prefix) {
+        if (data.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if ((data[i] & 0xFF) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
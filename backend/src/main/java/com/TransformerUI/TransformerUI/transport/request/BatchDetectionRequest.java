@@ -0,0 +1,17 @@
+package com.TransformerUI.TransformerUI.transport.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchDetectionRequest {
+    // Detect every thermal image of this transformer ...
+    private String transformerNo;
+    // ... and/or these specific transformer/inspection pairs
+    private List<DetectionTarget> targets;
+}
@@ -0,0 +1,17 @@
+package com.TransformerUI.TransformerUI.transport.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkManifestEntry {
+    // Path of the image inside the archive, or just its file name
+    private String file;
+    private String transformerNo;
+    private String inspectionNo;
+    private String type;
+    private String weather;
+}
@@ -0,0 +1,13 @@
+package com.TransformerUI.TransformerUI.transport.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DetectionTarget {
+    private String transformerNo;
+    private String inspectionNo;
+}
@@ -13,6 +13,14 @@ public class FilterRequest {
     private List<FilterValue> filterValues;
     private String tableTemplateId;
     private Boolean defaultTableTemplate;
+    // Number of rows to skip; ignored when a cursor is given
     private Integer offset;
     private Integer limit;
+    // pageDetail.nextCursor of the previous page; continues with the same sort
+    private String cursor;
+    // Defaults to id, descending
+    private String sortColumn;
+    private String sortDirection;
+    // EXACT, ESTIMATE or NONE; defaults to EXACT for offset pages and NONE for cursor pages
+    private String count;
 }
@@ -0,0 +1,29 @@
+package com.TransformerUI.TransformerUI.transport.response;
+
+import com.TransformerUI.TransformerUI.service.storage.ImageSource;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Writes an {@link ImageSource} as a base64 JSON string, encoding it chunk by chunk straight
+ * into the response instead of building the string first. The output is the same as
+ * {@code Base64.getEncoder().encodeToString(bytes)}.
+ */
+public class Base64ImageSerializer extends StdSerializer<ImageSource> {
+
+    public Base64ImageSerializer() {
+        super(ImageSource.class);
+    }
+
+    @Override
+    public void serialize(ImageSource source, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        long length = source.length();
+        try (InputStream in = source.open()) {
+            gen.writeBinary(in, length >= 0 && length <= Integer.MAX_VALUE ? (int) length : -1);
+        }
+    }
+}
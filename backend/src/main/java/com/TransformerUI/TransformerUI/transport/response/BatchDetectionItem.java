@@ -0,0 +1,18 @@
+package com.TransformerUI.TransformerUI.transport.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchDetectionItem {
+    private String transformerNo;
+    private String inspectionNo;
+    private String responseCode;
+    private String responseDescription;
+    private AnomaliesResponse anomaliesResponse;
+}
@@ -0,0 +1,17 @@
+package com.TransformerUI.TransformerUI.transport.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchDetectionResponse {
+    private int total;
+    private int succeeded;
+    private int failed;
+    private List<BatchDetectionItem> results;
+}
@@ -0,0 +1,29 @@
+package com.TransformerUI.TransformerUI.transport.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkIngestItem {
+    public static final String STORED = "STORED";
+    public static final String FAILED = "FAILED";
+    // The archive file could not be read or is not an image
+    public static final String REJECTED = "REJECTED";
+    // The archive file was not used: not in the manifest, or its manifest entry was already matched
+    public static final String SKIPPED = "SKIPPED";
+    // The manifest names a file the archive does not contain
+    public static final String MISSING = "MISSING";
+
+    private String file;
+    private String transformerNo;
+    private String inspectionNo;
+    private String type;
+    private String status;
+    private String responseCode;
+    private String responseDescription;
+}
@@ -0,0 +1,21 @@
+package com.TransformerUI.TransformerUI.transport.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkIngestResponse {
+    private int total;
+    private int stored;
+    // Archive files that were not used; they do not count as failed
+    private int skipped;
+    private int failed;
+    // Thermal images handed to a background batch detection
+    private int detectionQueued;
+    private List<BulkIngestItem> items;
+}
@@ -0,0 +1,22 @@
+package com.TransformerUI.TransformerUI.transport.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChangeMapResponse {
+    private String transformerNo;
+    private String inspectionNo;
+    // Heatmap grid size and the baseline offset (in grid cells) that aligned best
+    private int width;
+    private int height;
+    private int offsetX;
+    private int offsetY;
+    // Mean per-cell difference in standard deviations, and the share of cells above the threshold
+    private double meanDifference;
+    private double changedFraction;
+    private String heatmapBase64;
+}
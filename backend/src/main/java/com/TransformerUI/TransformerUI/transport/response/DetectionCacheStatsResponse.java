@@ -0,0 +1,17 @@
+package com.TransformerUI.TransformerUI.transport.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DetectionCacheStatsResponse {
+    private String modelVersion;
+    private int memoryEntries;
+    private int maxMemoryEntries;
+    private long memoryHits;
+    private long persistentHits;
+    private long misses;
+}
@@ -0,0 +1,24 @@
+package com.TransformerUI.TransformerUI.transport.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DetectionJobResponse {
+    private String jobId;
+    private String transformerNo;
+    private String inspectionNo;
+    // QUEUED, RUNNING, COMPLETED or FAILED
+    private String status;
+    private Long submittedAt;
+    private Long startedAt;
+    private Long finishedAt;
+    // Outcome of the detection once the job has finished
+    private String resultCode;
+    private String resultDescription;
+}
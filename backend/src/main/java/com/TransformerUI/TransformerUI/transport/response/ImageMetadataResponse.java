@@ -0,0 +1,25 @@
+package com.TransformerUI.TransformerUI.transport.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImageMetadataResponse {
+    private Long id;
+    private String transformerNo;
+    private String inspectionNo;
+    private String type;
+    private String weather;
+    private String uploader;
+    private String dateTime;
+    // Bytes; null until the image has been moved into the image store
+    private Long imageSize;
+    private String imageHash;
+    // False until detection has run on the image
+    private boolean detected;
+    private int anomalyCount;
+    private String photoUrl;
+}
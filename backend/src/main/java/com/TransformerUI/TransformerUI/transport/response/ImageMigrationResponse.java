@@ -0,0 +1,16 @@
+package com.TransformerUI.TransformerUI.transport.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageMigrationResponse {
+    private int migrated;
+    // Rows that still hold their bytes in the images table
+    private List<Long> failedIds;
+}
@@ -1,5 +1,7 @@
 package com.TransformerUI.TransformerUI.transport.response;
 
+import com.TransformerUI.TransformerUI.service.storage.ImageSource;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -15,6 +17,16 @@ public class ImageResponse {
     private String weather;
     private AnomaliesResponse anomaliesResponse;
     private String dateTime;
-    private String photoBase64;
+    // Serialized as the base64 string clients expect, streamed from the image store
+    @JsonSerialize(using = Base64ImageSerializer.class)
+    private ImageSource photoBase64;
     private String logs;
+    // Binary image endpoint for this image; photoBase64 is left out when the caller asks for the URL only
+    private String photoUrl;
+    // Pixel size of the uploaded image; detection boxes are in these coordinates
+    private Integer originalWidth;
+    private Integer originalHeight;
+    // Pixel size of the image served for the requested size (equal to the original for full)
+    private Integer width;
+    private Integer height;
 }
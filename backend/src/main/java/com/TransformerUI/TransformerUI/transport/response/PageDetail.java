@@ -1,10 +1,16 @@
 package com.TransformerUI.TransformerUI.transport.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
 @Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class PageDetail {
     private String totalRecords;
+    // "true" when totalRecords comes from planner statistics
+    private String totalRecordsEstimated;
     private String pageNumber;
     private String pageElementCount;
-}
\ No newline at end of file
+    // Absent on the last page
+    private String nextCursor;
+}
@@ -2,6 +2,7 @@ package com.TransformerUI.TransformerUI.transport.response;
 
 public enum ResponseCodeEnum {
     SUCCESS("2000","Operation Successful"),
+    IN_PROGRESS("2001", "Request accepted and in progress"),
     PARTIAL_SUCCESS("2007", "Partial Success"),
     OPERATION_FAILED("5000", "Operation Failed!"),
     NOT_FOUND("4000","Not found"),
@@ -13,6 +14,8 @@ public enum ResponseCodeEnum {
     TRANSFORMER_NOT_UPDATED("5000", "Transformer is partially updated or not updated"),
     IMAGE_NOT_UPDATED("5000", "Image is partially updated or not updated"),
     IMAGE_NOT_DETECTED("5000", "Image detection failed"),
+    DETECTION_JOB_NOT_FOUND("4000", "Detection job not found"),
+    DETECTION_BUSY("5003", "Detection capacity is exhausted, retry later"),
     TRANSFORMER_NOT_CONNECTED("5000","Transformer is not connected"),
     INSPECTION_NOT_CONNECTED("5000","Inspection is not connected"),
     IMAGE_NOT_CONNECTED("5000","Image is not connected"),
@@ -0,0 +1,23 @@
+package com.TransformerUI.TransformerUI.transport.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SearchResultResponse {
+    // "transformer" or "inspection"
+    private String type;
+    private Long id;
+    private String transformerNo;
+    private String inspectionNo;
+    private String poleNo;
+    private String locationDetails;
+    private String branch;
+    // Higher is a better match; only comparable within one response
+    private Double score;
+}
@@ -0,0 +1,94 @@
+package com.TransformerUI.TransformerUI.service.detection;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BaselineChangeMapperTest {
+
+    private static final byte[] NOT_AN_IMAGE = {1, 2, 3};
+
+    private BaselineChangeMapper mapper;
+    private byte[] baseline;
+    private byte[] thermal;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mapper = new BaselineChangeMapper();
+        ReflectionTestUtils.setField(mapper, "analysisWidth", 160);
+        ReflectionTestUtils.setField(mapper, "maxShift", 8);
+        ReflectionTestUtils.setField(mapper, "cellThreshold", 1.0);
+        ReflectionTestUtils.setField(mapper, "baselineCacheSize", 2);
+        baseline = png(pattern(640, 480, false));
+        thermal = png(pattern(640, 480, true));
+    }
+
+    @Test
+    void identicalImagesHaveNoChangedCells() throws IOException {
+        BaselineChangeMapper.ChangeMap map = mapper.compute(baseline, baseline);
+        assertEquals(0, map.changedFraction());
+        assertEquals(0, map.offsetX());
+        assertEquals(0, map.offsetY());
+    }
+
+    @Test
+    void cachedBaselineIsNotDecodedAgain() throws IOException {
+        BaselineChangeMapper.ChangeMap first = mapper.compute("hash-1", baseline, thermal);
+        // Bytes that cannot be decoded prove the cached grid was used
+        BaselineChangeMapper.ChangeMap second = mapper.compute("hash-1", NOT_AN_IMAGE, thermal);
+
+        assertEquals(first.changedFraction(), second.changedFraction());
+        assertEquals(first.meanDifference(), second.meanDifference());
+        assertArrayEquals(first.heatmap(), second.heatmap());
+    }
+
+    @Test
+    void baselinesAreOnlyCachedByHashAndGridSize() throws IOException {
+        mapper.compute("hash-1", baseline, thermal);
+
+        assertThrows(IOException.class, () -> mapper.compute(null, NOT_AN_IMAGE, thermal));
+        assertThrows(IOException.class, () -> mapper.compute("hash-2", NOT_AN_IMAGE, thermal));
+        // A thermal image of another shape needs the baseline on another grid
+        byte[] wide = png(pattern(640, 240, true));
+        assertThrows(IOException.class, () -> mapper.compute("hash-1", NOT_AN_IMAGE, wide));
+    }
+
+    @Test
+    void leastRecentlyUsedBaselineIsDropped() throws IOException {
+        mapper.compute("hash-1", baseline, thermal);
+        mapper.compute("hash-2", baseline, thermal);
+        mapper.compute("hash-1", NOT_AN_IMAGE, thermal);
+        mapper.compute("hash-3", baseline, thermal);
+
+        assertDoesNotThrow(() -> mapper.compute("hash-1", NOT_AN_IMAGE, thermal));
+        assertThrows(IOException.class, () -> mapper.compute("hash-2", NOT_AN_IMAGE, thermal));
+    }
+
+    // Blocks of differing grey so only one alignment matches; the hot variant has a bright block
+    private static BufferedImage pattern(int width, int height, boolean hot) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int grey = (x / 40 * 31 + y / 30 * 57) % 200;
+                if (hot && x >= width / 8 && x < width / 4 && y >= height / 8 && y < height / 4) {
+                    grey = 255;
+                }
+                image.setRGB(x, y, grey << 16 | grey << 8 | grey);
+            }
+        }
+        return image;
+    }
+
+    private static byte[] png(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
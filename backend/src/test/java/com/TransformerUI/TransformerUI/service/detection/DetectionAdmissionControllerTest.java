@@ -0,0 +1,131 @@
+package com.TransformerUI.TransformerUI.service.detection;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DetectionAdmissionControllerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private DetectionAdmissionController admission;
+
+    @BeforeEach
+    void setUp() {
+        admission = controller(1, 1, 5_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void rejectsWhenTheQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> running = callers.submit(() -> admission.run(() -> await(release)));
+        awaitGauge("detection.admission.in.flight", 1);
+        Future<String> queued = callers.submit(() -> admission.run(() -> "queued"));
+        awaitGauge("detection.admission.queue.depth", 1);
+
+        DetectionBusyException ex = assertThrows(DetectionBusyException.class, () -> admission.run(() -> "overflow"));
+        assertTrue(ex.getMessage().contains("queue is full"), ex.getMessage());
+        assertEquals(1, registry.get("detection.admission.rejected").counter().count());
+
+        release.countDown();
+        assertEquals("released", running.get(5, TimeUnit.SECONDS));
+        assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+        awaitGauge("detection.admission.queue.depth", 0);
+        awaitGauge("detection.admission.in.flight", 0);
+    }
+
+    @Test
+    void rejectsAfterWaitingTooLong() throws Exception {
+        admission = controller(1, 5, 100);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> running = callers.submit(() -> admission.run(() -> await(release)));
+        awaitGauge("detection.admission.in.flight", 1);
+
+        long start = System.nanoTime();
+        DetectionBusyException ex = assertThrows(DetectionBusyException.class, () -> admission.run(() -> "late"));
+        long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(ex.getMessage().contains("100 ms"), ex.getMessage());
+        assertTrue(waitedMs >= 90, "gave up after " + waitedMs + " ms");
+        assertEquals(0, gauge("detection.admission.queue.depth"));
+
+        release.countDown();
+        assertEquals("released", running.get(5, TimeUnit.SECONDS));
+        assertEquals("free", admission.run(() -> "free"));
+    }
+
+    @Test
+    void releasesThePermitWhenTheCallThrows() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertThrows(IOException.class, () -> admission.run(() -> {
+                throw new IOException("worker crashed");
+            }));
+            assertThrows(IllegalStateException.class, () -> admission.run(() -> {
+                throw new IllegalStateException("bad reply");
+            }));
+        }
+        assertEquals(0, gauge("detection.admission.in.flight"));
+        assertEquals("ok", admission.run(() -> "ok"));
+    }
+
+    @Test
+    void neverRunsMoreThanMaxConcurrent() throws Exception {
+        admission = controller(2, 10, 5_000);
+        ConcurrentLinkedQueue<Integer> seen = new ConcurrentLinkedQueue<>();
+        AtomicInteger inFlight = new AtomicInteger();
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(callers.submit(() -> admission.run(() -> {
+                seen.add(inFlight.incrementAndGet());
+                Thread.sleep(20);
+                return inFlight.decrementAndGet();
+            })));
+        }
+        for (Future<Integer> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(8, seen.size());
+        assertTrue(seen.stream().allMatch(n -> n <= 2), "in flight: " + seen);
+    }
+
+    private DetectionAdmissionController controller(int maxConcurrent, int maxQueue, long maxWaitMs) {
+        registry.clear();
+        DetectionAdmissionController controller = new DetectionAdmissionController(registry);
+        ReflectionTestUtils.setField(controller, "maxConcurrent", maxConcurrent);
+        ReflectionTestUtils.setField(controller, "maxQueue", maxQueue);
+        ReflectionTestUtils.setField(controller, "maxWaitMs", maxWaitMs);
+        controller.init();
+        return controller;
+    }
+
+    private static String await(CountDownLatch release) throws InterruptedException {
+        assertTrue(release.await(5, TimeUnit.SECONDS));
+        return "released";
+    }
+
+    private double gauge(String name) {
+        return registry.get(name).gauge().value();
+    }
+
+    private void awaitGauge(String name, double expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (gauge(name) != expected) {
+            assertTrue(System.currentTimeMillis() < deadline, name + " never reached " + expected);
+            Thread.sleep(5);
+        }
+    }
+}
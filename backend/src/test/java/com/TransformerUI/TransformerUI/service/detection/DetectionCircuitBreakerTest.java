@@ -0,0 +1,161 @@
+package com.TransformerUI.TransformerUI.service.detection;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DetectionCircuitBreakerTest {
+
+    private static final long OPEN_MS = 30_000;
+
+    private final MutableClock clock = new MutableClock();
+    private DetectionCircuitBreaker breaker;
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        breaker = new DetectionCircuitBreaker(new SimpleMeterRegistry(), clock);
+        ReflectionTestUtils.setField(breaker, "failureThreshold", 3);
+        ReflectionTestUtils.setField(breaker, "openMs", OPEN_MS);
+        ReflectionTestUtils.setField(breaker, "halfOpenProbes", 1);
+        breaker.init();
+    }
+
+    @Test
+    void staysClosedBelowTheThreshold() throws Exception {
+        failCalls(2);
+        assertEquals(DetectionCircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals("ok", succeed());
+        // A success resets the count, so two more failures do not open it
+        failCalls(2);
+        assertEquals(DetectionCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void opensAfterConsecutiveFailuresAndFailsFast() throws Exception {
+        failCalls(3);
+        assertEquals(DetectionCircuitBreaker.State.OPEN, breaker.getState());
+
+        clock.advance(OPEN_MS - 1);
+        int before = calls.get();
+        assertThrows(DetectorUnavailableException.class, this::succeed);
+        assertEquals(before, calls.get(), "an open breaker must not call the detector");
+        assertEquals(DetectionCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void probeSuccessClosesTheBreaker() throws Exception {
+        failCalls(3);
+        clock.advance(OPEN_MS);
+
+        assertEquals("ok", succeed());
+        assertEquals(DetectionCircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals("ok", succeed());
+    }
+
+    @Test
+    void probeFailureReopensForAnotherFullPeriod() throws Exception {
+        failCalls(3);
+        clock.advance(OPEN_MS);
+
+        failCalls(1);
+        assertEquals(DetectionCircuitBreaker.State.OPEN, breaker.getState());
+        clock.advance(OPEN_MS - 1);
+        assertThrows(DetectorUnavailableException.class, this::succeed);
+        clock.advance(1);
+        assertEquals("ok", succeed());
+        assertEquals(DetectionCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void onlyOneProbeRunsWhileHalfOpen() throws Exception {
+        failCalls(3);
+        clock.advance(OPEN_MS);
+
+        String result = breaker.run(() -> {
+            assertEquals(DetectionCircuitBreaker.State.HALF_OPEN, breaker.getState());
+            // A second call while the probe is running is turned away
+            assertThrows(DetectorUnavailableException.class, this::succeed);
+            return "probe";
+        });
+        assertEquals("probe", result);
+        assertEquals(DetectionCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void loadSheddingIsNotAFailure() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertThrows(DetectionBusyException.class, () -> breaker.run(() -> {
+                throw new DetectionBusyException("busy");
+            }));
+        }
+        assertEquals(DetectionCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void probeEndingWithoutAVerdictFreesItsSlot() throws Exception {
+        failCalls(3);
+        clock.advance(OPEN_MS);
+
+        assertThrows(DetectionBusyException.class, () -> breaker.run(() -> {
+            throw new DetectionBusyException("busy");
+        }));
+        assertEquals(DetectionCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertEquals("ok", succeed());
+        assertEquals(DetectionCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    private String succeed() throws IOException, InterruptedException {
+        return breaker.run(() -> {
+            calls.incrementAndGet();
+            return "ok";
+        });
+    }
+
+    private void failCalls(int times) {
+        for (int i = 0; i < times; i++) {
+            assertThrows(IOException.class, () -> breaker.run(() -> {
+                calls.incrementAndGet();
+                throw new IOException("worker crashed");
+            }));
+        }
+    }
+
+    private static class MutableClock extends Clock {
+        private long millis = 1_000_000;
+
+        void advance(long ms) {
+            millis += ms;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
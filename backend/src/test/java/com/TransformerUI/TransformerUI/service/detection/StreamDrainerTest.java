@@ -0,0 +1,60 @@
+package com.TransformerUI.TransformerUI.service.detection;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamDrainerTest {
+
+    @Test
+    void keepsTheLastLines() {
+        assertEquals("two\nthree", drain("one\ntwo\nthree\n", 10));
+        assertEquals("one\ntwo", drain("one\ntwo", 100));
+    }
+
+    @Test
+    void outputWithoutLineBreaksIsBoundedByMaxChars() {
+        // Ten million characters and no newline, like a runaway progress bar
+        InputStream endless = new InputStream() {
+            private int left = 10_000_000;
+
+            @Override
+            public int read() {
+                return left-- > 0 ? 'a' + left % 26 : -1;
+            }
+        };
+        StreamDrainer drainer = new StreamDrainer(64);
+        drainer.drain(endless, "test");
+
+        String tail = drainer.tail();
+        assertEquals(64, tail.length());
+        // The stream counts down, so it ends on left = 0, which is 'a'
+        assertTrue(tail.endsWith("dcba"), tail);
+    }
+
+    @Test
+    void carriageReturnsBecomeLineBreaks() {
+        assertEquals("10%\n50%\n100%\nfailed", drain("10%\r50%\r100%\r\nfailed\r\n", 100));
+    }
+
+    @Test
+    void chunksLongerThanTheRingKeepTheirEnd() {
+        String line = "x".repeat(10_000) + "end";
+        assertEquals("x".repeat(5) + "end", drain(line, 8));
+    }
+
+    @Test
+    void emptyStreamHasAnEmptyTail() {
+        assertEquals("", drain("", 10));
+    }
+
+    private static String drain(String output, int maxChars) {
+        StreamDrainer drainer = new StreamDrainer(maxChars);
+        drainer.drain(new ByteArrayInputStream(output.getBytes(StandardCharsets.UTF_8)), "test");
+        return drainer.tail();
+    }
+}
@@ -0,0 +1,296 @@
+package com.TransformerUI.TransformerUI.service.detection;
+
+import com.TransformerUI.TransformerUI.transport.response.AnomaliesResponse;
+import com.TransformerUI.TransformerUI.transport.response.Anomaly;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TiledDetectorTest {
+
+    private static final int TILE = 640;
+    private static final double DELTA = 0.003;
+
+    private final BrightSpotEngine engine = new BrightSpotEngine();
+    private TiledDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        detector = detector(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        detector.shutdown();
+    }
+
+    @Test
+    void tilesCoverTheImageAndEndOnItsEdges() {
+        for (int[] size : new int[][]{{2000, 1000}, {1281, 1281}, {4000, 3000}, {641, 700}, {640, 2000}}) {
+            int width = size[0];
+            int height = size[1];
+            List<TiledDetector.Tile> tiles = detector.tiles(width, height);
+            String label = width + "x" + height;
+            for (TiledDetector.Tile tile : tiles) {
+                assertEquals(Math.min(TILE, width), tile.width(), label);
+                assertEquals(Math.min(TILE, height), tile.height(), label);
+                assertTrue(tile.x() >= 0 && tile.x() + tile.width() <= width, label + " " + tile);
+                assertTrue(tile.y() >= 0 && tile.y() + tile.height() <= height, label + " " + tile);
+            }
+            assertCovered(starts(tiles, true), Math.min(TILE, width), width, label);
+            assertCovered(starts(tiles, false), Math.min(TILE, height), height, label);
+        }
+    }
+
+    @Test
+    void lastTileIsPulledBackToTheEdge() {
+        // Stride 512: columns at 0, 512, 1024 and the edge tile at 2000 - 640; rows at 0 and 1000 - 640
+        List<TiledDetector.Tile> tiles = detector.tiles(2000, 1000);
+        assertEquals(List.of(0, 512, 1024, 1360), starts(tiles, true));
+        assertEquals(List.of(0, 360), starts(tiles, false));
+        assertEquals(8, tiles.size());
+    }
+
+    @Test
+    void sideShorterThanATileIsOneTileDeep() {
+        List<TiledDetector.Tile> tiles = detector.tiles(1500, 300);
+        assertEquals(List.of(0, 512, 860), starts(tiles, true));
+        assertEquals(List.of(0), starts(tiles, false));
+        assertTrue(tiles.stream().allMatch(tile -> tile.height() == 300));
+    }
+
+    @Test
+    void suppressionKeepsTheMostConfidentOfOverlappingBoxes() {
+        List<Anomaly> kept = TiledDetector.nonMaxSuppression(List.of(
+                anomaly("Faulty", 0.6, 0.10, 0.10, 0.20, 0.20),
+                anomaly("Faulty", 0.9, 0.11, 0.10, 0.21, 0.20),
+                anomaly("Faulty", 0.7, 0.10, 0.11, 0.20, 0.21)), 0.5);
+        assertEquals(1, kept.size());
+        assertEquals(0.9, kept.get(0).getConfidence());
+    }
+
+    @Test
+    void suppressionComparesOnlyBoxesOfTheSameClass() {
+        List<Anomaly> kept = TiledDetector.nonMaxSuppression(List.of(
+                anomaly("Faulty", 0.9, 0.10, 0.10, 0.20, 0.20),
+                anomaly("Potentially Faulty", 0.8, 0.10, 0.10, 0.20, 0.20)), 0.5);
+        assertEquals(2, kept.size());
+    }
+
+    @Test
+    void suppressionKeepsBoxesThatBarelyOverlap() {
+        // IoU of these two is 1/3
+        List<Anomaly> kept = TiledDetector.nonMaxSuppression(List.of(
+                anomaly("Faulty", 0.9, 0.0, 0.0, 0.2, 0.1),
+                anomaly("Faulty", 0.8, 0.1, 0.0, 0.3, 0.1)), 0.5);
+        assertEquals(2, kept.size());
+    }
+
+    @Test
+    void hotspotInTheOverlapIsReportedOnce() throws Exception {
+        detector.shutdown();
+        detector = detector(false);
+
+        List<Anomaly> anomalies = sorted(detector.detect(hotspots()));
+
+        // Without the full frame both copies of the first hotspot come from neighbouring tiles
+        assertEquals(8, engine.frames.get());
+        assertEquals(2, anomalies.size(), anomalies.toString());
+        assertBox(anomalies.get(0), 0.265, 0.1, 0.31, 0.2);
+        assertBox(anomalies.get(1), 0.975, 0.95, 1.0, 1.0);
+    }
+
+    @Test
+    void fullFrameDuplicatesAreMergedWithTheTiles() throws Exception {
+        List<Anomaly> anomalies = sorted(detector.detect(hotspots()));
+
+        assertEquals(9, engine.frames.get());
+        assertEquals(2, anomalies.size(), anomalies.toString());
+        assertBox(anomalies.get(0), 0.265, 0.1, 0.31, 0.2);
+        assertBox(anomalies.get(1), 0.975, 0.95, 1.0, 1.0);
+        // The full-frame pass is the most confident, so its boxes are the ones kept
+        assertTrue(anomalies.stream().allMatch(a -> a.getConfidence() == BrightSpotEngine.FULL_FRAME_CONFIDENCE));
+    }
+
+    @Test
+    void smallImagesSkipTiling() throws Exception {
+        BufferedImage image = new BufferedImage(1280, 720, BufferedImage.TYPE_INT_RGB);
+        fill(image, 100, 100, 50, 50);
+
+        List<Anomaly> anomalies = detector.detect(png(image)).getAnomalies();
+
+        assertEquals(1, engine.frames.get());
+        assertEquals(1, anomalies.size());
+    }
+
+    private TiledDetector detector(boolean includeFullFrame) {
+        ImagePreprocessor preprocessor = new ImagePreprocessor();
+        ReflectionTestUtils.setField(preprocessor, "jpegQuality", 0.95f);
+        DetectionAdmissionController admission = mock(DetectionAdmissionController.class);
+        when(admission.maxConcurrent()).thenReturn(2);
+
+        TiledDetector tiled = new TiledDetector(engine, preprocessor, admission);
+        ReflectionTestUtils.setField(tiled, "tileSize", TILE);
+        ReflectionTestUtils.setField(tiled, "overlap", 0.2);
+        ReflectionTestUtils.setField(tiled, "minImageSize", 1280);
+        ReflectionTestUtils.setField(tiled, "iouThreshold", 0.5);
+        ReflectionTestUtils.setField(tiled, "includeFullFrame", includeFullFrame);
+        tiled.init();
+        return tiled;
+    }
+
+    /**
+     * A 2000x1000 image with one hotspot inside the overlap of the first two tiles and one in the
+     * bottom-right corner, which only the pulled-back edge tile reaches.
+     */
+    private static byte[] hotspots() throws IOException {
+        BufferedImage image = new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_RGB);
+        fill(image, 530, 100, 90, 100);
+        fill(image, 1950, 950, 50, 50);
+        return png(image);
+    }
+
+    private static void fill(BufferedImage image, int x, int y, int width, int height) {
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(x, y, width, height);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    private static byte[] png(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static Anomaly anomaly(String type, double confidence, double x1, double y1, double x2, double y2) {
+        return new Anomaly(type, confidence, List.of(x1, y1, x2, y2), false, null);
+    }
+
+    private static List<Anomaly> sorted(AnomaliesResponse response) {
+        List<Anomaly> anomalies = new ArrayList<>(response.getAnomalies());
+        anomalies.sort(Comparator.comparingDouble(a -> a.getBox().get(0)));
+        return anomalies;
+    }
+
+    private static void assertBox(Anomaly anomaly, double x1, double y1, double x2, double y2) {
+        List<Double> box = anomaly.getBox();
+        assertEquals(x1, box.get(0), DELTA, box.toString());
+        assertEquals(y1, box.get(1), DELTA, box.toString());
+        assertEquals(x2, box.get(2), DELTA, box.toString());
+        assertEquals(y2, box.get(3), DELTA, box.toString());
+    }
+
+    private static List<Integer> starts(List<TiledDetector.Tile> tiles, boolean horizontal) {
+        return tiles.stream().map(tile -> horizontal ? tile.x() : tile.y()).distinct().sorted().toList();
+    }
+
+    // Consecutive tiles overlap or touch, the first starts at 0 and the last ends on the edge
+    private static void assertCovered(List<Integer> starts, int tileLength, int length, String label) {
+        assertEquals(0, starts.get(0), label);
+        for (int i = 1; i < starts.size(); i++) {
+            assertTrue(starts.get(i) <= starts.get(i - 1) + tileLength, label + " gap before " + starts.get(i));
+        }
+        assertEquals(length, starts.get(starts.size() - 1) + tileLength, label);
+    }
+
+    /**
+     * Stands in for the model: every bright region of a frame is one "Faulty" box. Whole images
+     * get a higher confidence than tiles, as a model seeing the full context would.
+     */
+    private static class BrightSpotEngine implements DetectionEngine {
+
+        static final double FULL_FRAME_CONFIDENCE = 0.9;
+        static final double TILE_CONFIDENCE = 0.8;
+
+        final AtomicInteger frames = new AtomicInteger();
+
+        @Override
+        public AnomaliesResponse detect(byte[] imageBytes) throws IOException {
+            frames.incrementAndGet();
+            return new AnomaliesResponse(brightSpots(imageBytes));
+        }
+
+        @Override
+        public List<BatchItemResult> detectBatch(List<byte[]> images) throws IOException {
+            List<BatchItemResult> results = new ArrayList<>(images.size());
+            for (byte[] image : images) {
+                results.add(new BatchItemResult(detect(image), null));
+            }
+            return results;
+        }
+
+        @Override
+        public String configFingerprint() {
+            return "bright-spots";
+        }
+
+        private static List<Anomaly> brightSpots(byte[] imageBytes) throws IOException {
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(imageBytes));
+            int width = image.getWidth();
+            int height = image.getHeight();
+            double confidence = width > TILE ? FULL_FRAME_CONFIDENCE : TILE_CONFIDENCE;
+            boolean[] seen = new boolean[width * height];
+            List<Anomaly> spots = new ArrayList<>();
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    if (!seen[y * width + x] && bright(image, x, y)) {
+                        int[] bounds = region(image, x, y, seen);
+                        spots.add(anomaly("Faulty", confidence, (double) bounds[0] / width, (double) bounds[1] / height,
+                                (double) (bounds[2] + 1) / width, (double) (bounds[3] + 1) / height));
+                    }
+                }
+            }
+            return spots;
+        }
+
+        // Bounds {minX, minY, maxX, maxY} of the bright region containing (x, y)
+        private static int[] region(BufferedImage image, int x, int y, boolean[] seen) {
+            int width = image.getWidth();
+            int[] bounds = {x, y, x, y};
+            ArrayList<int[]> stack = new ArrayList<>();
+            stack.add(new int[]{x, y});
+            seen[y * width + x] = true;
+            while (!stack.isEmpty()) {
+                int[] p = stack.remove(stack.size() - 1);
+                bounds[0] = Math.min(bounds[0], p[0]);
+                bounds[1] = Math.min(bounds[1], p[1]);
+                bounds[2] = Math.max(bounds[2], p[0]);
+                bounds[3] = Math.max(bounds[3], p[1]);
+                for (int[] d : new int[][]{{1, 0}, {-1, 0}, {0, 1}, {0, -1}}) {
+                    int nx = p[0] + d[0];
+                    int ny = p[1] + d[1];
+                    if (nx >= 0 && ny >= 0 && nx < width && ny < image.getHeight()
+                            && !seen[ny * width + nx] && bright(image, nx, ny)) {
+                        seen[ny * width + nx] = true;
+                        stack.add(new int[]{nx, ny});
+                    }
+                }
+            }
+            return bounds;
+        }
+
+        private static boolean bright(BufferedImage image, int x, int y) {
+            return (image.getRGB(x, y) & 0xff) > 128;
+        }
+    }
+}
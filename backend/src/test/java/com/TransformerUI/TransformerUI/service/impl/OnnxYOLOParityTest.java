@@ -0,0 +1,174 @@
+package com.TransformerUI.TransformerUI.service.impl;
+
+import com.TransformerUI.TransformerUI.service.detection.DetectionModelVersion;
+import com.TransformerUI.TransformerUI.service.detection.ImagePreprocessor;
+import com.TransformerUI.TransformerUI.transport.response.AnomaliesResponse;
+import com.TransformerUI.TransformerUI.transport.response.Anomaly;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks that the in-JVM ONNX engine reports the same anomalies as {@code anomaly_detection.py}.
+ * <p>
+ * {@code detection/onnx-parity.json} holds a raw model output and the anomalies ultralytics'
+ * predict turns it into, so the post-processing is always checked without a model or python.
+ * The end-to-end comparison on sample images is skipped unless {@code model/best.pt},
+ * {@code model/best.onnx} and a python with ultralytics are available. Images come from
+ * {@code -Ddetection.parity.images=<dir>}, defaulting to {@code test_upload.png}.
+ */
+class OnnxYOLOParityTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final double MIN_BOX_IOU = 0.9;
+    private static final double MAX_CONFIDENCE_DELTA = 0.05;
+    private static final Path SCRIPT = Paths.get("python", "anomaly_detection.py").toAbsolutePath();
+
+    private static final double BOX_DELTA = 1e-6;
+
+    private static Path ptModel;
+    private static Path onnxModel;
+    private static String python;
+
+    @BeforeAll
+    static void locateModels() {
+        ptModel = Paths.get(System.getProperty("python.model", "model/best.pt")).toAbsolutePath();
+        onnxModel = Paths.get(System.getProperty("detection.onnx.model", "model/best.onnx")).toAbsolutePath();
+        String env = System.getenv("PYTHON_EXEC");
+        python = System.getProperty("python.exec", env == null || env.isBlank() ? "python" : env);
+    }
+
+    /**
+     * Raw output of a letterboxed 1280x720 frame, one row per candidate: cx, cy, w, h in letterbox
+     * pixels and then a score per class.
+     */
+    record Fixture(int width, int height, int imageSize, String names, float[][] candidates,
+                   AnomaliesResponse expected) {
+
+        // The model's layout, [4 + classes][candidates]
+        float[][] output() {
+            float[][] output = new float[candidates[0].length][candidates.length];
+            for (int i = 0; i < candidates.length; i++) {
+                for (int row = 0; row < candidates[i].length; row++) {
+                    output[row][i] = candidates[i][row];
+                }
+            }
+            return output;
+        }
+    }
+
+    @Test
+    void decodingMatchesUltralyticsPostprocessing() throws IOException {
+        // Covers the confidence cut-off, per-class NMS, clipping at the image edge and the
+        // letterbox padding
+        Fixture fixture;
+        try (InputStream in = OnnxYOLOParityTest.class.getResourceAsStream("/detection/onnx-parity.json")) {
+            assertNotNull(in, "detection/onnx-parity.json is missing");
+            fixture = MAPPER.readValue(in, Fixture.class);
+        }
+        OnnxYOLO onnx = onnxEngine();
+        AnomaliesResponse actual = onnx.decode(fixture.output(),
+                ImagePreprocessor.letterboxFor(fixture.width(), fixture.height(), fixture.imageSize()),
+                OnnxYOLO.parseNames(fixture.names()));
+
+        List<Anomaly> expected = fixture.expected().getAnomalies();
+        assertEquals(expected.size(), actual.getAnomalies().size(), actual.toString());
+        for (int i = 0; i < expected.size(); i++) {
+            Anomaly want = expected.get(i);
+            Anomaly got = actual.getAnomalies().get(i);
+            assertEquals(want.getErrorType(), got.getErrorType(), "class of anomaly " + i);
+            assertEquals(want.getConfidence(), got.getConfidence(), "confidence of anomaly " + i);
+            for (int c = 0; c < 4; c++) {
+                assertEquals(want.getBox().get(c), got.getBox().get(c), BOX_DELTA, "box of anomaly " + i);
+            }
+        }
+    }
+
+    @TestFactory
+    Stream<DynamicTest> onnxMatchesPython() throws IOException {
+        assumeTrue(Files.exists(ptModel) && Files.exists(onnxModel), "YOLO weights and ONNX export are required");
+        assumeTrue(Files.exists(SCRIPT), "anomaly_detection.py is required");
+
+        OnnxYOLO onnx = onnxEngine();
+        return sampleImages().stream().map(image -> DynamicTest.dynamicTest(image.getFileName().toString(), () -> {
+            List<Anomaly> expected = runPython(image);
+            List<Anomaly> actual = onnx.infer(Files.readAllBytes(image)).getAnomalies();
+            assertEquals(expected.size(), actual.size(), "anomaly count for " + image);
+            List<Anomaly> unmatched = new ArrayList<>(actual);
+            for (Anomaly want : expected) {
+                Anomaly match = unmatched.stream()
+                        .filter(got -> got.getErrorType().equals(want.getErrorType()))
+                        .max((a, b) -> Double.compare(iou(a.getBox(), want.getBox()), iou(b.getBox(), want.getBox())))
+                        .orElse(null);
+                assertNotNull(match, "no ONNX box of class " + want.getErrorType() + " in " + image);
+                assertTrue(iou(match.getBox(), want.getBox()) >= MIN_BOX_IOU,
+                        "box " + match.getBox() + " differs from " + want.getBox() + " in " + image);
+                assertEquals(want.getConfidence(), match.getConfidence(), MAX_CONFIDENCE_DELTA);
+                unmatched.remove(match);
+            }
+        }));
+    }
+
+    private OnnxYOLO onnxEngine() {
+        DetectionModelVersion modelVersion = new DetectionModelVersion();
+        ReflectionTestUtils.setField(modelVersion, "engine", "onnx");
+        ReflectionTestUtils.setField(modelVersion, "onnxModelPath", onnxModel.toString());
+        OnnxYOLO engine = new OnnxYOLO(modelVersion, null);
+        ReflectionTestUtils.setField(engine, "imageSize", 640);
+        ReflectionTestUtils.setField(engine, "confThreshold", 0.25f);
+        ReflectionTestUtils.setField(engine, "iouThreshold", 0.7f);
+        ReflectionTestUtils.setField(engine, "maxDetections", 300);
+        return engine;
+    }
+
+    private static List<Path> sampleImages() throws IOException {
+        String dir = System.getProperty("detection.parity.images");
+        if (dir == null) {
+            Path sample = Paths.get("test_upload.png");
+            assumeTrue(Files.exists(sample), "no sample images");
+            return List.of(sample);
+        }
+        try (Stream<Path> files = Files.list(Paths.get(dir))) {
+            return files.filter(p -> p.toString().matches("(?i).*\\.(png|jpe?g)$")).sorted().toList();
+        }
+    }
+
+    private static List<Anomaly> runPython(Path image) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(python, SCRIPT.toString(),
+                "--image", image.toAbsolutePath().toString(), "--model", ptModel.toString())
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        byte[] out = process.getInputStream().readAllBytes();
+        assumeTrue(process.waitFor(5, TimeUnit.MINUTES) && process.exitValue() == 0, "python detector did not run");
+        return MAPPER.readValue(new String(out, StandardCharsets.UTF_8), AnomaliesResponse.class).getAnomalies();
+    }
+
+    private static double iou(List<Double> a, List<Double> b) {
+        double w = Math.min(a.get(2), b.get(2)) - Math.max(a.get(0), b.get(0));
+        double h = Math.min(a.get(3), b.get(3)) - Math.max(a.get(1), b.get(1));
+        if (w <= 0 || h <= 0) {
+            return 0;
+        }
+        double inter = w * h;
+        double areaA = (a.get(2) - a.get(0)) * (a.get(3) - a.get(1));
+        double areaB = (b.get(2) - b.get(0)) * (b.get(3) - b.get(1));
+        return inter / (areaA + areaB - inter);
+    }
+}
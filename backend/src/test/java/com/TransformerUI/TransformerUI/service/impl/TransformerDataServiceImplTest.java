@@ -0,0 +1,65 @@
+package com.TransformerUI.TransformerUI.service.impl;
+
+import com.TransformerUI.TransformerUI.entity.InspectionDataEntity;
+import com.TransformerUI.TransformerUI.entity.TransformerDataEntity;
+import com.TransformerUI.TransformerUI.repository.InspectionDataRepository;
+import com.TransformerUI.TransformerUI.repository.TransformerDataRepository;
+import com.TransformerUI.TransformerUI.service.search.SearchIndex;
+import com.TransformerUI.TransformerUI.service.search.TrigramIndex;
+import com.TransformerUI.TransformerUI.service.util.exception.type.BaseException;
+import com.TransformerUI.TransformerUI.transport.request.TransformerDataRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TransformerDataServiceImplTest {
+
+    private TransformerDataRepository transformerDataRepository;
+    private InspectionDataRepository inspectionDataRepository;
+    private SearchIndex searchIndex;
+    private TransformerDataServiceImpl service;
+
+    private TransformerDataEntity transformer;
+
+    @BeforeEach
+    void setUp() {
+        transformerDataRepository = mock(TransformerDataRepository.class);
+        inspectionDataRepository = mock(InspectionDataRepository.class);
+        searchIndex = new SearchIndex(transformerDataRepository, inspectionDataRepository);
+        service = new TransformerDataServiceImpl(transformerDataRepository, null, searchIndex);
+
+        transformer = new TransformerDataEntity(1L, "Central", "TX-100", "P-7", "Bulk", "Kandy Road");
+        when(transformerDataRepository.findById(1L)).thenReturn(Optional.of(transformer));
+        when(transformerDataRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        searchIndex.indexTransformer(transformer);
+        searchIndex.indexInspection(InspectionDataEntity.builder().id(10L).inspectionNo("IN-5").transformerNo("TX-100")
+                .branch("Kandy").build());
+    }
+
+    @Test
+    void renamingATransformerReindexesOnlyTheTransformer() throws BaseException {
+        service.updateTransformerData(new TransformerDataRequest(1L, null, "TX-200", null, null, null));
+
+        List<TrigramIndex.Hit<SearchIndex.Document>> hits = searchIndex.searchTransformers("TX-200", 10, 0.8);
+        assertEquals(1, hits.size());
+        assertEquals(1L, hits.get(0).id());
+        assertTrue(searchIndex.searchTransformers("TX-100", 10, 0.8).isEmpty());
+        // Inspections keep the number they were saved with, in the database and in the index
+        assertEquals(List.of(10L), searchIndex.searchInspections("TX-100", 10, 0.8).stream().map(TrigramIndex.Hit::id).toList());
+        verifyNoInteractions(inspectionDataRepository);
+    }
+
+    @Test
+    void otherChangesAreReindexed() throws BaseException {
+        service.updateTransformerData(new TransformerDataRequest(1L, null, null, null, null, "Galle Road"));
+
+        assertEquals("Galle Road", searchIndex.searchTransformers("galle", 10, 0.5).get(0).value().locationDetails());
+        verifyNoInteractions(inspectionDataRepository);
+    }
+}
@@ -0,0 +1,123 @@
+package com.TransformerUI.TransformerUI.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+
+    private static List<Long> ids(List<TrigramIndex.Hit<String>> hits) {
+        return hits.stream().map(TrigramIndex.Hit::id).toList();
+    }
+
+    @Test
+    void findsRowsByAnyField() {
+        TrigramIndex<String> index = new TrigramIndex<>();
+        index.put(1, "one", "TX-1001", "P-77", "Kandy Road");
+        index.put(2, "two", "TX-2002", "P-88", "Galle Road");
+
+        assertEquals(List.of(1L), ids(index.search("tx-1001", 10, 0.8)));
+        assertEquals(List.of(2L), ids(index.search("galle", 10, 0.5)));
+        assertEquals("one", index.search("kandy", 10, 0.5).get(0).value());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void normalizesCaseAndPunctuation() {
+        assertEquals("tx 1001 kandy", TrigramIndex.normalize("  TX_1001 / Kandy!"));
+        assertEquals("", TrigramIndex.normalize(null));
+    }
+
+    @Test
+    void ranksExactThenPrefixThenSubstringMatches() {
+        TrigramIndex<String> index = new TrigramIndex<>();
+        index.put(1, "substring", "main xtx1001");
+        index.put(2, "prefix", "tx1001 north");
+        index.put(3, "exact", "tx1001");
+
+        assertEquals(List.of(3L, 2L, 1L), ids(index.search("tx1001", 10, 0.5)));
+    }
+
+    @Test
+    void earlierFieldsRankHigher() {
+        TrigramIndex<String> index = new TrigramIndex<>();
+        index.put(1, "in location", "TX-9", "P-1", "kandy");
+        index.put(2, "in number", "kandy", "P-2", "colombo");
+
+        assertEquals(List.of(2L, 1L), ids(index.search("kandy", 10, 0.5)));
+    }
+
+    @Test
+    void putReplacesTheRow() {
+        TrigramIndex<String> index = new TrigramIndex<>();
+        index.put(1, "before", "kandy");
+        index.put(1, "after", "galle");
+
+        assertTrue(index.search("kandy", 10, 0.3).isEmpty());
+        assertEquals("after", index.search("galle", 10, 0.5).get(0).value());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void removeDropsTheRow() {
+        TrigramIndex<String> index = new TrigramIndex<>();
+        index.put(1, "one", "kandy");
+        index.put(2, "two", "kandy lake");
+        index.remove(1);
+        index.remove(99);
+
+        assertEquals(List.of(2L), ids(index.search("kandy", 10, 0.5)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void shortQueriesOnlyMatchWordPrefixes() {
+        TrigramIndex<String> index = new TrigramIndex<>();
+        index.put(1, "starts", "kandy");
+        index.put(2, "inside", "lake");
+        index.put(3, "second word", "north kalutara");
+
+        assertEquals(List.of(1L, 3L), ids(index.search("ka", 10, 1.0)).stream().sorted().toList());
+        assertEquals(List.of(1L, 3L), ids(index.search("k", 10, 1.0)).stream().sorted().toList());
+        // From three letters on, a query may match inside a word
+        assertEquals(List.of(1L), ids(index.search("kan", 10, 1.0)));
+        assertEquals(List.of(2L), ids(index.search("ake", 10, 1.0)));
+    }
+
+    @Test
+    void blankQueriesMatchNothing() {
+        TrigramIndex<String> index = new TrigramIndex<>();
+        index.put(1, "one", "kandy");
+
+        assertTrue(index.search("", 10, 0).isEmpty());
+        assertTrue(index.search(" -/ ", 10, 0).isEmpty());
+        assertTrue(index.search(null, 10, 0).isEmpty());
+        assertTrue(index.search("kandy", 0, 0).isEmpty());
+    }
+
+    @Test
+    void limitsAndThresholds() {
+        TrigramIndex<String> index = new TrigramIndex<>();
+        for (long id = 1; id <= 5; id++) {
+            index.put(id, "row" + id, "kandy " + id);
+        }
+        index.put(6, "typo", "kandi");
+
+        assertEquals(3, index.search("kandy", 3, 0.5).size());
+        // "kandi" shares only the leading trigrams of "kandy"
+        assertTrue(ids(index.search("kandy", 10, 0.5)).contains(6L));
+        assertFalse(ids(index.search("kandy", 10, 1.0)).contains(6L));
+    }
+
+    @Test
+    void clearEmptiesTheIndex() {
+        TrigramIndex<String> index = new TrigramIndex<>();
+        index.put(1, "one", "kandy");
+        index.clear();
+
+        assertEquals(0, index.size());
+        assertTrue(index.search("kandy", 10, 0).isEmpty());
+    }
+}
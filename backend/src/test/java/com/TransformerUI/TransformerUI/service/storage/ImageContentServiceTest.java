@@ -0,0 +1,100 @@
+package com.TransformerUI.TransformerUI.service.storage;
+
+import com.TransformerUI.TransformerUI.repository.ImageDataRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collection;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class ImageContentServiceTest {
+
+    private static final long GRACE_MS = 600_000;
+
+    @TempDir
+    Path root;
+
+    private FileSystemImageStore store;
+    private ImageDataRepository repository;
+    private ImageContentService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        store = new FileSystemImageStore();
+        ReflectionTestUtils.setField(store, "root", root.toString());
+        store.init();
+        repository = mock(ImageDataRepository.class);
+        service = new ImageContentService(store, repository, mock(ImageCache.class));
+        ReflectionTestUtils.setField(service, "releaseGraceMs", GRACE_MS);
+    }
+
+    @Test
+    void orphanScanDeletesOnlyOldUnreferencedBlobs() throws IOException {
+        String referenced = blob("still used", true);
+        String orphan = blob("released before a restart", true);
+        String recent = blob("uploaded, row not saved yet", false);
+        referencing(Set.of(referenced, recent));
+
+        assertEquals(1, service.scanForOrphans());
+
+        assertTrue(store.exists(referenced));
+        assertFalse(store.exists(orphan));
+        assertTrue(store.exists(recent));
+    }
+
+    @Test
+    void recentlyUsedBlobsAreNotEvenLookedUp() throws IOException {
+        blob("fresh", false);
+        referencing(Set.of());
+
+        assertEquals(0, service.scanForOrphans());
+        verify(repository, never()).findImageRefsIn(anyCollection());
+    }
+
+    @Test
+    void orphansAreLookedUpInBatches() throws IOException {
+        for (int i = 0; i < 1_201; i++) {
+            blob("orphan " + i, true);
+        }
+        referencing(Set.of());
+
+        assertEquals(1_201, service.scanForOrphans());
+        verify(repository, times(3)).findImageRefsIn(anyCollection());
+    }
+
+    @Test
+    void tempFilesInTheIncomingDirectoryAreLeftAlone() throws IOException {
+        Path upload = Files.createTempFile(root.resolve("incoming"), "upload", ".tmp");
+        Files.setLastModifiedTime(upload, FileTime.fromMillis(0));
+        referencing(Set.of());
+
+        assertEquals(0, service.scanForOrphans());
+        assertTrue(Files.exists(upload));
+    }
+
+    private String blob(String content, boolean old) throws IOException {
+        String ref = store.put(content.getBytes(StandardCharsets.UTF_8)).ref();
+        if (old) {
+            Files.setLastModifiedTime(store.resolve(ref),
+                    FileTime.fromMillis(System.currentTimeMillis() - 2 * GRACE_MS));
+        }
+        return ref;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void referencing(Set<String> refs) {
+        when(repository.findImageRefsIn(anyCollection())).thenAnswer(invocation ->
+                ((Collection<String>) invocation.getArgument(0)).stream().filter(refs::contains).toList());
+    }
+}
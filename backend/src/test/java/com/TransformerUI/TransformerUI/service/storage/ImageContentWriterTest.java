@@ -0,0 +1,56 @@
+package com.TransformerUI.TransformerUI.service.storage;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageContentWriterTest {
+
+    private static final long LENGTH = 1000;
+
+    @Test
+    void boundedRange() {
+        assertArrayEquals(new long[]{0, 99}, ImageContentWriter.parseRange("bytes=0-99", LENGTH));
+        assertArrayEquals(new long[]{500, 500}, ImageContentWriter.parseRange("bytes=500-500", LENGTH));
+    }
+
+    @Test
+    void endPastTheImageIsClipped() {
+        assertArrayEquals(new long[]{900, 999}, ImageContentWriter.parseRange("bytes=900-5000", LENGTH));
+    }
+
+    @Test
+    void openEndedRangeRunsToTheLastByte() {
+        assertArrayEquals(new long[]{100, 999}, ImageContentWriter.parseRange("bytes=100-", LENGTH));
+        assertArrayEquals(new long[]{999, 999}, ImageContentWriter.parseRange("bytes=999-", LENGTH));
+    }
+
+    @Test
+    void suffixRangeIsTheLastBytes() {
+        assertArrayEquals(new long[]{900, 999}, ImageContentWriter.parseRange("bytes=-100", LENGTH));
+        // A suffix longer than the image is the whole image
+        assertArrayEquals(new long[]{0, 999}, ImageContentWriter.parseRange("bytes=-5000", LENGTH));
+    }
+
+    @Test
+    void unsatisfiableRanges() {
+        assertSame(ImageContentWriter.UNSATISFIABLE, ImageContentWriter.parseRange("bytes=1000-", LENGTH));
+        assertSame(ImageContentWriter.UNSATISFIABLE, ImageContentWriter.parseRange("bytes=2000-3000", LENGTH));
+        assertSame(ImageContentWriter.UNSATISFIABLE, ImageContentWriter.parseRange("bytes=-0", LENGTH));
+    }
+
+    @Test
+    void multipleRangesSendTheWholeImage() {
+        assertNull(ImageContentWriter.parseRange("bytes=0-99,200-299", LENGTH));
+        assertNull(ImageContentWriter.parseRange("bytes=-100, 0-10", LENGTH));
+    }
+
+    @Test
+    void malformedRangesSendTheWholeImage() {
+        assertNull(ImageContentWriter.parseRange(null, LENGTH));
+        assertNull(ImageContentWriter.parseRange("items=0-99", LENGTH));
+        assertNull(ImageContentWriter.parseRange("bytes=100", LENGTH));
+        assertNull(ImageContentWriter.parseRange("bytes=a-b", LENGTH));
+        assertNull(ImageContentWriter.parseRange("bytes=500-100", LENGTH));
+    }
+}
@@ -0,0 +1,180 @@
+package com.TransformerUI.TransformerUI.service.util;
+
+import com.TransformerUI.TransformerUI.service.util.exception.type.BaseException;
+import com.TransformerUI.TransformerUI.transport.request.FilterRequest;
+import com.TransformerUI.TransformerUI.transport.request.FilterValue;
+import com.TransformerUI.TransformerUI.transport.response.ResponseCodeEnum;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.EntityType;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+
+class DataSpecificationUtilTest {
+
+    enum Phase {A, B, C}
+
+    static class Meter {
+        Long id;
+        int reading;
+        Double load;
+        Boolean active;
+        Phase phase;
+        String name;
+
+        Meter(long id, int reading, Double load, Boolean active, Phase phase, String name) {
+            this.id = id;
+            this.reading = reading;
+            this.load = load;
+            this.active = active;
+            this.phase = phase;
+            this.name = name;
+        }
+    }
+
+    // Columns are cached per entity class, so the plan reuse test has a class of its own
+    static class Gauge extends Meter {
+        Gauge(long id, int reading, Double load, Boolean active, Phase phase, String name) {
+            super(id, reading, load, active, phase, name);
+        }
+    }
+
+    private static final Map<String, Class<?>> COLUMNS = Map.of("id", Long.class, "reading", int.class,
+            "load", Double.class, "active", Boolean.class, "phase", Phase.class, "name", String.class);
+
+    private static final EntityType<Meter> METER = InMemoryCriteria.entityType(Meter.class, COLUMNS);
+
+    private static final List<Meter> ROWS = List.of(
+            new Meter(1, 10, 0.5, true, Phase.A, "North_1"),
+            new Meter(2, 20, 1.5, false, Phase.B, "south 50%"),
+            new Meter(3, 30, null, true, Phase.C, "North 2"));
+
+    @Test
+    void unknownColumnsAreBadRequests() {
+        for (String column : Arrays.asList("secret", "Name", "", null)) {
+            BaseException ex = assertBadRequest(filter(column, "Equal", "1"));
+            assertTrue(ex.getMessage().contains("Unknown filter column"), ex.getMessage());
+        }
+        assertThrows(BaseException.class, () -> DataSpecificationUtil.columnType(METER, "secret"));
+    }
+
+    @Test
+    void unknownOperationsAreBadRequests() {
+        for (String operation : Arrays.asList("Like", "equal", "", null)) {
+            BaseException ex = assertBadRequest(filter("name", operation, "North"));
+            assertTrue(ex.getMessage().contains("Unsupported filter operation"), ex.getMessage());
+        }
+    }
+
+    @Test
+    void valuesAreConvertedToTheColumnType() throws BaseException {
+        assertEquals(List.of(2L), matching(filter("reading", "Equal", "20")));
+        assertEquals(List.of(1L, 2L, 3L), matching(filter("id", "In", "1", 3L, " 2 ")));
+        assertEquals(List.of(2L), matching(filter("load", "GreaterThan", "1")));
+        assertEquals(List.of(1L, 2L), matching(filter("reading", "Between", "10", 20)));
+        assertEquals(List.of(1L, 3L), matching(filter("active", "Equal", "TRUE")));
+        assertEquals(List.of(2L), matching(filter("phase", "Equal", "B")));
+        assertEquals(List.of(2L, 3L), matching(filter("phase", "NotEqual", Phase.A)));
+        assertEquals(List.of(1L), matching(filter("reading", "LessThan", 11), filter("active", "Equal", true)));
+    }
+
+    @Test
+    void primitiveColumnsAreBoxed() throws BaseException {
+        assertEquals(Integer.class, DataSpecificationUtil.columnType(METER, "reading"));
+        assertEquals(7L, DataSpecificationUtil.columnValue(METER, "id", "7"));
+        assertEquals(Phase.C, DataSpecificationUtil.columnValue(METER, "phase", "C"));
+    }
+
+    @Test
+    void valuesThatDoNotFitTheColumnAreBadRequests() {
+        for (FilterValue filter : List.of(
+                filter("reading", "Equal", "ten"), filter("reading", "Equal", "1.5"), filter("id", "In", "1", "x"),
+                filter("load", "GreaterThan", "1.5kW"), filter("active", "Equal", "yes"), filter("phase", "Equal", "b"),
+                filter("reading", "Equal", (Object) null), filter("reading", "Between", "10"))) {
+            BaseException ex = assertBadRequest(filter);
+            assertTrue(ex.getMessage().contains(filter.getColumnName()), ex.getMessage());
+        }
+    }
+
+    @Test
+    void textOperationsNeedATextColumn() {
+        assertBadRequest(filter("reading", "Include", "1"));
+        assertBadRequest(filter("phase", "StartsWith", "A"));
+    }
+
+    @Test
+    void textOperationsIgnoreCaseAndMatchWildcardsLiterally() throws BaseException {
+        assertEquals(List.of(1L, 3L), matching(filter("name", "StartsWith", "north")));
+        assertEquals(List.of(1L), matching(filter("name", "Include", "_")));
+        assertEquals(List.of(2L), matching(filter("name", "Include", "50%")));
+        assertEquals(List.of(), matching(filter("name", "Include", "1%")));
+    }
+
+    @Test
+    void filtersWithoutValuesMatchEverything() throws BaseException {
+        assertEquals(List.of(1L, 2L, 3L), matching(filter("name", "Equal")));
+        assertEquals(List.of(1L, 2L, 3L), matching(new FilterValue("name", "Equal", null)));
+        assertEquals(List.of(1L, 2L, 3L), ids(apply(DataSpecificationUtil.buildSpecification(METER,
+                new FilterRequest()), ROWS)));
+    }
+
+    @Test
+    void planIsCheckedOnceAndReusedAcrossQueries() throws BaseException {
+        EntityType<Gauge> gauge = InMemoryCriteria.entityType(Gauge.class, COLUMNS);
+        List<Gauge> rows = List.of(new Gauge(1, 10, 0.5, true, Phase.A, "a"), new Gauge(2, 20, 1.5, false, Phase.B, "b"));
+
+        Specification<Gauge> specification = DataSpecificationUtil.buildSpecification(gauge,
+                request(filter("reading", "GreaterThan", "15")));
+        DataSpecificationUtil.buildSpecification(gauge, request(filter("name", "Equal", "a")));
+        DataSpecificationUtil.columnType(gauge, "load");
+
+        // The metamodel is read for the first plan only
+        verify(gauge).getSingularAttributes();
+        // A page query and its count query each build predicates from the same plan
+        assertEquals(List.of(2L), ids(apply(specification, rows)));
+        assertEquals(List.of(2L), ids(apply(specification, rows)));
+    }
+
+    @Test
+    void invalidFiltersFailBeforeAnyQueryIsBuilt() {
+        // The first filter is fine; the plan is rejected as a whole
+        assertBadRequest(filter("name", "Equal", "North 2"), filter("reading", "Equal", "ten"));
+    }
+
+    private static FilterValue filter(String column, String operation, Object... values) {
+        return new FilterValue(column, operation, values);
+    }
+
+    private static FilterRequest request(FilterValue... filters) {
+        FilterRequest request = new FilterRequest();
+        request.setFilterValues(List.of(filters));
+        return request;
+    }
+
+    private static List<Long> matching(FilterValue... filters) throws BaseException {
+        return ids(apply(DataSpecificationUtil.buildSpecification(METER, request(filters)), ROWS));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> List<T> apply(Specification<T> specification, List<T> rows) {
+        InMemoryCriteria criteria = new InMemoryCriteria();
+        return criteria.filter(specification.toPredicate((Root) criteria.root, null, criteria.cb), rows);
+    }
+
+    private static List<Long> ids(List<? extends Meter> rows) {
+        return rows.stream().map(row -> row.id).toList();
+    }
+
+    private static BaseException assertBadRequest(FilterValue... filters) {
+        BaseException ex = assertThrows(BaseException.class,
+                () -> DataSpecificationUtil.buildSpecification(METER, request(filters)));
+        assertEquals(ResponseCodeEnum.BAD_REQUEST.code(), ex.getResponseCode());
+        return ex;
+    }
+}
@@ -0,0 +1,150 @@
+package com.TransformerUI.TransformerUI.service.util;
+
+import com.TransformerUI.TransformerUI.service.util.exception.type.BaseException;
+import com.TransformerUI.TransformerUI.transport.response.ResponseCodeEnum;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.metamodel.EntityType;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilterPageServiceTest {
+
+    static class Reading {
+        Long id;
+        Integer score;
+        String label;
+
+        Reading(long id, Integer score, String label) {
+            this.id = id;
+            this.score = score;
+            this.label = label;
+        }
+    }
+
+    private static final EntityType<Reading> READING = InMemoryCriteria.entityType(Reading.class,
+            Map.of("id", Long.class, "score", Integer.class, "label", String.class));
+
+    // Ties on score, nulls, and ids out of score order
+    private static final List<Reading> ROWS = List.of(
+            new Reading(1, 10, "a"), new Reading(2, null, "b|c"), new Reading(3, 20, null),
+            new Reading(4, 10, "d"), new Reading(5, null, "e"), new Reading(6, 30, "f"), new Reading(7, 20, "g"));
+
+    @Test
+    void cursorRoundTrips() throws BaseException {
+        Reading row = ROWS.get(2);
+        String token = FilterPageService.encode(new FilterPageService.Cursor("score", true, null, null), row, "id");
+        assertEquals(new FilterPageService.Cursor("score", true, "3", "20"), FilterPageService.decode(token));
+    }
+
+    @Test
+    void cursorKeepsNullAndSeparatorValues() throws BaseException {
+        FilterPageService.Cursor sortByLabel = new FilterPageService.Cursor("label", false, null, null);
+        assertEquals(new FilterPageService.Cursor("label", false, "3", null),
+                FilterPageService.decode(FilterPageService.encode(sortByLabel, ROWS.get(2), "id")));
+        assertEquals(new FilterPageService.Cursor("label", false, "2", "b|c"),
+                FilterPageService.decode(FilterPageService.encode(sortByLabel, ROWS.get(1), "id")));
+    }
+
+    @Test
+    void cursorIsUrlSafe() {
+        String token = FilterPageService.encode(new FilterPageService.Cursor("label", true, null, null),
+                new Reading(1, 1, "?/+=&"), "id");
+        assertTrue(token.matches("[A-Za-z0-9_-]+"), token);
+    }
+
+    @Test
+    void invalidCursorsAreBadRequests() {
+        for (String token : List.of("not base64!", "", encoded("1|score|D|3"), encoded("2|score|D|3|V20"),
+                encoded("1|score|X|3|V20"), encoded("1|score|A|3|20"))) {
+            BaseException ex = assertThrows(BaseException.class, () -> FilterPageService.decode(token), token);
+            assertEquals(ResponseCodeEnum.BAD_REQUEST.code(), ex.getResponseCode());
+        }
+    }
+
+    @Test
+    void tamperedCursorValuesAreBadRequests() {
+        InMemoryCriteria criteria = new InMemoryCriteria();
+        for (FilterPageService.Cursor cursor : List.of(
+                new FilterPageService.Cursor("secret", true, "3", "20"),
+                new FilterPageService.Cursor("score", true, "three", "20"),
+                new FilterPageService.Cursor("score", false, "3", "twenty"))) {
+            BaseException ex = assertThrows(BaseException.class,
+                    () -> FilterPageService.after(criteria.cb, criteria.root, READING, "id", cursor), cursor.toString());
+            assertEquals(ResponseCodeEnum.BAD_REQUEST.code(), ex.getResponseCode());
+        }
+    }
+
+    @Test
+    void afterContinuesDescendingWithNullsFirst() throws BaseException {
+        assertEveryPageContinues("score", true);
+    }
+
+    @Test
+    void afterContinuesAscendingWithNullsLast() throws BaseException {
+        assertEveryPageContinues("score", false);
+    }
+
+    @Test
+    void afterContinuesOnTextColumns() throws BaseException {
+        assertEveryPageContinues("label", true);
+        assertEveryPageContinues("label", false);
+    }
+
+    @Test
+    void afterContinuesOnTheIdAlone() throws BaseException {
+        assertEveryPageContinues("id", true);
+        assertEveryPageContinues("id", false);
+    }
+
+    /**
+     * Whatever row a page ends on, the cursor built from it selects exactly the rows after it in
+     * PostgreSQL's order: nulls first when descending, last when ascending, ties broken by id.
+     */
+    private static void assertEveryPageContinues(String column, boolean descending) throws BaseException {
+        List<Reading> ordered = new ArrayList<>(ROWS);
+        ordered.sort(order(column, descending));
+        for (int i = 0; i < ordered.size(); i++) {
+            String token = FilterPageService.encode(new FilterPageService.Cursor(column, descending, null, null), ordered.get(i), "id");
+            InMemoryCriteria criteria = new InMemoryCriteria();
+            Predicate after = FilterPageService.after(criteria.cb, criteria.root, READING, "id", FilterPageService.decode(token));
+            assertEquals(ids(ordered.subList(i + 1, ordered.size())), ids(criteria.filter(after, ROWS).stream()
+                            .sorted(order(column, descending)).toList()),
+                    "after row " + ordered.get(i).id + " sorting by " + column + (descending ? " desc" : " asc"));
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<Reading> order(String column, boolean descending) {
+        Comparator<Comparable> values = descending
+                ? Comparator.nullsFirst(Comparator.<Comparable>naturalOrder().reversed())
+                : Comparator.nullsLast(Comparator.<Comparable>naturalOrder());
+        Comparator<Reading> byColumn = Comparator.comparing(row -> (Comparable) value(row, column), values);
+        Comparator<Reading> byId = Comparator.comparing(row -> row.id);
+        return byColumn.thenComparing(descending ? byId.reversed() : byId);
+    }
+
+    private static Object value(Reading row, String column) {
+        return switch (column) {
+            case "id" -> row.id;
+            case "score" -> row.score;
+            case "label" -> row.label;
+            default -> throw new IllegalArgumentException(column);
+        };
+    }
+
+    private static List<Long> ids(List<Reading> rows) {
+        return rows.stream().map(row -> row.id).toList();
+    }
+
+    private static String encoded(String token) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,202 @@
+package com.TransformerUI.TransformerUI.service.util;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.beans.PropertyAccessorFactory;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Mocked {@link CriteriaBuilder} and {@link Root} whose predicates can be evaluated against plain
+ * objects, read by field name, with SQL semantics: comparisons with null are false and LIKE
+ * patterns honour the escape character. Covers the parts of the criteria API the filter and
+ * keyset code uses.
+ */
+final class InMemoryCriteria {
+
+    private final Map<Object, Function<Object, Object>> expressions = new IdentityHashMap<>();
+    private final Map<Object, java.util.function.Predicate<Object>> predicates = new IdentityHashMap<>();
+
+    final CriteriaBuilder cb = mock(CriteriaBuilder.class, this::builder);
+    @SuppressWarnings("unchecked")
+    final Root<Object> root = mock(Root.class, this::path);
+
+    boolean test(Predicate predicate, Object row) {
+        java.util.function.Predicate<Object> test = predicates.get(predicate);
+        if (test == null) {
+            throw new IllegalArgumentException("Predicate was not built by this criteria builder");
+        }
+        return test.test(row);
+    }
+
+    <T> List<T> filter(Predicate predicate, List<T> rows) {
+        return rows.stream().filter(row -> test(predicate, row)).toList();
+    }
+
+    /**
+     * An entity type of {@code javaType} whose basic attributes are {@code columns}.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static <T> EntityType<T> entityType(Class<T> javaType, Map<String, Class<?>> columns) {
+        EntityType<T> entityType = mock(EntityType.class);
+        when(entityType.getJavaType()).thenReturn(javaType);
+        Set attributes = new HashSet<>();
+        columns.forEach((name, type) -> {
+            SingularAttribute attribute = mock(SingularAttribute.class);
+            when(attribute.getName()).thenReturn(name);
+            when(attribute.getJavaType()).thenReturn(type);
+            when(attribute.getPersistentAttributeType()).thenReturn(Attribute.PersistentAttributeType.BASIC);
+            attributes.add(attribute);
+        });
+        when(entityType.getSingularAttributes()).thenReturn(attributes);
+        return entityType;
+    }
+
+    private Object path(InvocationOnMock invocation) {
+        String method = invocation.getMethod().getName();
+        if (method.equals("get") && invocation.getArguments().length == 1 && invocation.getArgument(0) instanceof String name) {
+            return expression(Path.class, row -> PropertyAccessorFactory.forDirectFieldAccess(row).getPropertyValue(name));
+        }
+        return null;
+    }
+
+    private Object expressionMethod(Function<Object, Object> self, InvocationOnMock invocation) {
+        if (invocation.getMethod().getName().equals("in")) {
+            List<Object> values = flatten(invocation.getArguments());
+            return predicate(row -> {
+                Object value = self.apply(row);
+                return value != null && values.stream().anyMatch(v -> compare(value, v) == 0);
+            });
+        }
+        return null;
+    }
+
+    private Object builder(InvocationOnMock invocation) {
+        Object[] args = invocation.getArguments();
+        switch (invocation.getMethod().getName()) {
+            case "and":
+                return combine(args, true);
+            case "or":
+                return combine(args, false);
+            case "isNull":
+                return predicate(row -> value(args[0], row) == null);
+            case "isNotNull":
+                return predicate(row -> value(args[0], row) != null);
+            case "equal":
+                return comparison(args, c -> c == 0);
+            case "notEqual":
+                return comparison(args, c -> c != 0);
+            case "lessThan":
+                return comparison(args, c -> c < 0);
+            case "greaterThan":
+                return comparison(args, c -> c > 0);
+            case "lessThanOrEqualTo":
+                return comparison(args, c -> c <= 0);
+            case "greaterThanOrEqualTo":
+                return comparison(args, c -> c >= 0);
+            case "between":
+                return predicate(row -> {
+                    Object value = value(args[0], row);
+                    return value != null && compare(value, value(args[1], row)) >= 0 && compare(value, value(args[2], row)) <= 0;
+                });
+            case "lower":
+                return expression(jakarta.persistence.criteria.Expression.class, row -> {
+                    Object value = value(args[0], row);
+                    return value == null ? null : value.toString().toLowerCase(Locale.ROOT);
+                });
+            case "like":
+                Pattern pattern = likePattern((String) args[1], args.length > 2 ? (Character) args[2] : null);
+                return predicate(row -> {
+                    Object value = value(args[0], row);
+                    return value != null && pattern.matcher(value.toString()).matches();
+                });
+            case "toString":
+                return "InMemoryCriteria";
+            default:
+                throw new UnsupportedOperationException("CriteriaBuilder." + invocation.getMethod().getName());
+        }
+    }
+
+    private Predicate combine(Object[] args, boolean and) {
+        List<Object> parts = flatten(args);
+        return predicate(row -> and
+                ? parts.stream().allMatch(p -> test((Predicate) p, row))
+                : parts.stream().anyMatch(p -> test((Predicate) p, row)));
+    }
+
+    private Predicate comparison(Object[] args, java.util.function.IntPredicate accept) {
+        return predicate(row -> {
+            Object left = value(args[0], row);
+            Object right = value(args[1], row);
+            return left != null && right != null && accept.test(compare(left, right));
+        });
+    }
+
+    private <E> E expression(Class<E> type, Function<Object, Object> evaluate) {
+        E expression = mock(type, invocation -> expressionMethod(evaluate, invocation));
+        expressions.put(expression, evaluate);
+        return expression;
+    }
+
+    private Predicate predicate(java.util.function.Predicate<Object> test) {
+        Predicate predicate = mock(Predicate.class);
+        predicates.put(predicate, test);
+        return predicate;
+    }
+
+    // An expression built here, or a literal
+    private Object value(Object argument, Object row) {
+        Function<Object, Object> expression = expressions.get(argument);
+        return expression != null ? expression.apply(row) : argument;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Object left, Object right) {
+        if (left instanceof Comparable comparable && left.getClass().isInstance(right)) {
+            return comparable.compareTo(right);
+        }
+        return left.equals(right) ? 0 : 1;
+    }
+
+    private static List<Object> flatten(Object[] args) {
+        List<Object> flat = new ArrayList<>();
+        for (Object arg : args) {
+            if (arg instanceof Object[] array) {
+                flat.addAll(Arrays.asList(array));
+            } else if (arg instanceof Collection<?> collection) {
+                flat.addAll(collection);
+            } else {
+                flat.add(arg);
+            }
+        }
+        return flat;
+    }
+
+    private static Pattern likePattern(String like, Character escape) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < like.length(); i++) {
+            char c = like.charAt(i);
+            if (escape != null && c == escape && i + 1 < like.length()) {
+                regex.append(Pattern.quote(String.valueOf(like.charAt(++i))));
+            } else if (c == '%') {
+                regex.append(".*");
+            } else if (c == '_') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+}
@@ -11,7 +11,7 @@ export default function TransformerDetailPage() {
   const [showAddModal, setShowAddModal] = useState(false);
   const [editInspection, setEditInspection] = useState(null);
   const ITEMS_PER_PAGE = 10;
-  const offset = currentPage - 1;
+  const offset = (currentPage - 1) * ITEMS_PER_PAGE;
 
   const {
     data: inspections,